@@ -11,9 +11,18 @@ import org.jd.gui.api.API;
 import org.jd.gui.api.model.Indexes;
 
 import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 import java.util.function.DoubleConsumer;
 import java.util.function.DoubleSupplier;
 
 public interface ContentIndexable {
     Indexes index(API api, DoubleSupplier getProgressFunction, DoubleConsumer setProgressFunction, BooleanSupplier isCancelledFunction);
+
+    /**
+     * Index the content and publish partial snapshots while indexing is running. Each snapshot is
+     * read-only and contains a subset of the final indexes.
+     */
+    default Indexes index(API api, DoubleSupplier getProgressFunction, DoubleConsumer setProgressFunction, BooleanSupplier isCancelledFunction, Consumer<Indexes> publishFunction) {
+        return index(api, getProgressFunction, setProgressFunction, isCancelledFunction);
+    }
 }
@@ -61,6 +61,40 @@ import java.util.Map;
  *         key: a super type name using internal JVM internal format<br>
  *         value: a list of sub type names using internal JVM internal format
  *     </li>
+ *     <li>
+ *         Map "superClassNames"<br>
+ *         key: a type name using internal JVM internal format<br>
+ *         value: a list containing the super class name, empty if the type has no super class
+ *     </li>
+ *     <li>
+ *         Map "typeAccessFlags"<br>
+ *         key: a type name using internal JVM internal format<br>
+ *         value: a list containing the access flags of the type declaration, as a decimal string
+ *     </li>
+ *     <li>
+ *         Map "outerTypeNames"<br>
+ *         key: an inner type name using internal JVM internal format<br>
+ *         value: a list containing the name of the enclosing type
+ *     </li>
+ *     <li>
+ *         Map "memberDeclarations"<br>
+ *         key: a type name using internal JVM internal format, '.' and a field or method name<br>
+ *         value: a list of field or method descriptors
+ *     </li>
+ *     <li>
+ *         Map "memberConstants"<br>
+ *         key: a type name using internal JVM internal format<br>
+ *         value: a list of groups, each one being the entry of the class file, the name and the descriptor of the
+ *         field or method using the constants, both empty for the type, the name of the index listing the
+ *         constants and the constants. Only groups start with an entry. Apart from the index names, the
+ *         constructor name and the empty string, the strings are keys or values of the other indexes
+ *     </li>
+ *     <li>
+ *         Map "textTokenLines"<br>
+ *         key: a token of a text resource, see "strings"<br>
+ *         value: a list of groups, each one being the entry of the text resource and the numbers of the lines
+ *         containing the token, in increasing order. Only groups start with an entry
+ *     </li>
  * </ul>
  */
 public interface Indexes {
@@ -12,6 +12,8 @@ import org.jd.gui.controller.MainController;
 import org.jd.gui.model.configuration.Configuration;
 import org.jd.gui.service.configuration.ConfigurationPersister;
 import org.jd.gui.service.configuration.ConfigurationPersisterService;
+import org.jd.gui.service.configuration.ConfigurationXmlPersisterProvider;
+import org.jd.gui.util.decompiler.DecompilationCache;
 import org.jd.gui.util.net.InterProcessCommunicationUtil;
 
 import java.io.File;
@@ -24,6 +26,7 @@ import javax.swing.UIManager;
 
 public class App {
     protected static final String SINGLE_INSTANCE = "UIMainWindowPreferencesProvider.singleInstance";
+    protected static final String DECOMPILATION_CACHE_DIRECTORY = "jd-gui-sources";
 
     protected static MainController controller;
 
@@ -35,6 +38,8 @@ public class App {
             ConfigurationPersister persister = ConfigurationPersisterService.getInstance().get();
             Configuration configuration = persister.load();
             Runtime.getRuntime().addShutdownHook(new Thread(() -> persister.save(configuration)));
+            // Keep the decompiled sources next to the configuration
+            DecompilationCache.getInstance().setDirectory(new File(ConfigurationXmlPersisterProvider.getConfigDirectory(), DECOMPILATION_CACHE_DIRECTORY));
 
             if ("true".equals(configuration.getPreferences().get(SINGLE_INSTANCE))) {
                 try {
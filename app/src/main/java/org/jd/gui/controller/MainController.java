@@ -84,6 +84,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
@@ -768,23 +769,44 @@ public class MainController implements API {
         }
     }
 
-    private final class IndexerWorker extends AbstractSwingWorker<Indexes, Void> {
+    private final class IndexerWorker extends AbstractSwingWorker<Indexes, Indexes> {
         private final ContentIndexable ci;
+        private volatile Indexes snapshot;
 
         private IndexerWorker(Component component, ContentIndexable ci) {
             super(component, "Indexing ...");
             this.ci = ci;
         }
 
+        /**
+         * @return this worker once indexing is done, a completed future of the last published snapshot otherwise
+         */
+        private Future<Indexes> getFutureIndexes() {
+            Indexes lastSnapshot = snapshot;
+            return isDone() || lastSnapshot == null ? this : CompletableFuture.completedFuture(lastSnapshot);
+        }
+
         @Override
         protected Indexes doInBackground() throws Exception {
-            return ci.index(MainController.this, this::getProgressPercentage, this::setProgressPercentage, this::isCancelled);
+            return ci.index(MainController.this, this::getProgressPercentage, this::setProgressPercentage, this::isCancelled, this::publish);
+        }
+
+        @Override
+        protected void process(List<Indexes> chunks) {
+            if (!isDone()) {
+                snapshot = chunks.get(chunks.size() - 1);
+                fireIndexesChanged();
+            }
         }
 
         @Override
         protected void done() {
             super.done();
+            snapshot = null;
+            fireIndexesChanged();
+        }
 
+        private void fireIndexesChanged() {
             // Fire 'indexesChanged' event
             Collection<Future<Indexes>> collectionOfFutureIndexes = getCollectionOfFutureIndexes();
             for (IndexesChangeListener listener : containerChangeListeners) {
@@ -967,7 +989,7 @@ public class MainController implements API {
             // to convert to jdk16 pattern matching only when spotbugs #1617 and eclipse #577987 are solved
             ContentIndexable ci = (ContentIndexable) component;
             UIManager.put("ProgressMonitor.progressText", title);
-            SwingWorker<Indexes, Void> worker = new IndexerWorker(component, ci);
+            SwingWorker<Indexes, Indexes> worker = new IndexerWorker(component, ci);
             worker.execute();
 
             component.putClientProperty(INDEXES, worker);
@@ -1065,7 +1087,11 @@ public class MainController implements API {
         };
         for (JComponent panel : mainPanels) {
             Future<Indexes> futureIndexes = (Future<Indexes>) panel.getClientProperty(INDEXES);
-            if (futureIndexes != null) {
+            if (futureIndexes instanceof IndexerWorker) { // to convert to jdk16 pattern matching only when spotbugs #1617 and eclipse #577987 are solved
+                // Partial indexes are visible while indexing is running
+                IndexerWorker indexerWorker = (IndexerWorker) futureIndexes;
+                list.add(indexerWorker.getFutureIndexes());
+            } else if (futureIndexes != null) {
                 list.add(futureIndexes);
             }
         }
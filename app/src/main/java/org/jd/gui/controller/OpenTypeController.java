@@ -11,30 +11,38 @@ import org.jd.core.v1.service.converter.classfiletojavasyntax.util.ExceptionUtil
 import org.jd.gui.api.API;
 import org.jd.gui.api.model.Container;
 import org.jd.gui.api.model.Indexes;
+import org.jd.gui.util.SearchScheduler;
+import org.jd.gui.util.index.CompactIndexes;
+import org.jd.gui.util.index.IndexesResultCache;
+import org.jd.gui.util.index.TypeNameIndex;
+import org.jd.gui.util.matcher.GlobMatcher;
 import org.jd.gui.util.net.UriUtil;
 import org.jd.gui.view.OpenTypeView;
-import org.jd.util.LRUCache;
+import org.jd.gui.view.component.OpenTypeListModel;
 import org.jd.gui.api.feature.IndexesChangeListener;
 
 import java.awt.Point;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
-import java.util.regex.Pattern;
 
 import javax.swing.JFrame;
-import javax.swing.SwingUtilities;
 
 public class OpenTypeController implements IndexesChangeListener {
+    protected static final long CACHE_MAX_WEIGHT = 16L << 20;
 
     private final API api;
-    private final ScheduledExecutorService executor;
+    private final SearchScheduler searchScheduler;
     private Collection<Future<Indexes>> collectionOfFutureIndexes;
     private Consumer<URI> openCallback;
 
@@ -43,16 +51,16 @@ public class OpenTypeController implements IndexesChangeListener {
 
     private long indexesHashCode;
     @SuppressWarnings("rawtypes")
-    private final LRUCache<String, Map<String, Collection>> cache;
+    private final IndexesResultCache<Map<String, Collection>> cache;
 
     public OpenTypeController(API api, ScheduledExecutorService executor, JFrame mainFrame) {
         this.api = api;
-        this.executor = executor;
+        this.searchScheduler = new SearchScheduler(executor);
         // Create UI
         openTypeView = new OpenTypeView(api, mainFrame, this::updateList, this::onTypeSelected);
         selectLocationController = new SelectLocationController(api, mainFrame);
         // Create result cache
-        cache = new LRUCache<>();
+        cache = new IndexesResultCache<>(CACHE_MAX_WEIGHT, IndexesResultCache::weigh);
     }
 
     public void show(Collection<Future<Indexes>> collectionOfFutureIndexes, Consumer<URI> openCallback) {
@@ -70,169 +78,116 @@ public class OpenTypeController implements IndexesChangeListener {
         openTypeView.show();
     }
 
-    @SuppressWarnings({ "rawtypes", "unchecked" })
     protected void updateList(String pattern) {
-        int patternLength = pattern.length();
-
-        if (patternLength == 0) {
+        if (pattern.isEmpty()) {
+            searchScheduler.cancel();
+            openTypeView.hideWaitCursor();
             // Display
-            openTypeView.updateList(Collections.emptyMap());
+            openTypeView.updateList(new OpenTypeListModel(api, Collections.emptyMap()));
         } else {
-            executor.execute(() -> {
+            searchScheduler.submit(isCancelledFunction -> {
                 // Waiting the end of indexation...
                 openTypeView.showWaitCursor();
+                // Select and sort the first types out of the event dispatch thread
+                return new OpenTypeListModel(api, search(pattern, isCancelledFunction));
+            }, result -> {
+                openTypeView.hideWaitCursor();
+                // Display
+                openTypeView.updateList(result);
+            });
+        }
+    }
 
-                Pattern regExpPattern = createRegExpPattern(pattern);
-                Map<String, Collection<Container.Entry>> result = new HashMap<>();
-
-                try {
-                    for (Future<Indexes> futureIndexes : collectionOfFutureIndexes) {
-                        if (futureIndexes.isDone()) {
-                            Indexes indexes = futureIndexes.get();
-                            String key = String.valueOf(indexes.hashCode()) + "***" + pattern;
-                            Map<String, Collection> matchingEntries = cache.get(key);
-
-                            if (matchingEntries != null) {
-                                // Merge 'result' and 'matchingEntries'
-                                for (Map.Entry<String, Collection> mapEntry : matchingEntries.entrySet()) {
-                                    result.computeIfAbsent(mapEntry.getKey(), k -> new HashSet<>()).addAll(mapEntry.getValue());
-                                }
-                            } else {
-                                // Waiting the end of indexation...
-                                Map<String, Collection> index = indexes.getIndex("typeDeclarations");
-
-                                if (index != null && !index.isEmpty()) {
-                                    matchingEntries = new HashMap<>();
-
-                                    // Filter
-                                    if (patternLength == 1) {
-                                        match(pattern.charAt(0), index, matchingEntries);
-                                    } else {
-                                        String lastKey = key.substring(0, patternLength - 1);
-                                        Map<String, Collection> lastResult = cache.get(lastKey);
+    /**
+     * Search the containers in parallel.
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    protected Map<String, Collection<Container.Entry>> search(String pattern, BooleanSupplier isCancelledFunction) {
+        int patternLength = pattern.length();
+        // Glob matchers are only used for wildcards, prefix and CamelCase queries use the type name index
+        GlobMatcher globMatcher = pattern.indexOf('*') != -1 || pattern.indexOf('?') != -1 ? GlobMatcher.compileTypeName(pattern) : null;
+        Map<String, Collection<Container.Entry>> result = new ConcurrentHashMap<>();
+        List<Indexes> doneIndexes = new ArrayList<>();
+
+        try {
+            for (Future<Indexes> futureIndexes : collectionOfFutureIndexes) {
+                if (futureIndexes.isDone()) {
+                    doneIndexes.add(futureIndexes.get());
+                }
+            }
+        } catch (InterruptedException e) {
+            assert ExceptionUtil.printStackTrace(e);
+            // Restore interrupted state...
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            assert ExceptionUtil.printStackTrace(e);
+        }
 
-                                        if (lastResult != null) {
-                                            match(regExpPattern, lastResult, matchingEntries);
-                                        } else {
-                                            match(regExpPattern, index, matchingEntries);
-                                        }
-                                    }
+        SearchScheduler.forEach(doneIndexes, isCancelledFunction, indexes -> {
+            Map<String, Collection> matchingEntries = cache.get(indexes, pattern);
 
-                                    // Store 'matchingEntries'
-                                    cache.put(key, matchingEntries);
+            if (matchingEntries == null) {
+                // Waiting the end of indexation...
+                Map<String, Collection> index = indexes.getIndex("typeDeclarations");
 
-                                    // Merge 'result' and 'matchingEntries'
-                                    for (Map.Entry<String, Collection> mapEntry : matchingEntries.entrySet()) {
-                                        result.computeIfAbsent(mapEntry.getKey(), k -> new HashSet<>()).addAll(mapEntry.getValue());
-                                    }
-                                }
-                            }
-                        }
-                    }
-                } catch (InterruptedException e) {
-                    assert ExceptionUtil.printStackTrace(e);
-                    // Restore interrupted state...
-                    Thread.currentThread().interrupt();
-                } catch (Exception e) {
-                    assert ExceptionUtil.printStackTrace(e);
+                if (index == null || index.isEmpty()) {
+                    return;
                 }
 
-                SwingUtilities.invokeLater(() -> {
-                    openTypeView.hideWaitCursor();
-                    // Display
-                    openTypeView.updateList(result);
-                });
-            });
-        }
-    }
-
-    @SuppressWarnings({ "rawtypes" })
-    protected static void match(char c, Map<String, Collection> index, Map<String, Collection> result) {
-        // Filter
-        if (Character.isLowerCase(c)) {
-            char upperCase = Character.toUpperCase(c);
-
-            for (Map.Entry<String, Collection> mapEntry : index.entrySet()) {
-                String typeName = mapEntry.getKey();
-                @SuppressWarnings("unchecked")
-                Collection<Container.Entry> entries = mapEntry.getValue();
-                // Search last package separator
-                int lastPackageSeparatorIndex = typeName.lastIndexOf('/') + 1;
-                int lastTypeNameSeparatorIndex = typeName.lastIndexOf('$') + 1;
-                int lastIndex = Math.max(lastPackageSeparatorIndex, lastTypeNameSeparatorIndex);
+                matchingEntries = new HashMap<>();
 
-                if (lastIndex < typeName.length()) {
-                    char first = typeName.charAt(lastIndex);
+                // Filter
+                if (globMatcher != null) {
+                    // Reuse the result of the previous pattern, if it had wildcards too
+                    String lastPattern = pattern.substring(0, patternLength - 1);
+                    boolean lastPatternHasWildcards = lastPattern.indexOf('*') != -1 || lastPattern.indexOf('?') != -1;
+                    Map<String, Collection> lastResult = lastPatternHasWildcards ? cache.get(indexes, lastPattern) : null;
 
-                    if (first == c || first == upperCase) {
-                        add(result, typeName, entries);
+                    if (lastResult != null) {
+                        match(globMatcher, lastResult, matchingEntries);
+                    } else {
+                        match(globMatcher, index, matchingEntries);
                     }
+                } else if (indexes instanceof CompactIndexes) { // to convert to jdk16 pattern matching only when spotbugs #1617 and eclipse #577987 are solved
+                    CompactIndexes compactIndexes = (CompactIndexes) indexes;
+                    Map<String, Collection> typeNameEntries = matchingEntries;
+                    compactIndexes.getTypeNameIndex().match(pattern, typeName -> add(typeNameEntries, typeName, index.get(typeName)));
+                } else {
+                    match(pattern, index, matchingEntries);
                 }
+
+                // Store 'matchingEntries'
+                cache.put(indexes, pattern, matchingEntries);
             }
-        } else {
-            for (Map.Entry<String, Collection> mapEntry : index.entrySet()) {
-                String typeName = mapEntry.getKey();
-                @SuppressWarnings("unchecked")
-                Collection<Container.Entry> entries = mapEntry.getValue();
-                // Search last package separator
-                int lastPackageSeparatorIndex = typeName.lastIndexOf('/') + 1;
-                int lastTypeNameSeparatorIndex = typeName.lastIndexOf('$') + 1;
-                int lastIndex = Math.max(lastPackageSeparatorIndex, lastTypeNameSeparatorIndex);
 
-                if (lastIndex < typeName.length() && typeName.charAt(lastIndex) == c) {
-                    add(result, typeName, entries);
-                }
+            // Merge 'result' and 'matchingEntries'
+            for (Map.Entry<String, Collection> mapEntry : matchingEntries.entrySet()) {
+                result.computeIfAbsent(mapEntry.getKey(), k -> ConcurrentHashMap.newKeySet()).addAll(mapEntry.getValue());
             }
-        }
-    }
+        });
 
-    /**
-     * Create a regular expression to match package, type and inner type name.
-     *
-     * Rules: '*' matches 0 ou N characters '?' matches 1 character lower case
-     * matches insensitive case upper case matches upper case
-     */
-    protected static Pattern createRegExpPattern(String pattern) {
-        // Create regular expression
-        int patternLength = pattern.length();
-        StringBuilder sbPattern = new StringBuilder(patternLength * 4);
+        return result;
+    }
 
-        for (int i = 0; i < patternLength; i++) {
-            char c = pattern.charAt(i);
+    @SuppressWarnings({ "rawtypes" })
+    protected static void match(String pattern, Map<String, Collection> index, Map<String, Collection> result) {
+        for (Map.Entry<String, Collection> mapEntry : index.entrySet()) {
+            String typeName = mapEntry.getKey();
 
-            if (Character.isUpperCase(c)) {
-                if (i > 1) {
-                    sbPattern.append(".*");
-                }
-                sbPattern.append(c);
-            } else if (Character.isLowerCase(c)) {
-                sbPattern.append('[').append(c).append(Character.toUpperCase(c)).append(']');
-            } else if (c == '*') {
-                sbPattern.append(".*");
-            } else if (c == '?') {
-                sbPattern.append(".");
-            } else {
-                sbPattern.append(c);
+            if (TypeNameIndex.matches(pattern, typeName)) {
+                add(result, typeName, mapEntry.getValue());
             }
         }
-
-        sbPattern.append(".*");
-
-        return Pattern.compile(sbPattern.toString());
     }
 
     @SuppressWarnings({ "rawtypes" })
-    protected static void match(Pattern regExpPattern, Map<String, Collection> index, Map<String, Collection> result) {
+    protected static void match(GlobMatcher globMatcher, Map<String, Collection> index, Map<String, Collection> result) {
         for (Map.Entry<String, Collection> mapEntry : index.entrySet()) {
             String typeName = mapEntry.getKey();
             @SuppressWarnings("unchecked")
             Collection<Container.Entry> entries = mapEntry.getValue();
-            // Search last package separator
-            int lastPackageSeparatorIndex = typeName.lastIndexOf('/') + 1;
-            int lastTypeNameSeparatorIndex = typeName.lastIndexOf('$') + 1;
-            int lastIndex = Math.max(lastPackageSeparatorIndex, lastTypeNameSeparatorIndex);
-
-            if (regExpPattern.matcher(typeName.substring(lastIndex)).matches()) {
+            // Match the simple name
+            if (globMatcher.matches(typeName, TypeNameIndex.getSimpleNameIndex(typeName), typeName.length())) {
                 add(result, typeName, entries);
             }
         }
@@ -258,6 +213,9 @@ public class OpenTypeController implements IndexesChangeListener {
     // --- IndexesChangeListener --- //
     @Override
     public void indexesChanged(Collection<Future<Indexes>> collectionOfFutureIndexes) {
+        // Drop the results of the closed containers
+        cache.retainIndexes(collectionOfFutureIndexes);
+
         if (openTypeView.isVisible()) {
             // Update the list of containers
             this.collectionOfFutureIndexes = collectionOfFutureIndexes;
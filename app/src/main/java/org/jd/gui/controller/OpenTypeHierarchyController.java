@@ -22,7 +22,6 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.function.Consumer;
 
 import javax.swing.JFrame;
-import javax.swing.SwingUtilities;
 
 public class OpenTypeHierarchyController implements IndexesChangeListener {
     private final API api;
@@ -38,7 +37,7 @@ public class OpenTypeHierarchyController implements IndexesChangeListener {
         this.api = api;
         this.executor = executor;
         // Create UI
-        openTypeHierarchyView = new OpenTypeHierarchyView(api, mainFrame, this::onTypeSelected);
+        openTypeHierarchyView = new OpenTypeHierarchyView(api, executor, mainFrame, this::onTypeSelected);
         selectLocationController = new SelectLocationController(api, mainFrame);
     }
 
@@ -46,15 +45,8 @@ public class OpenTypeHierarchyController implements IndexesChangeListener {
         // Init attributes
         this.collectionOfFutureIndexes = collectionOfFutureIndexes;
         this.openCallback = openCallback;
-        executor.execute(() -> {
-            // Waiting the end of indexation...
-            openTypeHierarchyView.showWaitCursor();
-            SwingUtilities.invokeLater(() -> {
-                openTypeHierarchyView.hideWaitCursor();
-                // Show
-                openTypeHierarchyView.show(collectionOfFutureIndexes, entry, typeName);
-            });
-        });
+        // Show, the hierarchy is computed in the background
+        openTypeHierarchyView.show(collectionOfFutureIndexes, entry, typeName);
     }
 
     protected void onTypeSelected(Point leftBottom, Collection<Container.Entry> entries, String typeName) {
@@ -13,7 +13,6 @@ import org.jd.gui.api.feature.SourcesSavable;
 import org.jd.gui.util.swing.AbstractSwingWorker;
 
 import java.io.File;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.concurrent.ExecutionException;
@@ -50,14 +49,8 @@ public class SaveAllSourcesController {
         protected Void doInBackground() throws Exception {
 
             try {
-                Path path = Paths.get(file.toURI());
-                Files.deleteIfExists(path);
-
-                trySave(path);
-
-                if (isCancelled()) {
-                    Files.deleteIfExists(path);
-                }
+                // Keep the file of a previous save, its manifest lists the sources to save again
+                trySave(Paths.get(file.toURI()));
             } catch (Exception t) {
                 assert ExceptionUtil.printStackTrace(t);
             }
@@ -12,42 +12,53 @@ import org.jd.gui.api.API;
 import org.jd.gui.api.feature.IndexesChangeListener;
 import org.jd.gui.api.model.Container;
 import org.jd.gui.api.model.Indexes;
-import org.jd.gui.api.model.Type;
 import org.jd.gui.model.container.DelegatingFilterContainer;
 import org.jd.gui.model.container.entry.path.FileEntryPath;
-import org.jd.gui.service.type.TypeFactoryService;
-import org.jd.gui.spi.TypeFactory;
+import org.jd.gui.util.SearchScheduler;
 import org.jd.gui.util.function.TriConsumer;
+import org.jd.gui.util.index.CompactIndexes;
+import org.jd.gui.util.index.IndexesResultCache;
+import org.jd.gui.util.index.TextTokenizer;
+import org.jd.gui.util.index.TrigramIndex;
+import org.jd.gui.util.index.TypeNameIndex;
+import org.jd.gui.util.matcher.GlobMatcher;
 import org.jd.gui.view.SearchInConstantPoolsView;
-import org.jd.util.LRUCache;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.function.BiFunction;
+import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
 import java.util.function.ObjIntConsumer;
-import java.util.regex.Pattern;
 
 import javax.swing.JFrame;
 
 public class SearchInConstantPoolsController implements IndexesChangeListener {
-    protected static final int CACHE_MAX_ENTRIES = 5 * 20 * 9;
+    protected static final long CACHE_MAX_WEIGHT = 32L << 20;
+    protected static final Set<String> TYPE_INDEX_NAMES = Set.of("typeDeclarations", "typeReferences", "constructorDeclarations", "constructorReferences");
 
     private final API api;
-    private final ScheduledExecutorService executor;
+    private final SearchScheduler searchScheduler;
 
     @SuppressWarnings("rawtypes")
     private final SearchInConstantPoolsView searchInConstantPoolsView;
-    @SuppressWarnings("rawtypes")
-    private final Map<String, Map<String, Collection>> cache;
-    private final Set<DelegatingFilterContainer> delegatingFilterContainers = new HashSet<>();
+    // Matching keys of the indexes: the values would keep the compact indexes reachable
+    private final IndexesResultCache<String[]> cache;
+    private Set<DelegatingFilterContainer> delegatingFilterContainers = Collections.emptySet();
+    // Line of the first match of the phrase in the matching text resources
+    private Map<Container.Entry, Integer> phraseLineNumbers = Collections.emptyMap();
     private Collection<Future<Indexes>> collectionOfFutureIndexes;
     private Consumer<URI> openCallback;
     private long indexesHashCode;
@@ -55,13 +66,13 @@ public class SearchInConstantPoolsController implements IndexesChangeListener {
     @SuppressWarnings({ "unchecked", "rawtypes" })
     public SearchInConstantPoolsController(API api, ScheduledExecutorService executor, JFrame mainFrame) {
         this.api = api;
-        this.executor = executor;
+        this.searchScheduler = new SearchScheduler(executor);
         // Create UI
         ObjIntConsumer<String> changedPatternCallback = this::updateTree;
         TriConsumer<URI, String, Integer> selectedTypeCallback = this::onTypeSelected;
         this.searchInConstantPoolsView = new SearchInConstantPoolsView(api, mainFrame, changedPatternCallback, selectedTypeCallback);
         // Create result cache
-        this.cache = new LRUCache<>(CACHE_MAX_ENTRIES);
+        this.cache = new IndexesResultCache<>(CACHE_MAX_WEIGHT, IndexesResultCache::weighKeys);
     }
 
     public void show(Collection<Future<Indexes>> collectionOfFutureIndexes, Consumer<URI> openCallback) {
@@ -81,237 +92,572 @@ public class SearchInConstantPoolsController implements IndexesChangeListener {
 
     @SuppressWarnings("unchecked")
     protected void updateTree(String pattern, int flags) {
-        delegatingFilterContainers.clear();
+        Map<Container.Entry, Integer> lineNumbers = new ConcurrentHashMap<>();
 
-        executor.execute(() -> {
+        searchScheduler.submit(isCancelledFunction -> {
             // Waiting the end of indexation...
             searchInConstantPoolsView.showWaitCursor();
-
+            return search(pattern, flags, lineNumbers, isCancelledFunction);
+        }, result -> {
             int matchingTypeCount = 0;
-            int patternLength = pattern.length();
-
-            if (patternLength > 0) {
-                try {
-                    for (Future<Indexes> futureIndexes : collectionOfFutureIndexes) {
-                        if (futureIndexes.isDone()) {
-                            Indexes indexes = futureIndexes.get();
-                            Set<Container.Entry> matchingEntries = new HashSet<>();
-                            // Find matched entries
-                            filter(indexes, pattern, flags, matchingEntries);
-
-                            if (!matchingEntries.isEmpty()) {
-                                // Search root container with first matching entry
-                                Container.Entry parentEntry = matchingEntries.iterator().next();
-                                Container container = null;
-
-                                while (parentEntry.getContainer().getRoot() != null) {
-                                    container = parentEntry.getContainer();
-                                    parentEntry = container.getRoot().getParent();
-                                }
-
-                                // TODO In a future release, display matching strings, types, inner-types,
-                                // fields and methods, not only matching files
-                                matchingEntries = getOuterEntries(matchingEntries);
-
-                                matchingTypeCount += matchingEntries.size();
-
-                                // Create a filtered container
-                                delegatingFilterContainers.add(new DelegatingFilterContainer(container, matchingEntries));
-                            }
-                        }
-                    }
-                } catch (InterruptedException e) {
-                    assert ExceptionUtil.printStackTrace(e);
-                    // Restore interrupted state...
-                    Thread.currentThread().interrupt();
-                } catch (Exception e) {
-                    assert ExceptionUtil.printStackTrace(e);
-                }
+
+            for (int count : result.values()) {
+                matchingTypeCount += count;
             }
 
-            final int count = matchingTypeCount;
+            delegatingFilterContainers = result.keySet();
+            phraseLineNumbers = lineNumbers;
 
             searchInConstantPoolsView.hideWaitCursor();
-            searchInConstantPoolsView.updateTree(delegatingFilterContainers, count);
+            searchInConstantPoolsView.updateTree(delegatingFilterContainers, matchingTypeCount);
         });
     }
 
-    protected Set<Container.Entry> getOuterEntries(Set<Container.Entry> matchingEntries) {
-        Map<Container.Entry, Container.Entry> innerTypeEntryToOuterTypeEntry = new HashMap<>();
+    /**
+     * Search the containers in parallel.
+     *
+     * @param lineNumbers receives the line of the first match of a phrase in the matching text resources
+     * @return the filtered containers and their number of matching types
+     */
+    protected Map<DelegatingFilterContainer, Integer> search(String pattern, int flags, Map<Container.Entry, Integer> lineNumbers, BooleanSupplier isCancelledFunction) {
+        Map<DelegatingFilterContainer, Integer> result = new ConcurrentHashMap<>();
+
+        if (!pattern.isEmpty()) {
+            List<Indexes> doneIndexes = new ArrayList<>();
+
+            try {
+                for (Future<Indexes> futureIndexes : collectionOfFutureIndexes) {
+                    if (futureIndexes.isDone()) {
+                        doneIndexes.add(futureIndexes.get());
+                    }
+                }
+            } catch (InterruptedException e) {
+                assert ExceptionUtil.printStackTrace(e);
+                // Restore interrupted state...
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                assert ExceptionUtil.printStackTrace(e);
+            }
+
+            SearchScheduler.forEach(doneIndexes, isCancelledFunction, indexes -> {
+                Set<Container.Entry> matchingEntries = ConcurrentHashMap.newKeySet();
+                // Find matched entries
+                filter(indexes, pattern, flags, matchingEntries, lineNumbers, isCancelledFunction);
+
+                if (!matchingEntries.isEmpty() && !isCancelledFunction.getAsBoolean()) {
+                    // Search root container with first matching entry
+                    Container.Entry parentEntry = matchingEntries.iterator().next();
+                    Container container = null;
+
+                    while (parentEntry.getContainer().getRoot() != null) {
+                        container = parentEntry.getContainer();
+                        parentEntry = container.getRoot().getParent();
+                    }
+
+                    // Display matching types, inner types, fields and methods under the matching files
+                    Set<URI> matchingUris = getMatchingMemberUris(indexes, pattern, flags, matchingEntries, isCancelledFunction);
+
+                    matchingEntries = getOuterEntries(indexes, matchingEntries);
+
+                    // Create a filtered container
+                    result.put(new DelegatingFilterContainer(container, matchingEntries, matchingUris), matchingEntries.size());
+                }
+            });
+        }
+
+        return result;
+    }
+
+    /**
+     * Replace the entries of inner types by the entries of their top level types, with the indexes
+     * "typeDeclarations" and "outerTypeNames" of the container.
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    protected static Set<Container.Entry> getOuterEntries(Indexes indexes, Set<Container.Entry> matchingEntries) {
+        Map<String, Collection> typeDeclarations = indexes.getIndex("typeDeclarations");
+        Map<String, Collection> outerTypeNames = indexes.getIndex("outerTypeNames");
         Set<Container.Entry> matchingOuterEntriesSet = new HashSet<>();
 
-        TypeFactory typeFactory;
         for (Container.Entry entry : matchingEntries) {
-            typeFactory = TypeFactoryService.getInstance().get(entry);
-
-            if (typeFactory != null) {
-                Type type = typeFactory.make(api, entry, null);
-
-                if (type != null && type.getOuterName() != null) {
-                    Container.Entry outerTypeEntry = innerTypeEntryToOuterTypeEntry.get(entry);
-
-                    if (outerTypeEntry == null) {
-                        Map<String, Container.Entry> typeNameToEntry = new HashMap<>();
-                        Map<String, String> innerTypeNameToOuterTypeName = new HashMap<>();
-
-                        // Populate "typeNameToEntry" and "innerTypeNameToOuterTypeName"
-                        for (Container.Entry e : entry.getParent().getChildren().values()) {
-                            typeFactory = TypeFactoryService.getInstance().get(e);
-
-                            if (typeFactory != null) {
-                                type = typeFactory.make(api, e, null);
-
-                                if (type != null) {
-                                    typeNameToEntry.put(type.getName(), e);
-                                    if (type.getOuterName() != null) {
-                                        innerTypeNameToOuterTypeName.put(type.getName(), type.getOuterName());
-                                    }
-                                }
-                            }
-                        }
-
-                        Container.Entry innerTypeEntry;
-                        // Search outer type entries and populate "innerTypeEntryToOuterTypeEntry"
-                        for (Map.Entry<String, String> e : innerTypeNameToOuterTypeName.entrySet()) {
-                            innerTypeEntry = typeNameToEntry.get(e.getKey());
-
-                            if (innerTypeEntry != null) {
-                                String outerTypeName = e.getValue();
-
-                                String typeName;
-                                for (;;) {
-                                    typeName = innerTypeNameToOuterTypeName.get(outerTypeName);
-                                    if (typeName == null) {
-                                        break;
-                                    }
-                                    outerTypeName = typeName;
-                                }
-
-                                outerTypeEntry = typeNameToEntry.get(outerTypeName);
-
-                                if (outerTypeEntry != null) {
-                                    innerTypeEntryToOuterTypeEntry.put(innerTypeEntry, outerTypeEntry);
-                                }
-                            }
-                        }
-
-                        // Get outer type entry
-                        outerTypeEntry = innerTypeEntryToOuterTypeEntry.get(entry);
-
-                        if (outerTypeEntry == null) {
-                            outerTypeEntry = entry;
-                        }
-                    }
+            String typeName = typeDeclarations == null ? null : getTypeName(typeDeclarations, entry);
+            Container.Entry outerTypeEntry = null;
 
-                    matchingOuterEntriesSet.add(outerTypeEntry);
-                } else {
-                    String path = entry.getPath();
-                    int idx = path.indexOf(StringConstants.INTERNAL_INNER_SEPARATOR);
-                    if (idx != -1 && path.endsWith(StringConstants.CLASS_FILE_SUFFIX)) {
-                        FileEntryPath topLevelTypePath = new FileEntryPath(path.substring(0, idx) + StringConstants.CLASS_FILE_SUFFIX);
-                        matchingOuterEntriesSet.add(entry.getParent().getChildren().get(topLevelTypePath));
-                    } else {
-                        matchingOuterEntriesSet.add(entry);
+            if (typeName != null && outerTypeNames != null) {
+                // Search top level type name
+                String outerTypeName = getEnclosingTypeNames(outerTypeNames, typeName).get(0);
+
+                if (!outerTypeName.equals(typeName)) {
+                    outerTypeEntry = getTypeEntry(typeDeclarations, outerTypeName, entry);
+                }
+            }
+
+            if (outerTypeEntry == null) {
+                String path = entry.getPath();
+                int idx = path.indexOf(StringConstants.INTERNAL_INNER_SEPARATOR);
+
+                if (typeName == null && idx != -1 && path.endsWith(StringConstants.CLASS_FILE_SUFFIX)) {
+                    // Type not indexed, search top level type by path
+                    FileEntryPath topLevelTypePath = new FileEntryPath(path.substring(0, idx) + StringConstants.CLASS_FILE_SUFFIX);
+                    outerTypeEntry = entry.getParent().getChildren().get(topLevelTypePath);
+                }
+            }
+
+            matchingOuterEntriesSet.add(outerTypeEntry == null ? entry : outerTypeEntry);
+        }
+
+        return matchingOuterEntriesSet;
+    }
+
+    /**
+     * @return the names of the top level type, its inner types enclosing the given type and the given type
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    protected static List<String> getEnclosingTypeNames(Map<String, Collection> outerTypeNames, String typeName) {
+        List<String> typeNames = new ArrayList<>();
+        Set<String> visitedTypeNames = new HashSet<>();
+        String outerTypeName = typeName;
+        Collection<String> collection;
+
+        while (visitedTypeNames.add(outerTypeName)) {
+            typeNames.add(0, outerTypeName);
+
+            if ((collection = outerTypeNames.get(outerTypeName)) == null || collection.isEmpty()) {
+                break;
+            }
+
+            outerTypeName = collection.iterator().next();
+        }
+
+        return typeNames;
+    }
+
+    /**
+     * Search the types and members using a matching constant with the index "memberConstants", so that matches
+     * are displayed without reading the class files.
+     *
+     * @return the URIs of the type and member tree nodes, under the entries of the top level types
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    protected static Set<URI> getMatchingMemberUris(Indexes indexes, String pattern, int flags, Set<Container.Entry> matchingEntries, BooleanSupplier isCancelledFunction) {
+        Map<String, Collection> typeDeclarations = indexes.getIndex("typeDeclarations");
+        Map<String, Collection> outerTypeNames = indexes.getIndex("outerTypeNames");
+        Map<String, Collection> memberConstants = indexes.getIndex("memberConstants");
+        Set<URI> matchingUris = new HashSet<>();
+
+        if (typeDeclarations == null || memberConstants == null) {
+            return matchingUris;
+        }
+
+        List<String> indexNames = getIndexNames(flags);
+        GlobMatcher globMatcher = GlobMatcher.compile(pattern);
+        // Fragments of the members using a matching constant, empty for the type
+        Set<String> matchingFragments = new HashSet<>();
+
+        for (Container.Entry entry : matchingEntries) {
+            if (isCancelledFunction.getAsBoolean()) {
+                break;
+            }
+
+            String typeName = getTypeName(typeDeclarations, entry);
+            Collection values = typeName == null ? null : memberConstants.get(typeName);
+
+            if (values == null) {
+                continue;
+            }
+
+            matchingFragments.clear();
+            addMatchingFragments(values, entry, indexNames, globMatcher, pattern, matchingFragments);
+
+            if (!matchingFragments.isEmpty()) {
+                List<String> typeNames = outerTypeNames == null ? List.of(typeName) : getEnclosingTypeNames(outerTypeNames, typeName);
+                Container.Entry outerTypeEntry = typeNames.size() > 1 ? getTypeEntry(typeDeclarations, typeNames.get(0), entry) : null;
+                URI uri = (outerTypeEntry == null ? entry : outerTypeEntry).getUri();
+
+                for (String name : typeNames) {
+                    addUri(matchingUris, uri, name);
+                }
+
+                for (String memberFragment : matchingFragments) {
+                    if (!memberFragment.isEmpty()) {
+                        addUri(matchingUris, uri, typeName + '-' + memberFragment);
                     }
                 }
+            }
+        }
+
+        return matchingUris;
+    }
+
+    /**
+     * Add the fragments of the members of the entry using a constant of the given indexes matching the pattern.
+     *
+     * @param values the groups of the type in "memberConstants": entry, member name, member descriptor, index
+     *               name and constants
+     */
+    @SuppressWarnings("rawtypes")
+    protected static void addMatchingFragments(Collection values, Container.Entry entry, List<String> indexNames, GlobMatcher globMatcher, String pattern, Set<String> matchingFragments) {
+        Iterator iterator = values.iterator();
+        Object value = iterator.hasNext() ? iterator.next() : null;
+
+        while (value instanceof Container.Entry && iterator.hasNext()) {
+            boolean sameEntry = entry.equals(value);
+            String memberName = (String) iterator.next();
+            String memberDescriptor = (String) iterator.next();
+            String indexName = (String) iterator.next();
+            String memberFragment = memberName.isEmpty() ? "" : memberName + '-' + memberDescriptor;
+            boolean type = TYPE_INDEX_NAMES.contains(indexName);
+            // Skip the groups of other entries declaring the same type, of unselected indexes and of found members
+            boolean found = !sameEntry || !indexNames.contains(indexName) || matchingFragments.contains(memberFragment);
+
+            value = null;
+
+            while (iterator.hasNext() && !((value = iterator.next()) instanceof Container.Entry)) {
+                if (!found && matches(globMatcher, pattern, type, (String) value)) {
+                    matchingFragments.add(memberFragment);
+                    found = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true if the constant matches the pattern, with the rules of {@link #matchTypeEntriesWithChar},
+     *         {@link #matchTypeEntriesWithString}, {@link #matchWithChar} and {@link #matchWithString}
+     */
+    protected static boolean matches(GlobMatcher globMatcher, String pattern, boolean type, String constant) {
+        int length = constant.length();
+        int start = type ? TypeNameIndex.getSimpleNameIndex(constant) : 0;
+
+        if (pattern.length() == 1) {
+            char c = pattern.charAt(0);
+            return c == '*' || c == '?' || start < length && constant.charAt(start) == c;
+        }
+
+        return globMatcher.matches(constant, start, length);
+    }
+
+    protected static void addUri(Set<URI> uris, URI uri, String fragment) {
+        try {
+            uris.add(new URI(uri.getScheme(), uri.getHost(), uri.getPath(), fragment));
+        } catch (URISyntaxException e) {
+            assert ExceptionUtil.printStackTrace(e);
+        }
+    }
+
+    /**
+     * @return the name of the type declared by the class file entry, the longest suffix of its path declared
+     *         by this entry, or null
+     */
+    @SuppressWarnings("rawtypes")
+    protected static String getTypeName(Map<String, Collection> typeDeclarations, Container.Entry entry) {
+        String path = entry.getPath();
+
+        if (!path.endsWith(StringConstants.CLASS_FILE_SUFFIX)) {
+            return null;
+        }
+
+        String typeName = path.substring(0, path.length() - StringConstants.CLASS_FILE_SUFFIX.length());
+
+        for (;;) {
+            Collection entries = typeDeclarations.get(typeName);
+
+            if (entries != null && entries.contains(entry)) {
+                return typeName;
+            }
+
+            int index = typeName.indexOf('/');
+
+            if (index == -1) {
+                return null;
+            }
+
+            typeName = typeName.substring(index + 1);
+        }
+    }
+
+    /**
+     * @return the entry declaring the type, in the directory of the given entry if possible
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    protected static Container.Entry getTypeEntry(Map<String, Collection> typeDeclarations, String typeName, Container.Entry entry) {
+        Collection<Container.Entry> entries = typeDeclarations.get(typeName);
+
+        if (entries == null || entries.isEmpty()) {
+            return null;
+        }
+
+        for (Container.Entry e : entries) {
+            if (e.getParent() == entry.getParent()) {
+                return e;
+            }
+        }
+
+        return entries.iterator().next();
+    }
+
+    /**
+     * Search the indexes selected by the flags in parallel.
+     */
+    protected void filter(Indexes indexes, String pattern, int flags, Set<Container.Entry> matchingEntries, Map<Container.Entry, Integer> lineNumbers, BooleanSupplier isCancelledFunction) {
+        SearchScheduler.forEach(getIndexNames(flags), isCancelledFunction, indexName -> {
+            if (TYPE_INDEX_NAMES.contains(indexName)) {
+                match(indexes, indexName, pattern, SearchInConstantPoolsController::matchTypeEntriesWithChar, SearchInConstantPoolsController::matchTypeEntriesWithString,
+                        matchingEntries, isCancelledFunction);
             } else {
-                matchingOuterEntriesSet.add(entry);
+                match(indexes, indexName, pattern, SearchInConstantPoolsController::matchWithChar, SearchInConstantPoolsController::matchWithString, matchingEntries,
+                        isCancelledFunction);
+                if ("strings".equals(indexName) && isPhrase(pattern)) {
+                    matchPhrase(indexes, pattern, matchingEntries, lineNumbers, isCancelledFunction);
+                }
+            }
+        });
+    }
+
+    /**
+     * @return true if the pattern spans a separator of the tokens of text resources
+     */
+    protected static boolean isPhrase(String pattern) {
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c != '*' && c != '?' && !TextTokenizer.isTokenPart(c)) {
+                return true;
             }
         }
+        return false;
+    }
 
-        return matchingOuterEntriesSet;
+    /**
+     * Text resources are indexed by tokens: search the resources having a line containing a token matching each
+     * segment of the pattern between separators, with the index "textTokenLines". The separators themselves and
+     * the order of the tokens on the line are not verified. A segment followed by a separator matches whole
+     * tokens, the last one matches the start of the tokens.
+     */
+    @SuppressWarnings("rawtypes")
+    protected static void matchPhrase(Indexes indexes, String pattern, Set<Container.Entry> matchingEntries, Map<Container.Entry, Integer> lineNumbers, BooleanSupplier isCancelledFunction) {
+        Map<String, Collection> strings = indexes.getIndex("strings");
+        Map<String, Collection> textTokenLines = indexes.getIndex("textTokenLines");
+        List<String> segments = new ArrayList<>();
+        List<Boolean> wholeTokens = new ArrayList<>();
+
+        addPhraseSegments(pattern, segments, wholeTokens);
+
+        if (strings == null || textTokenLines == null || segments.isEmpty()) {
+            return;
+        }
+
+        // Entry -> numbers of the lines containing a token of each segment
+        Map<Container.Entry, Set<String>> candidateLines = null;
+
+        for (int i = 0; i < segments.size(); i++) {
+            if (isCancelledFunction.getAsBoolean()) {
+                return;
+            }
+
+            String segment = segments.get(i);
+            Collection<String> tokens = wholeTokens.get(i) ? List.of(segment) : matchWithString(segment, strings).keySet();
+            Map<Container.Entry, Set<String>> segmentLines = new HashMap<>();
+
+            for (String token : tokens) {
+                Collection values = textTokenLines.get(token);
+
+                if (values != null) {
+                    addTokenLines(values, candidateLines, segmentLines);
+                }
+            }
+
+            if (candidateLines != null) {
+                for (Map.Entry<Container.Entry, Set<String>> entry : segmentLines.entrySet()) {
+                    entry.getValue().retainAll(candidateLines.get(entry.getKey()));
+                }
+                segmentLines.values().removeIf(Set::isEmpty);
+            }
+
+            if (segmentLines.isEmpty()) {
+                return;
+            }
+
+            candidateLines = segmentLines;
+        }
+
+        for (Map.Entry<Container.Entry, Set<String>> entry : candidateLines.entrySet()) {
+            int lineNumber = Integer.MAX_VALUE;
+
+            for (String line : entry.getValue()) {
+                lineNumber = Math.min(lineNumber, Integer.parseInt(line));
+            }
+
+            matchingEntries.add(entry.getKey());
+            lineNumbers.put(entry.getKey(), lineNumber);
+        }
+    }
+
+    /**
+     * Add the lines of the groups of "textTokenLines" whose entry is a candidate.
+     *
+     * @param candidateLines the candidate entries, null for all entries
+     */
+    @SuppressWarnings("rawtypes")
+    protected static void addTokenLines(Collection values, Map<Container.Entry, Set<String>> candidateLines, Map<Container.Entry, Set<String>> lines) {
+        Set<String> entryLines = null;
+
+        for (Object value : values) {
+            if (value instanceof Container.Entry) { // to convert to jdk16 pattern matching only when spotbugs #1617 and eclipse #577987 are solved
+                Container.Entry entry = (Container.Entry) value;
+                entryLines = candidateLines == null || candidateLines.containsKey(entry) ? lines.computeIfAbsent(entry, k -> new HashSet<>()) : null;
+            } else if (entryLines != null) {
+                entryLines.add((String) value);
+            }
+        }
+    }
+
+    /**
+     * Split the pattern at the separators of the tokens of text resources. Segments made of wildcards only are
+     * skipped, segments longer than the indexed tokens are truncated.
+     *
+     * @param wholeTokens receives true for the segments matching whole tokens: the segments without wildcards
+     *                    followed by a separator
+     */
+    protected static void addPhraseSegments(String pattern, List<String> segments, List<Boolean> wholeTokens) {
+        int length = pattern.length();
+        int start = 0;
+
+        for (int i = 0; i <= length; i++) {
+            char c = i == length ? 0 : pattern.charAt(i);
+
+            if (i == length || c != '*' && c != '?' && !TextTokenizer.isTokenPart(c)) {
+                String segment = pattern.substring(start, i);
+                boolean wildcard = segment.indexOf('*') != -1 || segment.indexOf('?') != -1;
+
+                if (!segment.replace("*", "").replace("?", "").isEmpty()) {
+                    boolean truncated = segment.length() > TextTokenizer.MAX_TOKEN_LENGTH;
+
+                    segments.add(truncated ? segment.substring(0, TextTokenizer.MAX_TOKEN_LENGTH) : segment);
+                    wholeTokens.add(i < length && !wildcard && !truncated);
+                }
+
+                start = i + 1;
+            }
+        }
     }
 
-    protected void filter(Indexes indexes, String pattern, int flags, Set<Container.Entry> matchingEntries) {
+    protected static List<String> getIndexNames(int flags) {
         boolean declarations = (flags & SearchInConstantPoolsView.SEARCH_DECLARATION) != 0;
         boolean references = (flags & SearchInConstantPoolsView.SEARCH_REFERENCE) != 0;
+        List<String> indexNames = new ArrayList<>();
 
         if ((flags & SearchInConstantPoolsView.SEARCH_TYPE) != 0) {
             if (declarations) {
-                match(indexes, "typeDeclarations", pattern, SearchInConstantPoolsController::matchTypeEntriesWithChar, SearchInConstantPoolsController::matchTypeEntriesWithString,
-                        matchingEntries);
+                indexNames.add("typeDeclarations");
             }
             if (references) {
-                match(indexes, "typeReferences", pattern, SearchInConstantPoolsController::matchTypeEntriesWithChar, SearchInConstantPoolsController::matchTypeEntriesWithString,
-                        matchingEntries);
+                indexNames.add("typeReferences");
             }
         }
 
         if ((flags & SearchInConstantPoolsView.SEARCH_CONSTRUCTOR) != 0) {
             if (declarations) {
-                match(indexes, "constructorDeclarations", pattern, SearchInConstantPoolsController::matchTypeEntriesWithChar,
-                        SearchInConstantPoolsController::matchTypeEntriesWithString, matchingEntries);
+                indexNames.add("constructorDeclarations");
             }
             if (references) {
-                match(indexes, "constructorReferences", pattern, SearchInConstantPoolsController::matchTypeEntriesWithChar,
-                        SearchInConstantPoolsController::matchTypeEntriesWithString, matchingEntries);
+                indexNames.add("constructorReferences");
             }
         }
 
         if ((flags & SearchInConstantPoolsView.SEARCH_METHOD) != 0) {
             if (declarations) {
-                match(indexes, "methodDeclarations", pattern, SearchInConstantPoolsController::matchWithChar, SearchInConstantPoolsController::matchWithString, matchingEntries);
+                indexNames.add("methodDeclarations");
             }
             if (references) {
-                match(indexes, "methodReferences", pattern, SearchInConstantPoolsController::matchWithChar, SearchInConstantPoolsController::matchWithString, matchingEntries);
+                indexNames.add("methodReferences");
             }
         }
 
         if ((flags & SearchInConstantPoolsView.SEARCH_FIELD) != 0) {
             if (declarations) {
-                match(indexes, "fieldDeclarations", pattern, SearchInConstantPoolsController::matchWithChar, SearchInConstantPoolsController::matchWithString, matchingEntries);
+                indexNames.add("fieldDeclarations");
             }
             if (references) {
-                match(indexes, "fieldReferences", pattern, SearchInConstantPoolsController::matchWithChar, SearchInConstantPoolsController::matchWithString, matchingEntries);
+                indexNames.add("fieldReferences");
             }
         }
 
         if ((flags & SearchInConstantPoolsView.SEARCH_STRING) != 0 && (declarations || references)) {
-            match(indexes, "strings", pattern, SearchInConstantPoolsController::matchWithChar, SearchInConstantPoolsController::matchWithString, matchingEntries);
+            indexNames.add("strings");
         }
 
         if ((flags & SearchInConstantPoolsView.SEARCH_MODULE) != 0) {
             if (declarations) {
-                match(indexes, "javaModuleDeclarations", pattern, SearchInConstantPoolsController::matchWithChar, SearchInConstantPoolsController::matchWithString,
-                        matchingEntries);
+                indexNames.add("javaModuleDeclarations");
             }
             if (references) {
-                match(indexes, "javaModuleReferences", pattern, SearchInConstantPoolsController::matchWithChar, SearchInConstantPoolsController::matchWithString, matchingEntries);
+                indexNames.add("javaModuleReferences");
             }
         }
+
+        return indexNames;
     }
 
     @SuppressWarnings({ "rawtypes", "unchecked" })
     protected void match(Indexes indexes, String indexName, String pattern, BiFunction<Character, Map<String, Collection>, Map<String, Collection>> matchWithCharFunction,
-            BiFunction<String, Map<String, Collection>, Map<String, Collection>> matchWithStringFunction, Set<Container.Entry> matchingEntries) {
+            BiFunction<String, Map<String, Collection>, Map<String, Collection>> matchWithStringFunction, Set<Container.Entry> matchingEntries,
+            BooleanSupplier isCancelledFunction) {
         int patternLength = pattern.length();
+        Map<String, Collection> index = indexes.getIndex(indexName);
 
-        if (patternLength > 0) {
-            String key = indexes.hashCode() + "***" + indexName + "***" + pattern;
-            String lastKey = key.substring(0, key.length() - 1);
-            Map<String, Collection> lastMatchedTypes = cache.get(lastKey);
-            Map<String, Collection> matchedEntries = cache.computeIfAbsent(key, k -> {
-                Map<String, Collection> index = indexes.getIndex(indexName);
-                if (index != null) {
-                    if (patternLength == 1) {
-                        return matchWithCharFunction.apply(pattern.charAt(0), index);
-                    }
-                    if (lastMatchedTypes != null) {
-                        return matchWithStringFunction.apply(pattern, lastMatchedTypes);
-                    }
-                    return matchWithStringFunction.apply(pattern, index);
+        if (patternLength > 0 && index != null) {
+            String key = indexName + "***" + pattern;
+            String[] matchedKeys = cache.get(indexes, key);
+
+            if (matchedKeys == null) {
+                Map<String, Collection> matchedEntries;
+
+                if (patternLength == 1) {
+                    matchedEntries = matchWithCharFunction.apply(pattern.charAt(0), index);
+                } else {
+                    // Reuse the result of the previous pattern
+                    String[] lastMatchedKeys = cache.get(indexes, key.substring(0, key.length() - 1));
+                    matchedEntries = matchWithStringFunction.apply(pattern, lastMatchedKeys == null ? index : getEntries(index, lastMatchedKeys));
                 }
-                return null;
-            });
 
-            if (matchedEntries != null) {
+                if (isCancelledFunction.getAsBoolean()) {
+                    return;
+                }
+
+                cache.put(indexes, key, matchedEntries.keySet().toArray(new String[matchedEntries.size()]));
+
                 for (Collection<Container.Entry> entries : matchedEntries.values()) {
                     matchingEntries.addAll(entries);
                 }
+            } else {
+                for (String matchedKey : matchedKeys) {
+                    Collection<Container.Entry> entries = index.get(matchedKey);
+
+                    if (entries != null) {
+                        matchingEntries.addAll(entries);
+                    }
+                }
             }
         }
     }
 
+    /**
+     * @return the entries of the index for the given keys
+     */
+    @SuppressWarnings("rawtypes")
+    protected static Map<String, Collection> getEntries(Map<String, Collection> index, String[] keys) {
+        Map<String, Collection> map = new HashMap<>(keys.length * 2);
+
+        for (String key : keys) {
+            Collection entries = index.get(key);
+
+            if (entries != null) {
+                map.put(key, entries);
+            }
+        }
+
+        return map;
+    }
+
     @SuppressWarnings("rawtypes")
     protected static Map<String, Collection> matchTypeEntriesWithChar(char c, Map<String, Collection> index) {
         if (c == '*' || c == '?') {
@@ -340,21 +686,14 @@ public class SearchInConstantPoolsController implements IndexesChangeListener {
 
     @SuppressWarnings("rawtypes")
     protected static Map<String, Collection> matchTypeEntriesWithString(String pattern, Map<String, Collection> index) {
-        Pattern p = createPattern(pattern);
+        GlobMatcher globMatcher = GlobMatcher.compile(pattern);
         Map<String, Collection> map = new HashMap<>();
 
         String typeName;
-        int lastPackageSeparatorIndex;
-        int lastTypeNameSeparatorIndex;
-        int lastIndex;
         for (Map.Entry<String, Collection> entry : index.entrySet()) {
             typeName = entry.getKey();
-            // Search last package separator
-            lastPackageSeparatorIndex = typeName.lastIndexOf('/') + 1;
-            lastTypeNameSeparatorIndex = typeName.lastIndexOf('$') + 1;
-            lastIndex = Math.max(lastPackageSeparatorIndex, lastTypeNameSeparatorIndex);
-
-            if (p.matcher(typeName.substring(lastIndex)).matches()) {
+            // Match the simple name
+            if (globMatcher.matches(typeName, TypeNameIndex.getSimpleNameIndex(typeName), typeName.length())) {
                 map.put(typeName, entry.getValue());
             }
         }
@@ -382,13 +721,29 @@ public class SearchInConstantPoolsController implements IndexesChangeListener {
 
     @SuppressWarnings("rawtypes")
     protected static Map<String, Collection> matchWithString(String pattern, Map<String, Collection> index) {
-        Pattern p = createPattern(pattern);
+        GlobMatcher globMatcher = GlobMatcher.compile(pattern);
         Map<String, Collection> map = new HashMap<>();
 
+        if (index instanceof CompactIndexes.Index) { // to convert to jdk16 pattern matching only when spotbugs #1617 and eclipse #577987 are solved
+            CompactIndexes.Index compactIndex = (CompactIndexes.Index) index;
+            // Only the final indexes have a trigram index, snapshots published while indexing are scanned
+            TrigramIndex trigramIndex = compactIndex.getBuiltTrigramIndex();
+            if (trigramIndex != null) {
+                // Verify only the candidates of the trigram index
+                trigramIndex.forEachCandidate(pattern, position -> {
+                    String candidate = compactIndex.getKey(position);
+                    if (globMatcher.matches(candidate)) {
+                        map.put(candidate, compactIndex.getValues(position));
+                    }
+                });
+                return map;
+            }
+        }
+
         String key;
         for (Map.Entry<String, Collection> entry : index.entrySet()) {
             key = entry.getKey();
-            if (p.matcher(key).matches()) {
+            if (globMatcher.matches(key)) {
                 map.put(key, entry.getValue());
             }
         }
@@ -396,44 +751,10 @@ public class SearchInConstantPoolsController implements IndexesChangeListener {
         return map;
     }
 
-    /**
-     * Create a simple regular expression
-     *
-     * Rules: '*' matchTypeEntries 0 ou N characters '?' matchTypeEntries 1
-     * character
-     */
-    protected static Pattern createPattern(String pattern) {
-        int patternLength = pattern.length();
-        StringBuilder sbPattern = new StringBuilder(patternLength * 2);
-
-        char c;
-        for (int i = 0; i < patternLength; i++) {
-            c = pattern.charAt(i);
-
-            switch (c) {
-            case '*':
-                sbPattern.append(".*");
-                break;
-            case '?':
-                sbPattern.append('.');
-                break;
-            case '.':
-                sbPattern.append("\\.");
-                break;
-            default:
-                sbPattern.append(c);
-                break;
-            }
-        }
-
-        sbPattern.append(".*");
-
-        return Pattern.compile(sbPattern.toString());
-    }
-
     protected void onTypeSelected(URI uri, String pattern, int flags) {
-        // Open the single entry uri
+        // Open the single entry uri, or the type or member uri
         Container.Entry entry = null;
+        String fragment = uri.getFragment();
 
         for (DelegatingFilterContainer container : delegatingFilterContainers) {
             entry = container.getEntry(uri);
@@ -474,32 +795,39 @@ public class SearchInConstantPoolsController implements IndexesChangeListener {
                 sbPattern.append('M');
             }
 
-            // TODO In a future release, add 'highlightScope' to display search results in
-            // correct type and inner-type
-            // def type = TypeFactoryService.instance.get(entry)?.make(api, entry, null)
-            // if (type) {
-            // sbPattern.append('&highlightScope=')
-            // sbPattern.append(type.name)
-            // def query = sbPattern.toString()
-            // def outerPath = UriUtil.getOuterPath(collectionOfFutureIndexes, entry, type)
-            // openClosure(new URI(entry.uri.scheme, entry.uri.host, outerPath, query,
-            // null))
-            // } else {
+            if (fragment != null) {
+                // Highlight the search results in the selected type, select the type or member declaration
+                int index = fragment.indexOf('-');
+
+                sbPattern.append("&highlightScope=");
+                sbPattern.append(index == -1 ? fragment : fragment.substring(0, index));
+            }
+
+            Integer lineNumber = phraseLineNumbers.get(entry);
+
+            if (lineNumber != null) {
+                // Scroll to the first match of the phrase
+                sbPattern.append("&lineNumber=");
+                sbPattern.append(lineNumber);
+            }
+
             String query = sbPattern.toString();
             URI u = entry.getUri();
 
             try {
-                openCallback.accept(new URI(u.getScheme(), u.getHost(), u.getPath(), query, null));
+                openCallback.accept(new URI(u.getScheme(), u.getHost(), u.getPath(), query, fragment));
             } catch (URISyntaxException e) {
                 assert ExceptionUtil.printStackTrace(e);
             }
-            // }
         }
     }
 
     /** --- IndexesChangeListener --- */
     @Override
     public void indexesChanged(Collection<Future<Indexes>> collectionOfFutureIndexes) {
+        // Drop the results of the closed containers
+        cache.retainIndexes(collectionOfFutureIndexes);
+
         if (searchInConstantPoolsView.isVisible()) {
             // Update the list of containers
             this.collectionOfFutureIndexes = collectionOfFutureIndexes;
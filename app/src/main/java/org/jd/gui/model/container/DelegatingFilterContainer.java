@@ -7,12 +7,15 @@
 
 package org.jd.gui.model.container;
 
+import org.jd.core.v1.service.converter.classfiletojavasyntax.util.ExceptionUtil;
 import org.jd.gui.api.model.Container;
 import org.jd.gui.model.container.entry.path.SimpleEntryPath;
 
 import java.io.InputStream;
 import java.net.URI;
+import java.net.URISyntaxException;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -31,6 +34,13 @@ public class DelegatingFilterContainer implements Container {
     private final Map<URI, DelegatedContainer> uriToDelegatedContainer = new HashMap<>();
 
     public DelegatingFilterContainer(Container container, Collection<Entry> entries) {
+        this(container, entries, Collections.emptySet());
+    }
+
+    /**
+     * @param fragmentUris URIs of the types and members to display under the entries, with a fragment
+     */
+    public DelegatingFilterContainer(Container container, Collection<Entry> entries, Collection<URI> fragmentUris) {
         this.container = container;
         this.root = getDelegatedEntry(container.getRoot());
 
@@ -40,6 +50,8 @@ public class DelegatingFilterContainer implements Container {
                 entry = entry.getParent();
             }
         }
+
+        validEntries.addAll(fragmentUris);
     }
 
     @Override
@@ -47,7 +59,16 @@ public class DelegatingFilterContainer implements Container {
     @Override
     public Container.Entry getRoot() { return root; }
 
-    public Container.Entry getEntry(URI uri) { return uriToDelegatedEntry.get(uri); }
+    public Container.Entry getEntry(URI uri) {
+        if (uri.getFragment() != null) {
+            try {
+                uri = new URI(uri.getScheme(), uri.getHost(), uri.getPath(), null);
+            } catch (URISyntaxException e) {
+                assert ExceptionUtil.printStackTrace(e);
+            }
+        }
+        return uriToDelegatedEntry.get(uri);
+    }
     public Set<URI> getUris() { return validEntries; }
 
     protected DelegatedEntry getDelegatedEntry(Container.Entry entry) {
@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.service.extension;
+
+import org.jd.gui.api.model.Container;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Select the provider of an entry from the selectors of the providers.<br>
+ * <br>
+ * Selectors have the form '&lt;container type&gt;:&lt;file|dir&gt;:&lt;path|*&#47;name|*.extension|*&gt;'. They are
+ * tried in this order for the container type of the entry, then for any container type ('*'). For a given
+ * selector, the providers with a path pattern are selected if the path of the entry matches the pattern,
+ * before the provider without pattern.<br>
+ * <br>
+ * The candidates of each container type, file or directory and extension are computed once, so selecting a
+ * provider costs one lookup plus the path tests of the few candidates, usually none.
+ */
+public class SelectorDispatcher<T> {
+    protected static final int PATH = 0;
+    protected static final int NAME = 1;
+    protected static final int ANY = 2;
+
+    // Selector -> [path pattern : provider], the provider without pattern has a null key
+    private final Map<String, Map<Pattern, T>> mapProviders = new LinkedHashMap<>();
+    // Container type, then extension -> candidates, for files and directories, with and without fallback on '*'
+    private final List<Map<String, Map<String, Candidate<T>[]>>> candidateCache = new ArrayList<>(4);
+
+    public SelectorDispatcher(Collection<T> providers, Function<T, String[]> getSelectorsFunction, Function<T, Pattern> getPathPatternFunction) {
+        for (T provider : providers) {
+            Pattern pathPattern = getPathPatternFunction.apply(provider);
+
+            for (String selector : getSelectorsFunction.apply(provider)) {
+                mapProviders.computeIfAbsent(selector, k -> new LinkedHashMap<>()).put(pathPattern, provider);
+            }
+        }
+
+        for (int i = 0; i < 4; i++) {
+            candidateCache.add(new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * @return the provider for the container type of the entry or, if none, for any container type
+     */
+    public T get(Container.Entry entry) {
+        return get(entry.getContainer().getType(), true, entry);
+    }
+
+    /**
+     * @return the provider for the given container type only
+     */
+    public T get(String containerType, Container.Entry entry) {
+        return get(containerType, false, entry);
+    }
+
+    protected T get(String containerType, boolean fallback, Container.Entry entry) {
+        String path = entry.getPath();
+        boolean directory = entry.isDirectory();
+        int lastSlashIndex = path.lastIndexOf('/');
+        String extension = getExtension(path);
+        Map<String, Map<String, Candidate<T>[]>> cache = candidateCache.get((directory ? 1 : 0) | (fallback ? 2 : 0));
+        Candidate<T>[] candidates = cache
+            .computeIfAbsent(containerType, k -> new ConcurrentHashMap<>())
+            .computeIfAbsent(extension, k -> createCandidates(containerType, fallback, directory, extension));
+
+        for (Candidate<T> candidate : candidates) {
+            if (candidate.matches(path, lastSlashIndex)) {
+                return candidate.provider;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @return the extension of the last path segment with its leading '.', an empty string if there is none
+     */
+    protected static String getExtension(String path) {
+        int lastSlashIndex = path.lastIndexOf('/');
+        int lastDotIndex = path.lastIndexOf('.');
+        return lastDotIndex > lastSlashIndex ? path.substring(lastDotIndex) : "";
+    }
+
+    @SuppressWarnings("unchecked")
+    protected Candidate<T>[] createCandidates(String containerType, boolean fallback, boolean directory, String extension) {
+        List<Candidate<T>> candidates = new ArrayList<>();
+        String type = directory ? ":dir:" : ":file:";
+
+        if (addCandidates(candidates, containerType + type, extension) && fallback && !"*".equals(containerType)) {
+            addCandidates(candidates, "*" + type, extension);
+        }
+
+        return candidates.toArray(new Candidate[candidates.size()]);
+    }
+
+    /**
+     * @return false if the last candidate selects all remaining entries
+     */
+    protected boolean addCandidates(List<Candidate<T>> candidates, String prefix, String extension) {
+        int prefixLength = prefix.length();
+
+        // Exact paths, then names, having the same extension
+        for (Map.Entry<String, Map<Pattern, T>> mapEntry : mapProviders.entrySet()) {
+            String selector = mapEntry.getKey();
+
+            if (selector.startsWith(prefix) && selector.length() > prefixLength && selector.charAt(prefixLength) != '*') {
+                String selectorPath = selector.substring(prefixLength);
+
+                if (getExtension(selectorPath).equals(extension)) {
+                    addCandidates(candidates, PATH, selectorPath, mapEntry.getValue());
+                }
+            }
+        }
+
+        for (Map.Entry<String, Map<Pattern, T>> mapEntry : mapProviders.entrySet()) {
+            String selector = mapEntry.getKey();
+
+            if (selector.startsWith(prefix + "*/")) {
+                String name = selector.substring(prefixLength + 2);
+
+                if (getExtension(name).equals(extension)) {
+                    addCandidates(candidates, NAME, name, mapEntry.getValue());
+                }
+            }
+        }
+
+        // Extension, then any path
+        if (!extension.isEmpty()) {
+            Map<Pattern, T> providers = mapProviders.get(prefix + '*' + extension);
+
+            if (providers != null && !addCandidates(candidates, ANY, null, providers)) {
+                return false;
+            }
+        }
+
+        Map<Pattern, T> providers = mapProviders.get(prefix + '*');
+
+        return providers == null || addCandidates(candidates, ANY, null, providers);
+    }
+
+    /**
+     * @return false if the last candidate selects all remaining entries
+     */
+    protected boolean addCandidates(List<Candidate<T>> candidates, int kind, String text, Map<Pattern, T> providers) {
+        for (Map.Entry<Pattern, T> mapEntry : providers.entrySet()) {
+            if (mapEntry.getKey() != null) {
+                candidates.add(new Candidate<>(kind, text, mapEntry.getKey(), mapEntry.getValue()));
+            }
+        }
+
+        T defaultProvider = providers.get(null);
+
+        if (defaultProvider != null) {
+            candidates.add(new Candidate<>(kind, text, null, defaultProvider));
+            return kind != ANY;
+        }
+
+        return true;
+    }
+
+    protected static class Candidate<T> {
+        private final int kind;
+        private final String text;
+        private final Pattern pathPattern;
+        private final T provider;
+
+        public Candidate(int kind, String text, Pattern pathPattern, T provider) {
+            this.kind = kind;
+            this.text = text;
+            this.pathPattern = pathPattern;
+            this.provider = provider;
+        }
+
+        public boolean matches(String path, int lastSlashIndex) {
+            switch (kind) {
+            case PATH:
+                if (!path.equals(text)) {
+                    return false;
+                }
+                break;
+            case NAME:
+                int nameIndex = lastSlashIndex + 1;
+                if (path.length() - nameIndex != text.length() || !path.startsWith(text, nameIndex)) {
+                    return false;
+                }
+                break;
+            default:
+                break;
+            }
+
+            return pathPattern == null || pathPattern.matcher(path).matches();
+        }
+    }
+}
@@ -0,0 +1,486 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.service.indexer;
+
+import org.jd.core.v1.service.converter.classfiletojavasyntax.util.ExceptionUtil;
+import org.jd.gui.api.API;
+import org.jd.gui.api.model.Container;
+import org.jd.gui.model.container.entry.path.SimpleEntryPath;
+import org.jd.gui.service.configuration.ConfigurationXmlPersisterProvider;
+import org.jd.gui.service.preferencespanel.IndexCachePreferencesProvider;
+import org.jd.util.SHA1Util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.jd.gui.util.decompiler.GuiPreferences.INDEXER_WORKER_COUNT_KEY;
+import static org.jd.gui.util.decompiler.GuiPreferences.INDEX_CACHE_MAX_SIZE_KEY;
+
+/**
+ * On-disk cache of the indexes of opened archives, stored under the configuration directory.<br>
+ * <br>
+ * A cache file is named after the archive path and is only used if the indexer preferences and the
+ * archive size still match, and if the last modification time or, when the archive was touched, the SHA-1
+ * still match. Files written with another format version are ignored. When the cache exceeds its maximum
+ * size, the least recently used files are evicted.<br>
+ * <br>
+ * As in {@link org.jd.gui.util.index.CompactIndexes}, keys and string values are stored once in a string table
+ * and values are referenced by int: an entry id (&gt;= 0) or the complement of a string id (&lt; 0).
+ */
+public class IndexesCacheService {
+    protected static final IndexesCacheService INDEXES_CACHE_SERVICE = new IndexesCacheService();
+
+    public static IndexesCacheService getInstance() { return INDEXES_CACHE_SERVICE; }
+
+    protected static final int MAGIC = 0x4A44494E;
+    protected static final int FORMAT_VERSION = 9;
+    protected static final String CACHE_DIRECTORY = "jd-gui-indexes";
+    protected static final String CACHE_FILE_SUFFIX = ".idx";
+    protected static final String NESTED_ENTRY_SEPARATOR = "!/";
+    protected static final long ONE_MEGABYTE = 1024L * 1024L;
+    protected static final String INDEXER_PREFERENCES = "IndexerPreferences.";
+
+    private final File directory;
+    // SHA-1 of the archives, by path, size and last modification time
+    private final Map<String, String> sha1s = new ConcurrentHashMap<>();
+
+    protected IndexesCacheService() {
+        this(new File(ConfigurationXmlPersisterProvider.getConfigDirectory(), CACHE_DIRECTORY));
+    }
+
+    protected IndexesCacheService(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @return the cached indexes of the archive or null if the cache is disabled, missing or stale
+     */
+    @SuppressWarnings("rawtypes")
+    public Map<String, Map<String, Collection>> load(API api, Container.Entry entry) {
+        File archiveFile = getArchiveFile(entry);
+
+        if (archiveFile == null || getMaximumSize(api) <= 0) {
+            return null;
+        }
+
+        File cacheFile = getCacheFile(archiveFile);
+
+        if (!cacheFile.isFile()) {
+            return null;
+        }
+
+        Map<String, Map<String, Collection>> map = null;
+
+        try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(cacheFile))))) {
+            if (readHeader(dis, archiveFile, getIndexerPreferences(api))) {
+                map = readIndexes(dis, entry);
+            }
+        } catch (IOException | RuntimeException e) {
+            // Truncated or corrupt file
+            assert ExceptionUtil.printStackTrace(e);
+        }
+
+        synchronized (this) {
+            if (map == null) {
+                // Stale, older format or unresolvable entries
+                deleteQuietly(cacheFile);
+            } else if (!cacheFile.setLastModified(System.currentTimeMillis())) {
+                assert ExceptionUtil.printStackTrace(new IOException("Unable to touch " + cacheFile));
+            }
+        }
+
+        return map;
+    }
+
+    /**
+     * Write the indexes of the archive, then evict the least recently used cache files.
+     */
+    @SuppressWarnings("rawtypes")
+    public void store(API api, Container.Entry entry, Map<String, Map<String, Collection>> map) {
+        File archiveFile = getArchiveFile(entry);
+        long maximumSize = getMaximumSize(api);
+
+        if (archiveFile == null || maximumSize <= 0) {
+            return;
+        }
+
+        // Assign an id to each entry and each string referenced by the indexes
+        Map<Container.Entry, Integer> entryIds = new HashMap<>();
+        List<Container.Entry> entries = new ArrayList<>();
+        Map<String, Integer> stringIds = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+
+        for (Map<String, Collection> index : map.values()) {
+            for (Map.Entry<String, Collection> mapEntry : index.entrySet()) {
+                addString(stringIds, strings, mapEntry.getKey());
+
+                for (Object value : mapEntry.getValue()) {
+                    if (value instanceof Container.Entry) { // to convert to jdk16 pattern matching only when spotbugs #1617 and eclipse #577987 are solved
+                        Container.Entry e = (Container.Entry) value;
+                        if (!entryIds.containsKey(e)) {
+                            entryIds.put(e, entries.size());
+                            entries.add(e);
+                        }
+                    } else if (value instanceof String) { // to convert to jdk16 pattern matching only when spotbugs #1617 and eclipse #577987 are solved
+                        addString(stringIds, strings, (String) value);
+                    } else {
+                        // Unsupported value type
+                        return;
+                    }
+                }
+            }
+        }
+
+        synchronized (this) {
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                return;
+            }
+
+            File cacheFile = getCacheFile(archiveFile);
+            File tmpFile = new File(directory, cacheFile.getName() + ".tmp");
+            boolean written = false;
+
+            try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(tmpFile))))) {
+                written = writeHeader(dos, archiveFile, getIndexerPreferences(api)) && writeIndexes(dos, entry, entries, entryIds, strings, stringIds, map);
+            } catch (IOException e) {
+                assert ExceptionUtil.printStackTrace(e);
+            }
+
+            try {
+                if (written) {
+                    Files.move(tmpFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                    evict(maximumSize * ONE_MEGABYTE);
+                }
+            } catch (IOException e) {
+                assert ExceptionUtil.printStackTrace(e);
+            } finally {
+                deleteQuietly(tmpFile);
+            }
+        }
+    }
+
+    protected static void addString(Map<String, Integer> stringIds, List<String> strings, String string) {
+        if (stringIds.putIfAbsent(string, strings.size()) == null) {
+            strings.add(string);
+        }
+    }
+
+    protected void evict(long maximumSize) {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(CACHE_FILE_SUFFIX));
+
+        if (files != null) {
+            // Most recently used first
+            Arrays.sort(files, Comparator.comparingLong(File::lastModified).reversed());
+
+            long size = 0;
+
+            for (File file : files) {
+                size += file.length();
+
+                if (size > maximumSize) {
+                    deleteQuietly(file);
+                }
+            }
+        }
+    }
+
+    protected boolean readHeader(DataInputStream dis, File archiveFile, String indexerPreferences) throws IOException {
+        if (dis.readInt() != MAGIC || dis.readInt() != FORMAT_VERSION || !archiveFile.getAbsolutePath().equals(readString(dis))) {
+            return false;
+        }
+
+        long length = dis.readLong();
+        long lastModified = dis.readLong();
+        String sha1 = readString(dis);
+
+        if (!indexerPreferences.equals(readString(dis)) || length != archiveFile.length()) {
+            return false;
+        }
+
+        // Only hash the archive if it was touched or copied
+        return lastModified == archiveFile.lastModified() || sha1.equals(getSHA1(archiveFile));
+    }
+
+    protected boolean writeHeader(DataOutputStream dos, File archiveFile, String indexerPreferences) throws IOException {
+        String sha1 = getSHA1(archiveFile);
+
+        if (sha1.isEmpty()) {
+            return false;
+        }
+
+        dos.writeInt(MAGIC);
+        dos.writeInt(FORMAT_VERSION);
+        writeString(dos, archiveFile.getAbsolutePath());
+        dos.writeLong(archiveFile.length());
+        dos.writeLong(archiveFile.lastModified());
+        writeString(dos, sha1);
+        writeString(dos, indexerPreferences);
+        return true;
+    }
+
+    /**
+     * @return the SHA-1 of the archive, computed once per size and last modification time
+     */
+    protected String getSHA1(File archiveFile) {
+        String key = archiveFile.getAbsolutePath() + '|' + archiveFile.length() + '|' + archiveFile.lastModified();
+        String sha1 = sha1s.get(key);
+
+        if (sha1 == null) {
+            sha1 = SHA1Util.computeSHA1(archiveFile);
+
+            if (!sha1.isEmpty()) {
+                sha1s.put(key, sha1);
+            }
+        }
+
+        return sha1;
+    }
+
+    /**
+     * @return the preferences changing the content of the indexes, sorted
+     */
+    protected static String getIndexerPreferences(API api) {
+        StringBuilder sb = new StringBuilder();
+
+        for (Map.Entry<String, String> preference : new TreeMap<>(api.getPreferences()).entrySet()) {
+            String key = preference.getKey();
+
+            // The number of workers does not change the indexes
+            if (key.contains(INDEXER_PREFERENCES) && !INDEXER_WORKER_COUNT_KEY.equals(key)) {
+                sb.append(key).append('=').append(preference.getValue()).append('\n');
+            }
+        }
+
+        return sb.toString();
+    }
+
+    @SuppressWarnings("rawtypes")
+    protected static boolean writeIndexes(DataOutputStream dos, Container.Entry rootEntry, List<Container.Entry> entries, Map<Container.Entry, Integer> entryIds,
+            List<String> strings, Map<String, Integer> stringIds, Map<String, Map<String, Collection>> map) throws IOException {
+        // Entry table
+        dos.writeInt(entries.size());
+
+        for (Container.Entry e : entries) {
+            String locator = getLocator(rootEntry, e);
+
+            if (locator == null) {
+                return false;
+            }
+
+            writeString(dos, locator);
+            dos.writeBoolean(e.isDirectory());
+        }
+
+        // String table
+        dos.writeInt(strings.size());
+
+        for (String string : strings) {
+            writeString(dos, string);
+        }
+
+        // Indexes
+        dos.writeInt(map.size());
+
+        for (Map.Entry<String, Map<String, Collection>> index : map.entrySet()) {
+            writeString(dos, index.getKey());
+            dos.writeInt(index.getValue().size());
+
+            for (Map.Entry<String, Collection> mapEntry : index.getValue().entrySet()) {
+                Collection values = mapEntry.getValue();
+
+                dos.writeInt(stringIds.get(mapEntry.getKey()));
+                dos.writeInt(values.size());
+
+                for (Object value : values) {
+                    dos.writeInt(value instanceof Container.Entry ? entryIds.get(value) : ~stringIds.get(value));
+                }
+            }
+        }
+
+        return true;
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    protected static Map<String, Map<String, Collection>> readIndexes(DataInputStream dis, Container.Entry rootEntry) throws IOException {
+        // Entry table
+        int entryCount = dis.readInt();
+        Container.Entry[] entries = new Container.Entry[entryCount];
+
+        for (int i = 0; i < entryCount; i++) {
+            String locator = readString(dis);
+            boolean directory = dis.readBoolean();
+
+            entries[i] = resolve(rootEntry, locator, directory);
+
+            if (entries[i] == null) {
+                return null;
+            }
+        }
+
+        // String table
+        int stringCount = dis.readInt();
+        String[] strings = new String[stringCount];
+
+        for (int i = 0; i < stringCount; i++) {
+            strings[i] = readString(dis);
+        }
+
+        // Indexes
+        int indexCount = dis.readInt();
+        Map<String, Map<String, Collection>> map = new HashMap<>(indexCount * 2);
+
+        for (int i = 0; i < indexCount; i++) {
+            String indexName = readString(dis);
+            int keyCount = dis.readInt();
+            Map<String, Collection> index = new HashMap<>(keyCount * 4 / 3 + 1);
+
+            for (int j = 0; j < keyCount; j++) {
+                String key = strings[dis.readInt()];
+                int valueCount = dis.readInt();
+                List values = new ArrayList<>(valueCount);
+
+                for (int k = 0; k < valueCount; k++) {
+                    int valueId = dis.readInt();
+                    values.add(valueId >= 0 ? entries[valueId] : strings[~valueId]);
+                }
+
+                index.put(key, values);
+            }
+
+            map.put(indexName, index);
+        }
+
+        return map;
+    }
+
+    /**
+     * @return the path of the entry, prefixed by the paths of the nested archives containing it
+     */
+    protected static String getLocator(Container.Entry rootEntry, Container.Entry entry) {
+        Container.Entry parent = entry.getContainer().getRoot().getParent();
+
+        if (parent == rootEntry) {
+            return entry.getPath();
+        }
+        if (parent == null) {
+            return null;
+        }
+
+        String parentLocator = getLocator(rootEntry, parent);
+        return parentLocator == null ? null : parentLocator + NESTED_ENTRY_SEPARATOR + entry.getPath();
+    }
+
+    protected static Container.Entry resolve(Container.Entry rootEntry, String locator, boolean directory) {
+        Container.Entry archiveEntry = rootEntry;
+        int startIndex = 0;
+        int separatorIndex;
+
+        while ((separatorIndex = locator.indexOf(NESTED_ENTRY_SEPARATOR, startIndex)) != -1) {
+            archiveEntry = resolvePath(archiveEntry, locator.substring(startIndex, separatorIndex), false);
+
+            if (archiveEntry == null) {
+                return null;
+            }
+
+            startIndex = separatorIndex + NESTED_ENTRY_SEPARATOR.length();
+        }
+
+        return resolvePath(archiveEntry, locator.substring(startIndex), directory);
+    }
+
+    protected static Container.Entry resolvePath(Container.Entry archiveEntry, String path, boolean directory) {
+        Container.Entry current = archiveEntry;
+        int slashIndex = path.indexOf('/');
+
+        // Walk down parent directories
+        while (current != null && slashIndex != -1) {
+            current = getChild(current, path.substring(0, slashIndex), true);
+            slashIndex = path.indexOf('/', slashIndex + 1);
+        }
+
+        return current == null ? null : getChild(current, path, directory);
+    }
+
+    protected static Container.Entry getChild(Container.Entry parent, String path, boolean directory) {
+        Map<Container.EntryPath, Container.Entry> children = parent.getChildren();
+        return children == null ? null : children.get(new SimpleEntryPath(path, directory));
+    }
+
+    protected static File getArchiveFile(Container.Entry entry) {
+        try {
+            URI uri = entry.getUri();
+
+            if (uri != null && "file".equals(uri.getScheme())) {
+                File file = new File(uri);
+
+                if (file.isFile()) {
+                    return file;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            assert ExceptionUtil.printStackTrace(e);
+        }
+        return null;
+    }
+
+    protected File getCacheFile(File archiveFile) {
+        return new File(directory, SHA1Util.computeSHA1(archiveFile.getAbsolutePath()) + CACHE_FILE_SUFFIX);
+    }
+
+    protected static long getMaximumSize(API api) {
+        String preference = api.getPreferences().get(INDEX_CACHE_MAX_SIZE_KEY);
+
+        try {
+            return Long.parseLong(preference != null ? preference : IndexCachePreferencesProvider.DEFAULT_VALUE);
+        } catch (NumberFormatException e) {
+            assert ExceptionUtil.printStackTrace(e);
+            return 0;
+        }
+    }
+
+    protected static void writeString(DataOutputStream dos, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        dos.writeInt(bytes.length);
+        dos.write(bytes);
+    }
+
+    protected static String readString(DataInputStream dis) throws IOException {
+        byte[] bytes = new byte[dis.readInt()];
+        dis.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    protected static void deleteQuietly(File file) {
+        try {
+            Files.deleteIfExists(file.toPath());
+        } catch (IOException e) {
+            assert ExceptionUtil.printStackTrace(e);
+        }
+    }
+}
@@ -13,10 +13,16 @@ import org.jd.gui.api.feature.SourcesSavable;
 import org.jd.gui.api.feature.UriGettable;
 import org.jd.gui.api.model.Container;
 import org.jd.gui.api.model.Indexes;
+import org.jd.gui.service.indexer.IndexesCacheService;
+import org.jd.gui.service.sourcesaver.DirectorySourceSaverProvider;
 import org.jd.gui.spi.Indexer;
 import org.jd.gui.spi.PanelFactory;
 import org.jd.gui.spi.SourceSaver;
 import org.jd.gui.spi.TreeNodeFactory;
+import org.jd.gui.util.ExportManifest;
+import org.jd.gui.util.ProgressTracker;
+import org.jd.gui.util.WorkerUtil;
+import org.jd.gui.util.index.CompactIndexes;
 import org.jd.gui.view.component.panel.TreeTabbedPanel;
 
 import java.io.Closeable;
@@ -35,7 +41,12 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 import java.util.function.DoubleConsumer;
 import java.util.function.DoubleSupplier;
 
@@ -59,6 +70,9 @@ public class ContainerPanelFactoryProvider implements PanelFactory {
     @SuppressWarnings("rawtypes")
     protected static class ContainerPanel extends TreeTabbedPanel implements ContentIndexable, SourcesSavable, Closeable {
         private static final long serialVersionUID = 1L;
+        // Closing the archive rewrites it: checkpoint rarely
+        protected static final int CHECKPOINT_ENTRY_COUNT = 10_000;
+        protected static final long CHECKPOINT_INTERVAL = 3 * 60 * 1000L;
         private transient Container.Entry entry;
         private transient Container container;
 
@@ -84,7 +98,51 @@ public class ContainerPanelFactoryProvider implements PanelFactory {
         /** --- ContentIndexable --- */
         @Override
         public Indexes index(API api, DoubleSupplier getProgressFunction, DoubleConsumer setProgressFunction, BooleanSupplier isCancelledFunction) {
-            Map<String, Map<String, Collection>> map = new HashMap<>();
+            return index(api, getProgressFunction, setProgressFunction, isCancelledFunction, null);
+        }
+
+        @Override
+        public Indexes index(API api, DoubleSupplier getProgressFunction, DoubleConsumer setProgressFunction, BooleanSupplier isCancelledFunction, Consumer<Indexes> publishFunction) {
+            IndexesCacheService indexesCacheService = IndexesCacheService.getInstance();
+            Map<String, Map<String, Collection>> map = indexesCacheService.load(api, entry);
+
+            if (map != null) {
+                setProgressFunction.accept(100);
+            } else {
+                int workerCount = WorkerUtil.getWorkerCount(api);
+
+                map = workerCount > 1 ? new ConcurrentHashMap<>() : new HashMap<>();
+
+                if (publishFunction != null) {
+                    // Publish partial snapshots while indexing
+                    setProgressFunction = new SnapshotPublisher(map, setProgressFunction, publishFunction);
+                }
+
+                ProgressTracker progressTracker = new ProgressTracker(setProgressFunction);
+
+                if (workerCount > 1) {
+                    parallelIndex(api, workerCount, map, progressTracker, progressTracker, isCancelledFunction);
+                } else {
+                    sequentialIndex(api, map, progressTracker, progressTracker, isCancelledFunction);
+                }
+
+                if (!isCancelledFunction.getAsBoolean()) {
+                    indexesCacheService.store(api, entry, map);
+                }
+            }
+
+            // To prevent memory leaks, return read-only indexes without the 'populate' behaviour
+            CompactIndexes indexes = CompactIndexes.freeze(map);
+
+            if (!isCancelledFunction.getAsBoolean()) {
+                // Build the trigram indexes of the largest indexes searched by 'Search in Constant Pools'
+                indexes.buildTrigramIndexes("strings", "methodReferences", "fieldReferences");
+            }
+
+            return indexes;
+        }
+
+        protected void sequentialIndex(API api, Map<String, Map<String, Collection>> map, DoubleSupplier getProgressFunction, DoubleConsumer setProgressFunction, BooleanSupplier isCancelledFunction) {
             DelegatedMapMapWithDefault mapWithDefault = new DelegatedMapMapWithDefault(map);
 
             // Index populating value automatically
@@ -96,9 +154,30 @@ public class ContainerPanelFactoryProvider implements PanelFactory {
             if (indexer != null && !isCancelledFunction.getAsBoolean()) {
                 indexer.index(api, entry, indexesWithDefault, getProgressFunction, setProgressFunction, isCancelledFunction);
             }
+        }
+
+        /**
+         * Split the entry tree across a fork-join pool. Container indexers fork a task per child entry,
+         * and results are merged into concurrent maps.
+         */
+        protected void parallelIndex(API api, int workerCount, Map<String, Map<String, Collection>> map, DoubleSupplier getProgressFunction, DoubleConsumer setProgressFunction, BooleanSupplier isCancelledFunction) {
+            ConcurrentDelegatedMapMapWithDefault mapWithDefault = new ConcurrentDelegatedMapMapWithDefault(map);
 
-            // To prevent memory leaks, return an index without the 'populate' behaviour
-            return map::get;
+            // Index populating value automatically
+            Indexes indexesWithDefault = mapWithDefault::get;
+
+            // Index entry
+            Indexer indexer = api.getIndexer(entry);
+
+            if (indexer != null && !isCancelledFunction.getAsBoolean()) {
+                ForkJoinPool pool = new ForkJoinPool(workerCount);
+
+                try {
+                    pool.invoke(ForkJoinTask.adapt(() -> indexer.index(api, entry, indexesWithDefault, getProgressFunction, setProgressFunction, isCancelledFunction)));
+                } finally {
+                    pool.shutdown();
+                }
+            }
         }
 
         /** --- SourcesSavable --- */
@@ -128,18 +207,41 @@ public class ContainerPanelFactoryProvider implements PanelFactory {
 
                 URI uri = path.toUri();
                 URI archiveUri = new URI("jar:" + uri.getScheme(), uri.getHost(), uri.getPath() + "!/", null);
+                ExportManifest manifest = ExportManifest.load(path);
 
-                try (FileSystem archiveFs = FileSystems.newFileSystem(archiveUri, Collections.singletonMap("create", "true"))) {
-                    Path archiveRootPath = archiveFs.getPath("/");
-                    SourceSaver saver = api.getSourceSaver(entry);
+                if (manifest.isEmpty()) {
+                    // Unknown content: start over
+                    Files.deleteIfExists(path);
+                }
 
-                    if (saver != null) {
-                        saver.saveContent(api, archiveRootPath, archiveRootPath, entry, getProgressFunction, setProgressFunction, isCancelledFunction);
+                SourceSaver saver = api.getSourceSaver(entry);
+                ProgressTracker progressTracker = new ProgressTracker(setProgressFunction);
+                boolean saved;
+
+                do {
+                    try (FileSystem archiveFs = FileSystems.newFileSystem(archiveUri, Collections.singletonMap("create", "true"))) {
+                        Path archiveRootPath = archiveFs.getPath("/");
+
+                        if (saver instanceof DirectorySourceSaverProvider) { // to convert to jdk16 pattern matching only when spotbugs #1617 and eclipse #577987 are solved
+                            DirectorySourceSaverProvider directorySourceSaver = (DirectorySourceSaverProvider) saver;
+                            int checkpointCount = manifest.getSavedCount() + CHECKPOINT_ENTRY_COUNT;
+                            long checkpointTime = System.currentTimeMillis() + CHECKPOINT_INTERVAL;
+                            saved = directorySourceSaver.saveContent(api, archiveRootPath, entry, progressTracker, progressTracker, isCancelledFunction, manifest,
+                                () -> manifest.getSavedCount() >= checkpointCount || System.currentTimeMillis() >= checkpointTime);
+                        } else {
+                            if (saver != null) {
+                                saver.saveContent(api, archiveRootPath, archiveRootPath, entry, progressTracker, progressTracker, isCancelledFunction);
+                            }
+                            saved = true;
+                        }
                     }
-                } catch (AccessDeniedException e) {
-                    assert ExceptionUtil.printStackTrace(e);
-                    JOptionPane.showMessageDialog(getParent(), "Not authorized to save to this destination. Please restart as administrator or choose another location.", "Access denied", JOptionPane.ERROR_MESSAGE);
-                }
+
+                    // Once the archive is written, so that a crash resumes from the last checkpoint
+                    manifest.store();
+                } while (!saved && !isCancelledFunction.getAsBoolean());
+            } catch (AccessDeniedException e) {
+                assert ExceptionUtil.printStackTrace(e);
+                JOptionPane.showMessageDialog(getParent(), "Not authorized to save to this destination. Please restart as administrator or choose another location.", "Access denied", JOptionPane.ERROR_MESSAGE);
             } catch (URISyntaxException|IOException e) {
                 assert ExceptionUtil.printStackTrace(e);
             }
@@ -154,6 +256,68 @@ public class ContainerPanelFactoryProvider implements PanelFactory {
         }
     }
 
+    /**
+     * Forward progress to the indexer worker and periodically publish a read-only snapshot of the indexes
+     * being populated. Indexers report progress after each entry, so a snapshot never contains a value
+     * that is missing from the final indexes.
+     */
+    @SuppressWarnings("rawtypes")
+    protected static class SnapshotPublisher implements DoubleConsumer {
+        protected static final long MIN_PUBLICATION_INTERVAL = 500;
+
+        private final Map<String, Map<String, Collection>> map;
+        private final DoubleConsumer setProgressFunction;
+        private final Consumer<Indexes> publishFunction;
+        private final AtomicLong nextPublicationTime;
+
+        public SnapshotPublisher(Map<String, Map<String, Collection>> map, DoubleConsumer setProgressFunction, Consumer<Indexes> publishFunction) {
+            this.map = map;
+            this.setProgressFunction = setProgressFunction;
+            this.publishFunction = publishFunction;
+            this.nextPublicationTime = new AtomicLong(System.currentTimeMillis() + MIN_PUBLICATION_INTERVAL);
+        }
+
+        @Override
+        public void accept(double progress) {
+            setProgressFunction.accept(progress);
+
+            long startTime = System.currentTimeMillis();
+            long publicationTime = nextPublicationTime.get();
+
+            // Only one indexing thread takes the snapshot, the others keep on indexing
+            if (startTime >= publicationTime && nextPublicationTime.compareAndSet(publicationTime, Long.MAX_VALUE)) {
+                try {
+                    publishFunction.accept(CompactIndexes.freeze(copy(map)));
+                } finally {
+                    long endTime = System.currentTimeMillis();
+                    // Keep the cost of snapshots under a third of the indexing time on huge containers
+                    nextPublicationTime.set(endTime + Math.max(MIN_PUBLICATION_INTERVAL, 2 * (endTime - startTime)));
+                }
+            }
+        }
+
+        protected static Map<String, Map<String, Collection>> copy(Map<String, Map<String, Collection>> map) {
+            Map<String, Map<String, Collection>> copy = new HashMap<>();
+
+            for (Map.Entry<String, Map<String, Collection>> mapEntry : map.entrySet()) {
+                Map<String, Collection> index = new HashMap<>();
+
+                for (Map.Entry<String, Collection> indexEntry : mapEntry.getValue().entrySet()) {
+                    Collection values = indexEntry.getValue();
+
+                    // Values of concurrent indexes are synchronized lists
+                    synchronized (values) {
+                        index.put(indexEntry.getKey(), new ArrayList<>(values));
+                    }
+                }
+
+                copy.put(mapEntry.getKey(), index);
+            }
+
+            return copy;
+        }
+    }
+
     protected static class DelegatedMap<K, V> implements Map<K, V> {
 
         private Map<K, V> map;
@@ -247,4 +411,55 @@ public class ContainerPanelFactoryProvider implements PanelFactory {
             return Objects.equals(wrappers, other.wrappers);
         }
     }
+
+    @SuppressWarnings("rawtypes")
+    protected static class ConcurrentDelegatedMapWithDefault extends DelegatedMap<String, Collection> {
+
+        private final Map<String, Collection> map;
+
+        public ConcurrentDelegatedMapWithDefault(Map<String, Collection> map) {
+            super(map);
+            this.map = map;
+        }
+
+        @Override
+        public Collection get(Object o) {
+            return map.computeIfAbsent(o.toString(), k -> Collections.synchronizedList(new ArrayList<>()));
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    protected static class ConcurrentDelegatedMapMapWithDefault extends DelegatedMap<String, Map<String, Collection>> {
+
+        private final Map<String, Map<String, Collection>> wrappers = new ConcurrentHashMap<>();
+
+        public ConcurrentDelegatedMapMapWithDefault(Map<String, Map<String, Collection>> map) { super(map); }
+
+        @Override
+        public Map<String, Collection> get(Object o) {
+            return wrappers.computeIfAbsent(o.toString(), key -> {
+                Map<String, Collection> m = new ConcurrentHashMap<>();
+                put(key, m);
+                return new ConcurrentDelegatedMapWithDefault(m);
+            });
+        }
+
+        @Override
+        public int hashCode() {
+            int result = super.hashCode();
+            return 31 * result + wrappers.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!super.equals(obj) || getClass() != obj.getClass()) {
+                return false;
+            }
+            ConcurrentDelegatedMapMapWithDefault other = (ConcurrentDelegatedMapMapWithDefault) obj;
+            return Objects.equals(wrappers, other.wrappers);
+        }
+    }
 }
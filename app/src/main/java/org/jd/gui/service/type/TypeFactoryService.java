@@ -9,108 +9,29 @@ package org.jd.gui.service.type;
 
 import org.jd.gui.api.model.Container;
 import org.jd.gui.service.extension.ExtensionService;
+import org.jd.gui.service.extension.SelectorDispatcher;
 import org.jd.gui.spi.TypeFactory;
 
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class TypeFactoryService {
     protected static final TypeFactoryService TYPE_FACTORY_SERVICE = new TypeFactoryService();
 
-    private final Map<String, TypeFactories> mapProviders;
+    public static TypeFactoryService getInstance() { return TYPE_FACTORY_SERVICE; }
 
-    public static TypeFactoryService getInstance() {
-        return TYPE_FACTORY_SERVICE;
-    }
+    private final SelectorDispatcher<TypeFactory> dispatcher;
 
     protected TypeFactoryService() {
         Collection<TypeFactory> providers = ExtensionService.getInstance().load(TypeFactory.class);
 
-        mapProviders = new HashMap<>();
-
-        for (TypeFactory provider : providers) {
-            for (String selector : provider.getSelectors()) {
-                mapProviders.computeIfAbsent(selector, k -> new TypeFactories()).add(provider);
-            }
-        }
+        dispatcher = new SelectorDispatcher<>(providers, TypeFactory::getSelectors, TypeFactory::getPathPattern);
     }
 
     public TypeFactory get(Container.Entry entry) {
-        TypeFactory typeFactory = get(entry.getContainer().getType(), entry);
-        return typeFactory != null ? typeFactory : get("*", entry);
+        return dispatcher.get(entry);
     }
 
     public TypeFactory get(String containerType, Container.Entry entry) {
-        String path = entry.getPath();
-        String type = entry.isDirectory() ? "dir" : "file";
-        String prefix = containerType + ':' + type + ':';
-        TypeFactories typeFactories = mapProviders.get(prefix + path);
-        TypeFactory factory = null;
-
-        if (typeFactories != null) {
-            factory = typeFactories.match(path);
-        }
-
-        if (factory == null) {
-            int lastSlashIndex = path.lastIndexOf('/');
-            String name = path.substring(lastSlashIndex+1);
-
-            typeFactories = mapProviders.get(prefix + "*/" + name);
-
-            if (typeFactories != null) {
-                factory = typeFactories.match(path);
-            }
-
-            if (factory == null) {
-                int index = name.lastIndexOf('.');
-                if (index != -1) {
-                    String extension = name.substring(index + 1);
-
-                    typeFactories = mapProviders.get(prefix + "*." + extension);
-
-                    if (typeFactories != null) {
-                        factory = typeFactories.match(path);
-                    }
-                }
-                if (factory == null) {
-                    typeFactories = mapProviders.get(prefix + '*');
-
-                    if (typeFactories != null) {
-                        factory = typeFactories.match(path);
-                    }
-                }
-            }
-        }
-
-        return factory;
-    }
-
-    protected static class TypeFactories {
-        private final Map<String, TypeFactory> factories = new HashMap<>();
-        private TypeFactory defaultFactory;
-
-        public void add(TypeFactory factory) {
-            Pattern pathPattern = factory.getPathPattern();
-
-            if (pathPattern != null) {
-                factories.put(pathPattern.pattern(), factory);
-            } else {
-                defaultFactory = factory;
-            }
-        }
-
-        public TypeFactory match(String path) {
-            for (TypeFactory factory : factories.values()) {
-                Matcher matcher = factory.getPathPattern().matcher(path);
-
-                if (matcher.matches()) {
-                    return factory;
-                }
-            }
-            return defaultFactory;
-        }
+        return dispatcher.get(containerType, entry);
     }
 }
@@ -18,6 +18,7 @@ package org.jd.gui.util.swing;
 
 import java.awt.Component;
 import java.beans.PropertyChangeEvent;
+import java.util.concurrent.atomic.DoubleAccumulator;
 
 import javax.swing.ProgressMonitor;
 import javax.swing.SwingWorker;
@@ -25,7 +26,8 @@ import javax.swing.SwingWorker;
 public abstract class AbstractSwingWorker<T, V> extends SwingWorker<T, V> {
 
     private final ProgressMonitor progressMonitor;
-    private double progressPercentage;
+    // Progress only increases, so concurrent updates keep the highest value
+    private final DoubleAccumulator progressPercentage = new DoubleAccumulator(Math::max, 0);
 
     protected AbstractSwingWorker(Component component, String message) {
         progressMonitor = new ProgressMonitor(component, message, getProgressMessage(0), 0, 100);
@@ -54,11 +56,11 @@ public abstract class AbstractSwingWorker<T, V> extends SwingWorker<T, V> {
     }
 
     public double getProgressPercentage() {
-        return progressPercentage;
+        return progressPercentage.get();
     }
 
     public void setProgressPercentage(double progressPercentage) {
-        super.setProgress((int) Math.round(progressPercentage));
-        this.progressPercentage = progressPercentage;
+        this.progressPercentage.accumulate(progressPercentage);
+        super.setProgress((int) Math.round(Math.min(100, this.progressPercentage.get())));
     }
 }
@@ -13,8 +13,11 @@ import org.jd.gui.api.model.Container;
 import org.jd.gui.api.model.Indexes;
 import org.jd.gui.api.model.TreeNodeData;
 import org.jd.gui.api.model.Type;
+import org.jd.gui.service.type.AbstractTypeFactoryProvider;
 import org.jd.gui.util.ImageUtil;
 import org.jd.gui.util.function.TriConsumer;
+import org.jd.gui.util.index.IndexesUtil;
+import org.jd.gui.util.index.TypeHierarchy;
 import org.jd.gui.util.swing.SwingUtil;
 import org.jd.gui.view.component.Tree;
 import org.jd.gui.view.renderer.TreeNodeRenderer;
@@ -33,8 +36,10 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
 
 import javax.swing.AbstractAction;
 import javax.swing.Action;
@@ -51,27 +56,40 @@ import javax.swing.JRootPane;
 import javax.swing.JScrollPane;
 import javax.swing.KeyStroke;
 import javax.swing.ScrollPaneConstants;
+import javax.swing.SwingUtilities;
 import javax.swing.event.TreeExpansionEvent;
 import javax.swing.event.TreeExpansionListener;
 import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.DefaultTreeModel;
 import javax.swing.tree.TreePath;
 
+/**
+ * Hierarchy of a type. The hierarchy is computed by background tasks: the tree shows a placeholder node until the
+ * super types of the selected type are computed, then receives the sub types of an expanded node by batches.
+ * Replacing the tree cancels the running tasks.
+ */
 public class OpenTypeHierarchyView {
 
     protected static final ImageIcon ROOT_CLASS_ICON = new ImageIcon(ImageUtil.getImage("/org/jd/gui/images/generate_class.png"));
     protected static final ImageIcon ROOT_INTERFACE_ICON = new ImageIcon(ImageUtil.getImage("/org/jd/gui/images/generate_int.png"));
+    protected static final String COMPUTING_LABEL = "computing\u2026";
+    protected static final int BATCH_SIZE = 50;
 
     private final API api;
-    private Collection<Future<Indexes>> collectionOfFutureIndexes;
+    private final Executor executor;
+    // Generation of the tree, incremented to cancel the tasks of the previous tree
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Collection<Future<Indexes>> collectionOfFutureIndexes;
+    private volatile TypeHierarchy typeHierarchy;
 
     private JDialog openTypeHierarchyDialog;
     private Tree openTypeHierarchyTree;
 
     private final TriConsumer<Point, Collection<Container.Entry>, String> selectedTypeCallback;
 
-    public OpenTypeHierarchyView(API api, JFrame mainFrame, TriConsumer<Point, Collection<Container.Entry>, String> selectedTypeCallback) {
+    public OpenTypeHierarchyView(API api, Executor executor, JFrame mainFrame, TriConsumer<Point, Collection<Container.Entry>, String> selectedTypeCallback) {
         this.api = api;
+        this.executor = executor;
         this.selectedTypeCallback = selectedTypeCallback;
         // Build GUI
         SwingUtil.invokeLater(() -> {
@@ -97,20 +115,11 @@ public class OpenTypeHierarchyView {
                 @Override
                 public void treeExpanded(TreeExpansionEvent e) {
                     TreeNode node = (TreeNode) e.getPath().getLastPathComponent();
-                    // Expand node and find the first leaf
-                    while (node.getChildCount() > 0) {
-                        if (((DefaultMutableTreeNode) node.getChildAt(0)).getUserObject() == null) {
-                            // Remove dummy node and create children
-                            populateTreeNode(node, null);
-                        }
-                        if (node.getChildCount() != 1) {
-                            break;
-                        }
-                        node = (TreeNode) node.getChildAt(0);
+
+                    if (node.getChildCount() > 0 && ((DefaultMutableTreeNode) node.getChildAt(0)).getUserObject() == null) {
+                        // Replace dummy node by a placeholder and create children in the background
+                        expandTreeNode(node);
                     }
-                    DefaultTreeModel model = (DefaultTreeModel) openTypeHierarchyTree.getModel();
-                    model.reload((TreeNode) e.getPath().getLastPathComponent());
-                    openTypeHierarchyTree.setSelectionPath(new TreePath(node.getPath()));
                 }
 
                 @Override
@@ -122,7 +131,7 @@ public class OpenTypeHierarchyView {
                 public void keyPressed(KeyEvent e) {
                     if (e.getKeyCode() == KeyEvent.VK_F4) {
                         TreeNode node = (TreeNode) openTypeHierarchyTree.getLastSelectedPathComponent();
-                        if (node != null) {
+                        if (node != null && node.entry != null) {
                             updateTree(node.entry, node.typeName);
                         }
                     }
@@ -204,64 +213,199 @@ public class OpenTypeHierarchyView {
 
     public void updateTree(Collection<Future<Indexes>> collectionOfFutureIndexes) {
         this.collectionOfFutureIndexes = collectionOfFutureIndexes;
-        TreeNode selectedTreeNode = (TreeNode) openTypeHierarchyTree.getLastSelectedPathComponent();
+        SwingUtil.invokeLater(() -> {
+            TreeNode selectedTreeNode = (TreeNode) openTypeHierarchyTree.getLastSelectedPathComponent();
 
-        if (selectedTreeNode != null) {
-            updateTree(selectedTreeNode.entry, selectedTreeNode.typeName);
-        }
+            if (selectedTreeNode != null && selectedTreeNode.entry != null) {
+                updateTree(selectedTreeNode.entry, selectedTreeNode.typeName);
+            }
+        });
     }
 
+    /**
+     * Show a placeholder, then compute the selected type, its super classes and their sub types in the
+     * background. To call on the event dispatch thread.
+     */
     protected void updateTree(Container.Entry entry, String typeName) {
-        SwingUtil.invokeLater(() -> {
-            // Clear tree
-            DefaultTreeModel model = (DefaultTreeModel) openTypeHierarchyTree.getModel();
-            DefaultMutableTreeNode root = (DefaultMutableTreeNode) model.getRoot();
-            root.removeAllChildren();
+        long currentGeneration = generation.incrementAndGet();
+        BooleanSupplier isCancelledFunction = () -> generation.get() != currentGeneration;
+        Collection<Future<Indexes>> collection = collectionOfFutureIndexes;
+
+        // Clear tree
+        DefaultTreeModel model = (DefaultTreeModel) openTypeHierarchyTree.getModel();
+        DefaultMutableTreeNode root = (DefaultMutableTreeNode) model.getRoot();
+        root.removeAllChildren();
+        root.add(createComputingTreeNode());
+        model.reload();
+
+        showWaitCursor();
+
+        executor.execute(() -> {
+            TreeNode selectedTreeNode = null;
+            TreeNode parentTreeNode = null;
+
+            try {
+                typeHierarchy = TypeHierarchy.get(collection);
+                selectedTreeNode = createTreeNode(entry, typeName);
+                parentTreeNode = createParentTreeNode(selectedTreeNode, isCancelledFunction);
+            } catch (Exception e) {
+                assert ExceptionUtil.printStackTrace(e);
+            }
+
+            TreeNode finalSelectedTreeNode = selectedTreeNode;
+            TreeNode finalParentTreeNode = parentTreeNode;
 
-            TreeNode selectedTreeNode = createTreeNode(entry, typeName);
-            TreeNode parentTreeNode = createParentTreeNode(selectedTreeNode);
+            SwingUtilities.invokeLater(() -> {
+                if (!isCancelledFunction.getAsBoolean()) {
+                    hideWaitCursor();
+                    root.removeAllChildren();
 
-            root.add(parentTreeNode);
-            model.reload();
+                    if (finalParentTreeNode != null) {
+                        root.add(finalParentTreeNode);
+                    }
+
+                    model.reload();
+                    showTreeNode(finalSelectedTreeNode);
+                }
+            });
+        });
+    }
+
+    protected void showTreeNode(TreeNode selectedTreeNode) {
+        if (selectedTreeNode != null) {
+            TreePath path = new TreePath(selectedTreeNode.getPath());
+            // Expand
+            openTypeHierarchyTree.expandPath(path);
+            // Scroll to show tree node
+            openTypeHierarchyTree.makeVisible(path);
+            Rectangle bounds = openTypeHierarchyTree.getPathBounds(path);
 
-            if (selectedTreeNode != null) {
-                TreePath path = new TreePath(selectedTreeNode.getPath());
-                // Expand
-                openTypeHierarchyTree.expandPath(path);
-                // Scroll to show tree node
-                openTypeHierarchyTree.makeVisible(path);
-                Rectangle bounds = openTypeHierarchyTree.getPathBounds(path);
+            if (bounds != null) {
+                bounds.x = 0;
 
-                if (bounds != null) {
-                    bounds.x = 0;
+                Rectangle lastRowBounds = openTypeHierarchyTree.getRowBounds(openTypeHierarchyTree.getRowCount() - 1);
+
+                if (lastRowBounds != null) {
+                    bounds.y = Math.max(bounds.y - 30, 0);
+                    bounds.height = Math.min(bounds.height + bounds.y + 60, lastRowBounds.height + lastRowBounds.y) - bounds.y;
+                }
 
-                    Rectangle lastRowBounds = openTypeHierarchyTree.getRowBounds(openTypeHierarchyTree.getRowCount() - 1);
+                openTypeHierarchyTree.scrollRectToVisible(bounds);
+                openTypeHierarchyTree.scrollPathToVisible(path);
+                openTypeHierarchyTree.fireVisibleDataPropertyChange();
+            }
+            // Select tree node
+            openTypeHierarchyTree.setSelectionPath(path);
+        }
+    }
 
-                    if (lastRowBounds != null) {
-                        bounds.y = Math.max(bounds.y - 30, 0);
-                        bounds.height = Math.min(bounds.height + bounds.y + 60, lastRowBounds.height + lastRowBounds.y) - bounds.y;
+    /**
+     * Replace the dummy child of the node by a placeholder, then add the sub types by batches, in the order of
+     * their names, as they are made in the background. To call on the event dispatch thread.
+     */
+    protected void expandTreeNode(TreeNode treeNode) {
+        long currentGeneration = generation.get();
+        BooleanSupplier isCancelledFunction = () -> generation.get() != currentGeneration;
+        DefaultTreeModel model = (DefaultTreeModel) openTypeHierarchyTree.getModel();
+        TreeNode computingTreeNode = createComputingTreeNode();
+
+        treeNode.removeAllChildren();
+        treeNode.add(computingTreeNode);
+        model.nodeStructureChanged(treeNode);
+
+        executor.execute(() -> {
+            try {
+                List<String> subTypeNames = getSortedSubTypeNames(treeNode.typeName);
+                Container preferredContainer = treeNode.entry == null ? null : treeNode.entry.getContainer();
+                List<TreeNode> batch = new ArrayList<>(BATCH_SIZE);
+
+                for (String subTypeName : subTypeNames) {
+                    if (isCancelledFunction.getAsBoolean()) {
+                        return;
                     }
 
-                    openTypeHierarchyTree.scrollRectToVisible(bounds);
-                    openTypeHierarchyTree.scrollPathToVisible(path);
-                    openTypeHierarchyTree.fireVisibleDataPropertyChange();
+                    TreeNode subTreeNode = createSubTreeNode(subTypeName, preferredContainer);
+
+                    if (subTreeNode != null) {
+                        batch.add(subTreeNode);
+
+                        if (batch.size() == BATCH_SIZE) {
+                            addTreeNodes(treeNode, computingTreeNode, batch, isCancelledFunction);
+                            batch = new ArrayList<>(BATCH_SIZE);
+                        }
+                    }
                 }
-                // Select tree node
-                openTypeHierarchyTree.setSelectionPath(path);
+
+                addTreeNodes(treeNode, computingTreeNode, batch, isCancelledFunction);
+            } catch (Exception e) {
+                assert ExceptionUtil.printStackTrace(e);
             }
+
+            SwingUtilities.invokeLater(() -> {
+                if (!isCancelledFunction.getAsBoolean() && computingTreeNode.getParent() == treeNode) {
+                    model.removeNodeFromParent(computingTreeNode);
+
+                    if (treeNode.getChildCount() == 1) {
+                        // Expand the single child
+                        openTypeHierarchyTree.expandPath(new TreePath(((TreeNode) treeNode.getChildAt(0)).getPath()));
+                    }
+                }
+            });
         });
     }
 
+    /**
+     * Insert the tree nodes before the placeholder, on the event dispatch thread.
+     */
+    protected void addTreeNodes(TreeNode treeNode, TreeNode computingTreeNode, List<TreeNode> treeNodes, BooleanSupplier isCancelledFunction) {
+        if (!treeNodes.isEmpty()) {
+            SwingUtilities.invokeLater(() -> {
+                if (!isCancelledFunction.getAsBoolean() && computingTreeNode.getParent() == treeNode) {
+                    DefaultTreeModel model = (DefaultTreeModel) openTypeHierarchyTree.getModel();
+                    int index = treeNode.getIndex(computingTreeNode);
+                    int[] childIndices = new int[treeNodes.size()];
+
+                    for (int i = 0; i < childIndices.length; i++) {
+                        treeNode.insert(treeNodes.get(i), index);
+                        childIndices[i] = index++;
+                    }
+
+                    model.nodesWereInserted(treeNode, childIndices);
+                }
+            });
+        }
+    }
+
+    protected static TreeNode createComputingTreeNode() {
+        return new TreeNode(null, null, null, new TreeNodeBean(COMPUTING_LABEL, null));
+    }
+
+    /**
+     * Create the node from the flags of the type hierarchy, the type is made only if it is not indexed from a
+     * class file.
+     *
+     * @return the node, null if the type cannot be made
+     */
     protected TreeNode createTreeNode(Container.Entry entry, String typeName) {
-        Type type = api.getTypeFactory(entry).make(api, entry, typeName);
+        int accessFlags = typeHierarchy.getAccessFlags(typeName);
+        TreeNodeBean treeNodeBean;
 
-        typeName = type.getName();
+        if (accessFlags == -1) {
+            Type type = api.getTypeFactory(entry).make(api, entry, typeName);
+
+            if (type == null) {
+                return null;
+            }
+
+            treeNodeBean = new TreeNodeBean(type);
+        } else {
+            treeNodeBean = new TreeNodeBean(getLabel(typeName), AbstractTypeFactoryProvider.getTypeIcon(accessFlags));
+        }
 
         List<Container.Entry> entries = getEntries(typeName);
-        TreeNode treeNode = new TreeNode(entry, typeName, entries, new TreeNodeBean(type));
-        List<String> childTypeNames = getSubTypeNames(typeName);
+        TreeNode treeNode = new TreeNode(entry, typeName, entries, treeNodeBean);
 
-        if (childTypeNames != null) {
+        if (typeHierarchy.getSubTypeCount(typeName) > 0) {
             // Add dummy node
             treeNode.add(new DefaultMutableTreeNode());
         }
@@ -269,67 +413,131 @@ public class OpenTypeHierarchyView {
         return treeNode;
     }
 
+    /**
+     * @return the node of the sub type, declared in the preferred container if possible, or null
+     */
+    protected TreeNode createSubTreeNode(String subTypeName, Container preferredContainer) {
+        // Search entry in the preferred container
+        List<Container.Entry> entries = getEntries(subTypeName);
+        Container.Entry entry = null;
+
+        for (Container.Entry e : entries) {
+            if (e.getContainer() == preferredContainer) {
+                entry = e;
+            }
+        }
+
+        if (entry == null && !entries.isEmpty()) {
+            // Not found -> Choose 1st one
+            entry = entries.get(0);
+        }
+        // Create tree node
+        return entry == null ? null : createTreeNode(entry, subTypeName);
+    }
+
     /**
      * Create parent and sibling tree nodes
      */
-    protected TreeNode createParentTreeNode(TreeNode treeNode) {
-        Type type = api.getTypeFactory(treeNode.entry).make(api, treeNode.entry, treeNode.typeName);
-        String superTypeName = type.getSuperName();
+    protected TreeNode createParentTreeNode(TreeNode treeNode, BooleanSupplier isCancelledFunction) {
+        TreeNode parentTreeNode = treeNode;
+
+        while (!isCancelledFunction.getAsBoolean()) {
+            TreeNode superTreeNode = createSuperTreeNode(parentTreeNode, isCancelledFunction);
 
-        if (superTypeName != null) {
-            List<Container.Entry> superEntries = getEntries(superTypeName);
+            if (superTreeNode == null) {
+                // super type undefined
+                break;
+            }
 
-            // Search entry in the sane container of 'entry'
-            Container.Entry superEntry = null;
+            parentTreeNode = superTreeNode;
 
-            if (superEntries != null && !superEntries.isEmpty()) {
-                for (Container.Entry se : superEntries) {
-                    if (se.getContainer() == treeNode.entry.getContainer()) {
-                        superEntry = se;
-                        break;
-                    }
-                }
+            if (parentTreeNode.entry == null) {
+                // Root type not found
+                break;
+            }
+        }
+
+        return parentTreeNode;
+    }
+
+    /**
+     * @return the node of the super class of the node, populated with the node and its siblings, or null
+     */
+    protected TreeNode createSuperTreeNode(TreeNode treeNode, BooleanSupplier isCancelledFunction) {
+        Type type = null;
+        String superTypeName;
+
+        if (typeHierarchy.isSuperClassKnown(treeNode.typeName)) {
+            superTypeName = typeHierarchy.getSuperClassName(treeNode.typeName);
+        } else {
+            type = api.getTypeFactory(treeNode.entry).make(api, treeNode.entry, treeNode.typeName);
+            superTypeName = type.getSuperName();
+        }
+
+        if (superTypeName == null) {
+            return null;
+        }
+
+        List<Container.Entry> superEntries = getEntries(superTypeName);
 
-                if (superEntry == null) {
-                    // Not found -> Choose 1st one
-                    superEntry = superEntries.get(0);
+        // Search entry in the sane container of 'entry'
+        Container.Entry superEntry = null;
+
+        if (superEntries != null && !superEntries.isEmpty()) {
+            for (Container.Entry se : superEntries) {
+                if (se.getContainer() == treeNode.entry.getContainer()) {
+                    superEntry = se;
+                    break;
                 }
             }
 
-            if (superEntry != null) {
-                // Create parent tree node
-                TreeNode superTreeNode = createTreeNode(superEntry, superTypeName);
-                // Populate parent tree node
-                populateTreeNode(superTreeNode, treeNode);
-                // Recursive call
-                return createParentTreeNode(superTreeNode);
+            if (superEntry == null) {
+                // Not found -> Choose 1st one
+                superEntry = superEntries.get(0);
             }
-            // Entry not found --> Most probable hypothesis : Java type entry
-            int lastPackageSeparatorIndex = superTypeName.lastIndexOf('/');
-            String packaze = superTypeName.substring(0, lastPackageSeparatorIndex).replace('/', '.');
-            String name = superTypeName.substring(lastPackageSeparatorIndex + 1).replace('$', '.');
-            String label = packaze != null ? name + " - " + packaze : name;
-            Icon icon = (type.getFlags() & Type.FLAG_INTERFACE) == 0 ? ROOT_CLASS_ICON : ROOT_INTERFACE_ICON;
-            TreeNode rootTreeNode = new TreeNode(null, superTypeName, null, new TreeNodeBean(label, icon));
-
-            if (packaze != null && packaze.startsWith("java.")) {
-                // If root type is a JDK type, do not create a tree node for each child types
-                rootTreeNode.add(treeNode);
-            } else {
-                populateTreeNode(rootTreeNode, treeNode);
+        }
+
+        // Create parent tree node
+        TreeNode superTreeNode = superEntry == null ? null : createTreeNode(superEntry, superTypeName);
+
+        if (superTreeNode != null) {
+            // Populate parent tree node
+            populateTreeNode(superTreeNode, treeNode, isCancelledFunction);
+            return superTreeNode;
+        }
+        // Entry not found --> Most probable hypothesis : Java type entry
+        int lastPackageSeparatorIndex = superTypeName.lastIndexOf('/');
+        String packaze = superTypeName.substring(0, lastPackageSeparatorIndex).replace('/', '.');
+        String name = superTypeName.substring(lastPackageSeparatorIndex + 1).replace('$', '.');
+        String label = packaze != null ? name + " - " + packaze : name;
+
+        int accessFlags = typeHierarchy.getAccessFlags(treeNode.typeName);
+
+        if (accessFlags == -1) {
+            if (type == null) {
+                type = api.getTypeFactory(treeNode.entry).make(api, treeNode.entry, treeNode.typeName);
             }
+            accessFlags = type.getFlags();
+        }
+
+        Icon icon = (accessFlags & Type.FLAG_INTERFACE) == 0 ? ROOT_CLASS_ICON : ROOT_INTERFACE_ICON;
+        TreeNode rootTreeNode = new TreeNode(null, superTypeName, null, new TreeNodeBean(label, icon));
 
-            return rootTreeNode;
+        if (packaze != null && packaze.startsWith("java.")) {
+            // If root type is a JDK type, do not create a tree node for each child types
+            rootTreeNode.add(treeNode);
+        } else {
+            populateTreeNode(rootTreeNode, treeNode, isCancelledFunction);
         }
-        // super type undefined
-        return treeNode;
+
+        return rootTreeNode;
     }
 
     /**
      * @param superTreeNode  node to populate
      * @param activeTreeNode active child node
      */
-    protected void populateTreeNode(TreeNode superTreeNode, TreeNode activeTreeNode) {
+    protected void populateTreeNode(TreeNode superTreeNode, TreeNode activeTreeNode, BooleanSupplier isCancelledFunction) {
         superTreeNode.removeAllChildren();
 
         // Search preferred container: if 'superTreeNode' is a root with an unknown
@@ -341,49 +549,37 @@ public class OpenTypeHierarchyView {
         }
 
         Container preferredContainer = notNullEntry.getContainer();
-        String activeTypName = null;
-
-        if (activeTreeNode != null) {
-            activeTypName = activeTreeNode.typeName;
-        }
+        String activeTypName = activeTreeNode.typeName;
 
-        List<String> subTypeNames = getSubTypeNames(superTreeNode.typeName);
-        List<TreeNode> treeNodes = new ArrayList<>();
-
-        for (String subTypeName : subTypeNames) {
+        for (String subTypeName : getSortedSubTypeNames(superTreeNode.typeName)) {
+            if (isCancelledFunction.getAsBoolean()) {
+                return;
+            }
             if (subTypeName.equals(activeTypName)) {
-                treeNodes.add(activeTreeNode);
+                superTreeNode.add(activeTreeNode);
             } else {
-                // Search entry in the sane container of 'superTreeNode.entry'
-                List<Container.Entry> entries = getEntries(subTypeName);
-                Container.Entry entry = null;
-
-                for (Container.Entry e : entries) {
-                    if (e.getContainer() == preferredContainer) {
-                        entry = e;
-                    }
-                }
+                TreeNode treeNode = createSubTreeNode(subTypeName, preferredContainer);
 
-                if (entry == null) {
-                    // Not found -> Choose 1st one
-                    entry = entries.get(0);
-                }
-                if (entry != null) {
-                    // Create type
-                    Type t = api.getTypeFactory(entry).make(api, entry, subTypeName);
-                    if (t != null) {
-                        // Create tree node
-                        treeNodes.add(createTreeNode(entry, t.getName()));
-                    }
+                if (treeNode != null) {
+                    superTreeNode.add(treeNode);
                 }
             }
         }
+    }
 
-        treeNodes.sort(Comparator.comparing(TreeNode::getLabel));
+    /**
+     * @return the direct sub types, sorted by the labels of their nodes: simple name, then package
+     */
+    protected List<String> getSortedSubTypeNames(String typeName) {
+        List<String> subTypeNames = typeHierarchy.getSubTypeNames(typeName);
+        subTypeNames.sort(Comparator.comparing(OpenTypeHierarchyView::getLabel));
+        return subTypeNames;
+    }
 
-        for (TreeNode treeNode : treeNodes) {
-            superTreeNode.add(treeNode);
-        }
+    protected static String getLabel(String typeName) {
+        int lastPackageSeparatorIndex = typeName.lastIndexOf('/');
+        String name = typeName.substring(lastPackageSeparatorIndex + 1).replace('$', '.');
+        return lastPackageSeparatorIndex == -1 ? name : name + " - " + typeName.substring(0, lastPackageSeparatorIndex).replace('/', '.');
     }
 
     public void focus() {
@@ -393,7 +589,7 @@ public class OpenTypeHierarchyView {
     protected void onTypeSelected() {
         TreeNode selectedTreeNode = (TreeNode) openTypeHierarchyTree.getLastSelectedPathComponent();
 
-        if (selectedTreeNode != null) {
+        if (selectedTreeNode != null && selectedTreeNode.entries != null) {
             TreePath path = new TreePath(selectedTreeNode.getPath());
             Rectangle bounds = openTypeHierarchyTree.getPathBounds(path);
             Point listLocation = openTypeHierarchyTree.getLocationOnScreen();
@@ -402,68 +598,8 @@ public class OpenTypeHierarchyView {
         }
     }
 
-    @SuppressWarnings({ "rawtypes" })
-    protected List<String> getSubTypeNames(String typeName) {
-        List<String> result = new ArrayList<>();
-
-        try {
-            for (Future<Indexes> futureIndexes : collectionOfFutureIndexes) {
-                if (futureIndexes.isDone()) {
-                    Map<String, Collection> subTypeNames = futureIndexes.get().getIndex("subTypeNames");
-                    if (subTypeNames != null) {
-                        @SuppressWarnings("unchecked")
-                        Collection<String> collection = subTypeNames.get(typeName);
-                        if (collection != null) {
-                            for (String tn : collection) {
-                                if (tn != null) {
-                                    result.add(tn);
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-        } catch (InterruptedException e) {
-            assert ExceptionUtil.printStackTrace(e);
-            // Restore interrupted state...
-            Thread.currentThread().interrupt();
-        } catch (Exception e) {
-            assert ExceptionUtil.printStackTrace(e);
-        }
-
-        return result;
-    }
-
-    @SuppressWarnings({ "rawtypes" })
     protected List<Container.Entry> getEntries(String typeName) {
-        List<Container.Entry> result = new ArrayList<>();
-
-        try {
-            for (Future<Indexes> futureIndexes : collectionOfFutureIndexes) {
-                if (futureIndexes.isDone()) {
-                    Map<String, Collection> typeDeclarations = futureIndexes.get().getIndex("typeDeclarations");
-                    if (typeDeclarations != null) {
-                        @SuppressWarnings("unchecked")
-                        Collection<Container.Entry> collection = typeDeclarations.get(typeName);
-                        if (collection != null) {
-                            for (Container.Entry e : collection) {
-                                if (e != null) {
-                                    result.add(e);
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-        } catch (InterruptedException e) {
-            assert ExceptionUtil.printStackTrace(e);
-            // Restore interrupted state...
-            Thread.currentThread().interrupt();
-        } catch (Exception e) {
-            assert ExceptionUtil.printStackTrace(e);
-        }
-
-        return result;
+        return IndexesUtil.findInternalTypeName(collectionOfFutureIndexes, typeName);
     }
 
     protected static class TreeNode extends DefaultMutableTreeNode {
@@ -10,10 +10,10 @@ package org.jd.gui.view;
 import org.jd.core.v1.service.converter.classfiletojavasyntax.util.ExceptionUtil;
 import org.jd.gui.api.API;
 import org.jd.gui.api.model.Container;
-import org.jd.gui.api.model.Type;
 import org.jd.gui.util.function.TriConsumer;
 import org.jd.gui.util.swing.SwingUtil;
 import org.jd.gui.view.bean.OpenTypeListCellBean;
+import org.jd.gui.view.component.OpenTypeListModel;
 import org.jd.gui.view.renderer.OpenTypeListCellRenderer;
 
 import java.awt.BorderLayout;
@@ -28,11 +28,8 @@ import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.util.ArrayList;
+import java.awt.image.BufferedImage;
 import java.util.Collection;
-import java.util.Comparator;
-import java.util.List;
-import java.util.Map;
 import java.util.function.Consumer;
 
 import javax.swing.AbstractAction;
@@ -40,6 +37,7 @@ import javax.swing.Action;
 import javax.swing.BorderFactory;
 import javax.swing.Box;
 import javax.swing.DefaultListModel;
+import javax.swing.ImageIcon;
 import javax.swing.JButton;
 import javax.swing.JComponent;
 import javax.swing.JDialog;
@@ -57,8 +55,6 @@ import javax.swing.event.DocumentListener;
 import javax.swing.text.BadLocationException;
 
 public class OpenTypeView {
-    protected static final int MAX_LINE_COUNT = 80;
-
     private final API api;
 
     private JDialog openTypeDialog;
@@ -156,6 +152,8 @@ public class OpenTypeView {
             });
             openTypeList.setModel(new DefaultListModel<OpenTypeListCellBean>());
             openTypeList.setCellRenderer(new OpenTypeListCellRenderer());
+            // Fixed cell size, so that only the visible rows are rendered
+            openTypeList.setPrototypeCellValue(new OpenTypeListCellBean("OpenTypeListCellBean", "org.jd.gui.view.bean", new ImageIcon(new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB)), null, null));
             openTypeList.addMouseListener(new MouseAdapter() {
                 @Override
                 public void mouseClicked(MouseEvent e) {
@@ -229,35 +227,20 @@ public class OpenTypeView {
         SwingUtil.invokeLater(() -> openTypeDialog.setCursor(Cursor.getDefaultCursor()));
     }
 
+    /**
+     * @param model list model built out of the event dispatch thread
+     */
     @SuppressWarnings("unchecked")
-    public void updateList(Map<String, Collection<Container.Entry>> map) {
+    public void updateList(OpenTypeListModel model) {
         SwingUtil.invokeLater(() -> {
-            @SuppressWarnings("all")
-            DefaultListModel model = (DefaultListModel)openTypeList.getModel();
-            List<String> typeNames = new ArrayList<>(map.keySet());
-            int index = 0;
-
-            typeNames.sort(Comparator.comparing(OpenTypeView::getSimpleTypeName));
-
-            model.removeAllElements();
-
-            for (String typeName : typeNames) {
-                if (index < MAX_LINE_COUNT) {
-                    Collection<Container.Entry> entries = map.get(typeName);
-                    Container.Entry firstEntry = entries.iterator().next();
-                    Type type = api.getTypeFactory(firstEntry).make(api, firstEntry, typeName);
-
-                    if (type != null) {
-                        model.addElement(new OpenTypeListCellBean(type.getDisplayTypeName(), type.getDisplayPackageName(), type.getIcon(), entries, typeName));
-                    } else {
-                        model.addElement(new OpenTypeListCellBean(typeName, entries, typeName));
-                    }
-                } else if (index == MAX_LINE_COUNT) {
-                    model.addElement(null);
-                }
+            if (openTypeList.getModel() instanceof OpenTypeListModel) {
+                // to convert to jdk16 pattern matching only when spotbugs #1617 and eclipse #577987 are solved
+                ((OpenTypeListModel)openTypeList.getModel()).dispose();
             }
 
-            int count = typeNames.size();
+            openTypeList.setModel(model);
+
+            int count = model.getMatchingTypeCount();
 
             switch (count) {
                 case 0:
@@ -280,7 +263,8 @@ public class OpenTypeView {
         SwingUtil.invokeLater(() -> {
             int index = openTypeList.getSelectedIndex();
 
-            if (index != -1) {
+            // The last row is empty when some types are not listed
+            if (index != -1 && openTypeList.getModel().getElementAt(index) != null) {
                 OpenTypeListCellBean selectedCellBean = (OpenTypeListCellBean)openTypeList.getModel().getElementAt(index);
                 Point listLocation = openTypeList.getLocationOnScreen();
                 Rectangle cellBound = openTypeList.getCellBounds(index, index);
@@ -290,7 +274,4 @@ public class OpenTypeView {
         });
     }
 
-    private static String getSimpleTypeName(String typeName) {
-        return typeName.substring(typeName.lastIndexOf('/') + 1);
-    }
 }
@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.view.component;
+
+import org.jd.core.v1.service.converter.classfiletojavasyntax.util.ExceptionUtil;
+import org.jd.gui.api.API;
+import org.jd.gui.api.model.Container;
+import org.jd.gui.api.model.Type;
+import org.jd.gui.spi.TypeFactory;
+import org.jd.gui.view.bean.OpenTypeListCellBean;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.swing.AbstractListModel;
+import javax.swing.SwingUtilities;
+
+/**
+ * Matching types of 'Open Type', limited to the first {@link #MAX_LINE_COUNT} simple names.<br>
+ * <br>
+ * The model is built out of the event dispatch thread: the first names are selected with a bounded heap, only
+ * them are sorted. Rows are resolved on first display: a row shows its type name until its type is made in the
+ * background, then its display name, package and icon.<br>
+ * <br>
+ * Types are made on a thread of their own, apart from the searches, the last displayed rows first. Only the
+ * last {@link #MAX_PENDING_ROW_COUNT} displayed rows are waiting: older rows were scrolled out and are requested
+ * again when displayed again.
+ */
+public class OpenTypeListModel extends AbstractListModel<OpenTypeListCellBean> {
+    public static final int MAX_LINE_COUNT = 1000;
+
+    protected static final int MAX_PENDING_ROW_COUNT = 100;
+
+    private static final long serialVersionUID = 1L;
+
+    protected static final Comparator<String> TYPE_NAME_COMPARATOR = Comparator.comparing(OpenTypeListModel::getSimpleTypeName).thenComparing(Comparator.naturalOrder());
+
+    // Makes the types of the displayed rows
+    private static final ExecutorService RESOLVER_EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "open-type-resolver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final transient API api;
+    private final transient Map<String, Collection<Container.Entry>> map;
+    private final String[] typeNames;
+    // Beans of the rows already displayed, accessed on the event dispatch thread only
+    private final OpenTypeListCellBean[] beans;
+    // Indexes of the displayed rows waiting for their types, the last displayed last
+    private final transient Deque<Integer> pendingIndexes = new ArrayDeque<>();
+    // True while a task of the resolver executor polls the pending rows, guarded by 'pendingIndexes'
+    private boolean resolving;
+    private volatile boolean disposed;
+
+    /**
+     * @param map matching type name to entries
+     */
+    public OpenTypeListModel(API api, Map<String, Collection<Container.Entry>> map) {
+        this.api = api;
+        this.map = map;
+        this.typeNames = selectTypeNames(map.keySet(), MAX_LINE_COUNT);
+        this.beans = new OpenTypeListCellBean[typeNames.length];
+    }
+
+    /**
+     * @return the 'count' first type names in the order of the simple names, sorted
+     */
+    protected static String[] selectTypeNames(Collection<String> typeNames, int count) {
+        PriorityQueue<String> queue = new PriorityQueue<>(Math.min(count, Math.max(1, typeNames.size())) + 1, TYPE_NAME_COMPARATOR.reversed());
+
+        for (String typeName : typeNames) {
+            if (queue.size() < count) {
+                queue.add(typeName);
+            } else if (TYPE_NAME_COMPARATOR.compare(typeName, queue.peek()) < 0) {
+                queue.poll();
+                queue.add(typeName);
+            }
+        }
+
+        String[] selection = queue.toArray(new String[queue.size()]);
+        Arrays.sort(selection, TYPE_NAME_COMPARATOR);
+        return selection;
+    }
+
+    protected static String getSimpleTypeName(String typeName) {
+        return typeName.substring(typeName.lastIndexOf('/') + 1);
+    }
+
+    public int getMatchingTypeCount() {
+        return map.size();
+    }
+
+    /**
+     * Stop making the types of the rows, once the model is replaced.
+     */
+    public void dispose() {
+        disposed = true;
+    }
+
+    @Override
+    public int getSize() {
+        // A last empty row shows that some types are not listed
+        return map.size() > typeNames.length ? typeNames.length + 1 : typeNames.length;
+    }
+
+    @Override
+    public OpenTypeListCellBean getElementAt(int index) {
+        if (index >= typeNames.length) {
+            return null;
+        }
+
+        OpenTypeListCellBean bean = beans[index];
+
+        if (bean == null) {
+            String typeName = typeNames[index];
+            Collection<Container.Entry> entries = map.get(typeName);
+            int lastPackageSeparatorIndex = typeName.lastIndexOf('/');
+
+            if (lastPackageSeparatorIndex == -1) {
+                bean = new OpenTypeListCellBean(typeName, entries, typeName);
+            } else {
+                String packageName = typeName.substring(0, lastPackageSeparatorIndex).replace('/', '.');
+                bean = new OpenTypeListCellBean(typeName.substring(lastPackageSeparatorIndex + 1), packageName, null, entries, typeName);
+            }
+
+            beans[index] = bean;
+            request(index);
+        }
+
+        return bean;
+    }
+
+    protected void request(int index) {
+        Integer droppedIndex = null;
+
+        synchronized (pendingIndexes) {
+            pendingIndexes.addLast(index);
+
+            if (pendingIndexes.size() > MAX_PENDING_ROW_COUNT) {
+                droppedIndex = pendingIndexes.pollFirst();
+            }
+            if (!resolving) {
+                resolving = true;
+                RESOLVER_EXECUTOR.execute(this::resolvePendingRows);
+            }
+        }
+
+        if (droppedIndex != null) {
+            // Scrolled out before its type was made: requested again on next display
+            beans[droppedIndex] = null;
+        }
+    }
+
+    protected void resolvePendingRows() {
+        while (!disposed) {
+            int index;
+
+            synchronized (pendingIndexes) {
+                Integer lastIndex = pendingIndexes.pollLast();
+
+                if (lastIndex == null) {
+                    resolving = false;
+                    return;
+                }
+
+                index = lastIndex;
+            }
+
+            resolve(index, typeNames[index], map.get(typeNames[index]));
+        }
+    }
+
+    protected void resolve(int index, String typeName, Collection<Container.Entry> entries) {
+        if (!disposed) {
+            try {
+                Container.Entry firstEntry = entries.iterator().next();
+                TypeFactory typeFactory = api.getTypeFactory(firstEntry);
+                Type type = typeFactory == null ? null : typeFactory.make(api, firstEntry, typeName);
+
+                if (type != null) {
+                    OpenTypeListCellBean bean = new OpenTypeListCellBean(type.getDisplayTypeName(), type.getDisplayPackageName(), type.getIcon(), entries, typeName);
+
+                    SwingUtilities.invokeLater(() -> {
+                        if (!disposed) {
+                            beans[index] = bean;
+                            fireContentsChanged(this, index, index);
+                        }
+                    });
+                }
+            } catch (Exception e) {
+                assert ExceptionUtil.printStackTrace(e);
+            }
+        }
+    }
+}
@@ -6,16 +6,14 @@ import org.jd.core.v1.util.StringConstants;
 import org.jd.core.v1.util.ZipLoader;
 import org.jd.gui.api.API;
 import org.jd.gui.util.ImageUtil;
-import org.jd.gui.util.loader.LoaderUtils;
+import org.jd.gui.util.decompiler.DecompilationCache;
 import org.jdesktop.swingx.JXTable;
 import org.jdesktop.swingx.decorator.HighlighterFactory;
 import org.netbeans.modules.editor.java.JavaKit;
 import org.oxbow.swingbits.list.CheckListRenderer;
 import org.oxbow.swingbits.table.filter.TableRowFilterSupport;
 
-import com.heliosdecompiler.transformerapi.StandardTransformers;
 import com.heliosdecompiler.transformerapi.TransformationException;
-import com.heliosdecompiler.transformerapi.common.Loader;
 
 import java.awt.BorderLayout;
 import java.awt.Color;
@@ -203,9 +201,8 @@ public class CompareWindow {
             try (FileInputStream in = new FileInputStream(file)) {
                 ZipLoader zipLoader = new ZipLoader(in);
                 String decompileEngine = preferences.getOrDefault(DECOMPILE_ENGINE, ENGINE_JD_CORE_V1);
-                Loader apiLoader = LoaderUtils.createLoader(preferences, zipLoader, file.toURI());
                 String entryInternalName = ClassUtil.getInternalName(entryPath);
-                DecompilationResult decompilationResult = StandardTransformers.decompile(apiLoader, entryInternalName, preferences, decompileEngine);
+                DecompilationResult decompilationResult = DecompilationCache.getInstance().decompile(preferences, zipLoader, file.toURI(), entryInternalName, decompileEngine);
                 return decompilationResult.getDecompiledOutput();
             }
         }
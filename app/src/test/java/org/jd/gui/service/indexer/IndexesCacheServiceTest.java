@@ -0,0 +1,219 @@
+package org.jd.gui.service.indexer;
+
+import org.jd.gui.api.API;
+import org.jd.gui.api.model.Container;
+import org.jd.gui.model.container.entry.path.SimpleEntryPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.jd.gui.util.decompiler.GuiPreferences.INDEXER_WORKER_COUNT_KEY;
+import static org.jd.gui.util.decompiler.GuiPreferences.INDEX_CACHE_MAX_SIZE_KEY;
+import static org.jd.gui.util.decompiler.GuiPreferences.MAXIMUM_DEPTH_KEY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class IndexesCacheServiceTest {
+
+    @TempDir
+    protected File directory;
+
+    protected File archiveFile;
+    protected TestEntry archive;
+    protected TestEntry classEntry;
+    protected TestEntry textEntry;
+    protected Map<String, String> preferences;
+    protected API api;
+    protected IndexesCacheService service;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        archiveFile = new File(directory, "test.jar");
+        Files.write(archiveFile.toPath(), "archive content".getBytes(StandardCharsets.UTF_8));
+
+        // test.jar, org/, org/A.class, readme.txt
+        TestContainer container = new TestContainer();
+        archive = new TestEntry(null, "test.jar", false, archiveFile.toURI());
+        container.root = new TestEntry(container, "", true, null);
+        container.root.parent = archive;
+
+        TestEntry packageEntry = new TestEntry(container, "org", true, null);
+        classEntry = new TestEntry(container, "org/A.class", false, null);
+        textEntry = new TestEntry(container, "readme.txt", false, null);
+
+        archive.add(packageEntry);
+        archive.add(textEntry);
+        packageEntry.add(classEntry);
+
+        preferences = new HashMap<>();
+        preferences.put(INDEX_CACHE_MAX_SIZE_KEY, "10");
+        preferences.put(MAXIMUM_DEPTH_KEY, "15");
+        preferences.put(INDEXER_WORKER_COUNT_KEY, "4");
+        api = (API) Proxy.newProxyInstance(API.class.getClassLoader(), new Class<?>[] { API.class },
+                (proxy, method, args) -> "getPreferences".equals(method.getName()) ? preferences : null);
+
+        service = new IndexesCacheService(new File(directory, "cache"));
+    }
+
+    @Test
+    @SuppressWarnings("rawtypes")
+    public void testStoreThenLoad() {
+        service.store(api, archive, createIndexes());
+
+        Map<String, Map<String, Collection>> map = service.load(api, archive);
+
+        assertNotNull(map);
+        assertEquals(3, map.size());
+        assertEquals(List.of(classEntry), List.copyOf(map.get("typeDeclarations").get("org/A")));
+        assertEquals(List.of(classEntry, textEntry), List.copyOf(map.get("strings").get("hello")));
+        assertEquals(List.of(classEntry, "getName", "()Ljava/lang/String;", "strings", "hello"), List.copyOf(map.get("memberConstants").get("org/A")));
+        assertSame(textEntry, map.get("strings").get("hello").toArray()[1]);
+        // The number of workers does not change the indexes
+        preferences.put(INDEXER_WORKER_COUNT_KEY, "1");
+        assertNotNull(service.load(api, archive));
+    }
+
+    @Test
+    public void testRejectSizeChange() throws IOException {
+        service.store(api, archive, createIndexes());
+        Files.write(archiveFile.toPath(), "longer archive content".getBytes(StandardCharsets.UTF_8));
+
+        assertNull(service.load(api, archive));
+        assertFalse(service.getCacheFile(archiveFile).exists());
+    }
+
+    @Test
+    public void testRejectTimeChange() throws IOException {
+        service.store(api, archive, createIndexes());
+        // Same size, other content and time
+        Files.write(archiveFile.toPath(), "ARCHIVE CONTENT".getBytes(StandardCharsets.UTF_8));
+        assertTrue(archiveFile.setLastModified(archiveFile.lastModified() + 10_000));
+
+        assertNull(service.load(api, archive));
+    }
+
+    @Test
+    public void testAcceptTouchedArchive() {
+        service.store(api, archive, createIndexes());
+        // Same content, other time: the SHA-1 still matches
+        assertTrue(archiveFile.setLastModified(archiveFile.lastModified() + 10_000));
+
+        assertNotNull(service.load(api, archive));
+    }
+
+    @Test
+    public void testRejectPreferenceChange() {
+        service.store(api, archive, createIndexes());
+        preferences.put(MAXIMUM_DEPTH_KEY, "5");
+
+        assertNull(service.load(api, archive));
+        assertFalse(service.getCacheFile(archiveFile).exists());
+    }
+
+    @Test
+    public void testRejectTruncatedFile() throws IOException {
+        service.store(api, archive, createIndexes());
+
+        File cacheFile = service.getCacheFile(archiveFile);
+
+        try (RandomAccessFile raf = new RandomAccessFile(cacheFile, "rw")) {
+            raf.setLength(raf.length() / 2);
+        }
+
+        assertNull(service.load(api, archive));
+        assertFalse(cacheFile.exists());
+    }
+
+    @Test
+    public void testRejectCorruptFile() throws IOException {
+        service.store(api, archive, createIndexes());
+
+        File cacheFile = service.getCacheFile(archiveFile);
+        byte[] bytes = Files.readAllBytes(cacheFile.toPath());
+
+        // Keep the GZIP header, scramble the compressed data
+        for (int i = 10; i < bytes.length; i++) {
+            bytes[i] ^= 0x5A;
+        }
+        Files.write(cacheFile.toPath(), bytes);
+
+        assertNull(service.load(api, archive));
+        assertFalse(cacheFile.exists());
+    }
+
+    @SuppressWarnings("rawtypes")
+    protected Map<String, Map<String, Collection>> createIndexes() {
+        Map<String, Map<String, Collection>> map = new HashMap<>();
+
+        map.put("typeDeclarations", Map.of("org/A", List.of(classEntry)));
+        map.put("strings", Map.of("hello", List.of(classEntry, textEntry)));
+        map.put("memberConstants", Map.of("org/A", List.of(classEntry, "getName", "()Ljava/lang/String;", "strings", "hello")));
+        return map;
+    }
+
+    protected static class TestContainer implements Container {
+        protected TestEntry root;
+
+        @Override
+        public String getType() { return "jar"; }
+        @Override
+        public Container.Entry getRoot() { return root; }
+    }
+
+    protected static class TestEntry implements Container.Entry {
+        protected final Container container;
+        protected final String path;
+        protected final boolean directory;
+        protected final URI uri;
+        protected Container.Entry parent;
+        protected final Map<Container.EntryPath, Container.Entry> children = new HashMap<>();
+
+        public TestEntry(Container container, String path, boolean directory, URI uri) {
+            this.container = container;
+            this.path = path;
+            this.directory = directory;
+            this.uri = uri;
+        }
+
+        public void add(TestEntry child) {
+            child.parent = this;
+            children.put(new SimpleEntryPath(child.path, child.directory), child);
+        }
+
+        @Override
+        public Container getContainer() { return container; }
+        @Override
+        public Container.Entry getParent() { return parent; }
+        @Override
+        public URI getUri() { return uri; }
+        @Override
+        public String getPath() { return path; }
+        @Override
+        public boolean isDirectory() { return directory; }
+        @Override
+        public long length() { return 0; }
+        @Override
+        public long compressedLength() { return 0; }
+        @Override
+        public InputStream getInputStream() { return null; }
+        @Override
+        public Map<Container.EntryPath, Container.Entry> getChildren() { return children; }
+    }
+}
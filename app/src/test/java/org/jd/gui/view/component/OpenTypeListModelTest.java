@@ -0,0 +1,62 @@
+package org.jd.gui.view.component;
+
+import org.jd.gui.api.model.Container;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class OpenTypeListModelTest {
+
+    @Test
+    public void testSelectTypeNames() {
+        List<String> typeNames = new ArrayList<>();
+
+        for (int i = 0; i < 500; i++) {
+            typeNames.add("org/jd/p" + (i % 7) + "/Type" + (1000 + i * 37 % 500));
+        }
+        typeNames.add("Default");
+        typeNames.add("org/jd/Type1000");
+        Collections.shuffle(typeNames, new Random(42));
+
+        List<String> expected = new ArrayList<>(typeNames);
+        expected.sort(OpenTypeListModel.TYPE_NAME_COMPARATOR);
+
+        // Sorted on simple names, then on type names
+        assertArrayEquals(expected.subList(0, 10).toArray(), OpenTypeListModel.selectTypeNames(typeNames, 10));
+        assertEquals("Default", OpenTypeListModel.selectTypeNames(typeNames, 10)[0]);
+        assertEquals("org/jd/Type1000", OpenTypeListModel.selectTypeNames(typeNames, 10)[1]);
+        assertEquals("org/jd/p0/Type1000", OpenTypeListModel.selectTypeNames(typeNames, 10)[2]);
+        assertArrayEquals(expected.toArray(), OpenTypeListModel.selectTypeNames(typeNames, 1000));
+        assertEquals(0, OpenTypeListModel.selectTypeNames(Collections.emptyList(), 10).length);
+    }
+
+    @Test
+    public void testTruncationRow() {
+        Map<String, Collection<Container.Entry>> map = new HashMap<>();
+
+        for (int i = 0; i < OpenTypeListModel.MAX_LINE_COUNT; i++) {
+            map.put("org/jd/Type" + i, Collections.emptyList());
+        }
+
+        OpenTypeListModel model = new OpenTypeListModel(null, map);
+        assertEquals(OpenTypeListModel.MAX_LINE_COUNT, model.getSize());
+
+        map.put("org/jd/Other", Collections.emptyList());
+        model = new OpenTypeListModel(null, map);
+
+        // A last empty row shows that some types are not listed
+        assertEquals(OpenTypeListModel.MAX_LINE_COUNT + 1, model.getSize());
+        assertEquals(OpenTypeListModel.MAX_LINE_COUNT + 1, model.getMatchingTypeCount());
+        assertNull(model.getElementAt(OpenTypeListModel.MAX_LINE_COUNT));
+    }
+}
@@ -92,6 +92,8 @@ public class GenericContainer implements Container, Closeable {
         private String strPath;
         private URI uri;
         private Boolean isDirectory;
+        // Written by the indexing workers, read by the other threads
+        private volatile long compressedLength;
         private Map<Container.EntryPath, Container.Entry> children;
 
         public Entry(Container.Entry parent, Path fsPath, URI uri) {
@@ -100,6 +102,7 @@ public class GenericContainer implements Container, Closeable {
             this.strPath = null;
             this.uri = uri;
             this.isDirectory = null;
+            this.compressedLength = -1L;
             this.children = null;
         }
 
@@ -165,11 +168,13 @@ public class GenericContainer implements Container, Closeable {
 
         @Override
         public long compressedLength() {
-            if (zipFile == null) {
-                return length();
+            long result = compressedLength;
+            if (result == -1L) {
+                // Computed once: looking up the zip entry is expensive, concurrent computations give the same value
+                ZipEntry zipEntry = zipFile == null ? null : zipFile.getEntry(getPath());
+                compressedLength = result = zipEntry == null ? length() : IndexesUtil.entryImpactBytes(zipEntry);
             }
-            ZipEntry zipEntry = zipFile.getEntry(strPath);
-            return IndexesUtil.entryImpactBytes(zipEntry);
+            return result;
         }
         
         @Override
@@ -8,18 +8,25 @@
 package org.jd.gui.service.indexer;
 
 import org.jd.core.v1.service.converter.classfiletojavasyntax.util.ExceptionUtil;
+import org.jd.gui.api.API;
 import org.jd.gui.api.model.Container;
 import org.jd.gui.api.model.Indexes;
 import org.jd.gui.spi.Indexer;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.DoubleSupplier;
 import java.util.regex.Pattern;
 
 public abstract class AbstractIndexerProvider implements Indexer {
@@ -91,4 +98,40 @@ public abstract class AbstractIndexerProvider implements Indexer {
             }
         }
     }
+
+    /**
+     * Index the children of a directory entry. Sub-directories are handed to
+     * 'directoryIndexer', files to their own indexer. When called from a
+     * fork-join worker, each child becomes a task so that the entry tree is
+     * split across the pool.
+     */
+    protected static void indexChildren(API api, Container.Entry entry, Indexes indexes, DoubleSupplier getProgressFunction, DoubleConsumer setProgressFunction, BooleanSupplier isCancelledFunction, Consumer<Container.Entry> directoryIndexer) {
+        Collection<Container.Entry> children = entry.getChildren().values();
+
+        if (ForkJoinTask.inForkJoinPool()) {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(children.size());
+
+            for (Container.Entry e : children) {
+                tasks.add(ForkJoinTask.adapt(() -> indexChild(api, e, indexes, getProgressFunction, setProgressFunction, isCancelledFunction, directoryIndexer)));
+            }
+
+            ForkJoinTask.invokeAll(tasks);
+        } else {
+            for (Container.Entry e : children) {
+                indexChild(api, e, indexes, getProgressFunction, setProgressFunction, isCancelledFunction, directoryIndexer);
+            }
+        }
+    }
+
+    private static void indexChild(API api, Container.Entry entry, Indexes indexes, DoubleSupplier getProgressFunction, DoubleConsumer setProgressFunction, BooleanSupplier isCancelledFunction, Consumer<Container.Entry> directoryIndexer) {
+        if (entry.isDirectory()) {
+            directoryIndexer.accept(entry);
+        } else {
+            Indexer indexer = api.getIndexer(entry);
+
+            if (indexer != null && !isCancelledFunction.getAsBoolean()) {
+                indexer.index(api, entry, indexes, getProgressFunction, setProgressFunction, isCancelledFunction);
+            }
+        }
+    }
 }
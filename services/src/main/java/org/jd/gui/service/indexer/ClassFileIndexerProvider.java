@@ -13,6 +13,7 @@ import org.jd.gui.api.API;
 import org.jd.gui.api.model.Container;
 import org.jd.gui.api.model.Indexes;
 import org.jd.gui.util.ProgressUtil;
+import org.jd.gui.util.index.MemberConstantReader;
 import org.objectweb.asm.AnnotationVisitor;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.ClassVisitor;
@@ -24,9 +25,14 @@ import org.objectweb.asm.signature.SignatureReader;
 import org.objectweb.asm.signature.SignatureVisitor;
 
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.BooleanSupplier;
@@ -40,28 +46,15 @@ import static org.apache.bcel.Const.CONSTANT_InterfaceMethodref;
 import static org.apache.bcel.Const.CONSTANT_Methodref;
 import static org.apache.bcel.Const.CONSTANT_NameAndType;
 import static org.apache.bcel.Const.CONSTANT_String;
-import static org.objectweb.asm.ClassReader.SKIP_CODE;
 import static org.objectweb.asm.ClassReader.SKIP_DEBUG;
 import static org.objectweb.asm.ClassReader.SKIP_FRAMES;
 
 /**
- * Unsafe thread implementation of class file indexer.
+ * Thread safe implementation of class file indexer: each worker thread owns its
+ * sets and visitors, so that entries can be indexed in parallel.
  */
 public class ClassFileIndexerProvider extends AbstractIndexerProvider {
-    protected Set<String> typeDeclarationSet = new HashSet<>();
-    protected Set<String> constructorDeclarationSet = new HashSet<>();
-    protected Set<String> methodDeclarationSet = new HashSet<>();
-    protected Set<String> fieldDeclarationSet = new HashSet<>();
-    protected Set<String> typeReferenceSet = new HashSet<>();
-    protected Set<String> constructorReferenceSet = new HashSet<>();
-    protected Set<String> methodReferenceSet = new HashSet<>();
-    protected Set<String> fieldReferenceSet = new HashSet<>();
-    protected Set<String> stringSet = new HashSet<>();
-    protected Set<String> superTypeNameSet = new HashSet<>();
-    protected Set<String> descriptorSet = new HashSet<>();
-
-    protected ClassIndexer classIndexer = new ClassIndexer();
-    protected SignatureIndexer signatureIndexer = new SignatureIndexer();
+    protected final ThreadLocal<ClassFileIndexer> classFileIndexers = ThreadLocal.withInitial(ClassFileIndexer::new);
 
     @Override
     public String[] getSelectors() {
@@ -76,247 +69,380 @@ public class ClassFileIndexerProvider extends AbstractIndexerProvider {
         return externalPathPattern;
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public void index(API api, Container.Entry entry, Indexes indexes, DoubleSupplier getProgressFunction, DoubleConsumer setProgressFunction, BooleanSupplier isCancelledFunction) {
-        // Cleaning sets...
-        typeDeclarationSet.clear();
-        constructorDeclarationSet.clear();
-        methodDeclarationSet.clear();
-        fieldDeclarationSet.clear();
-        typeReferenceSet.clear();
-        constructorReferenceSet.clear();
-        methodReferenceSet.clear();
-        fieldReferenceSet.clear();
-        stringSet.clear();
-        superTypeNameSet.clear();
-        descriptorSet.clear();
-
-        try (InputStream inputStream = entry.getInputStream()) {
-            // Index field, method, interfaces & super type
-            ClassReader classReader = new ClassReader(inputStream);
-            classReader.accept(classIndexer, SKIP_CODE | SKIP_DEBUG | SKIP_FRAMES);
-
-            // Index descriptors
-            for (String descriptor : descriptorSet) {
-                new SignatureReader(descriptor).accept(signatureIndexer);
-            }
+        classFileIndexers.get().index(entry, indexes, getProgressFunction, setProgressFunction);
+    }
 
-            // Index references
-            char[] buffer = new char[classReader.getMaxStringLength()];
+    /**
+     * Unsafe thread indexer state, one instance per worker thread.
+     */
+    protected static class ClassFileIndexer {
+        protected Set<String> typeDeclarationSet = new HashSet<>();
+        protected Set<String> constructorDeclarationSet = new HashSet<>();
+        protected Set<String> methodDeclarationSet = new HashSet<>();
+        protected Set<String> fieldDeclarationSet = new HashSet<>();
+        protected Set<String> typeReferenceSet = new HashSet<>();
+        protected Set<String> constructorReferenceSet = new HashSet<>();
+        protected Set<String> methodReferenceSet = new HashSet<>();
+        protected Set<String> fieldReferenceSet = new HashSet<>();
+        protected Set<String> stringSet = new HashSet<>();
+        protected Set<String> superTypeNameSet = new HashSet<>();
+        protected Set<String> descriptorSet = new HashSet<>();
+        protected Map<String, Set<String>> memberDeclarationMap = new HashMap<>();
+        // [member name, member descriptor, index name] : [constant]
+        protected Map<List<String>, Set<String>> memberConstantMap = new LinkedHashMap<>();
+
+        protected MemberConstantReader memberConstantReader = new MemberConstantReader((indexName, memberName, memberDescriptor, constant) ->
+            memberConstantMap.computeIfAbsent(List.of(memberName, memberDescriptor, indexName), k -> new LinkedHashSet<>()).add(constant));
+        protected ClassIndexer classIndexer = new ClassIndexer(memberConstantReader);
+        protected SignatureIndexer signatureIndexer = new SignatureIndexer();
+
+        @SuppressWarnings("unchecked")
+        public void index(Container.Entry entry, Indexes indexes, DoubleSupplier getProgressFunction, DoubleConsumer setProgressFunction) {
+            // Cleaning sets...
+            typeDeclarationSet.clear();
+            constructorDeclarationSet.clear();
+            methodDeclarationSet.clear();
+            fieldDeclarationSet.clear();
+            typeReferenceSet.clear();
+            constructorReferenceSet.clear();
+            methodReferenceSet.clear();
+            fieldReferenceSet.clear();
+            stringSet.clear();
+            superTypeNameSet.clear();
+            descriptorSet.clear();
+            memberDeclarationMap.clear();
+            memberConstantMap.clear();
+
+            try (InputStream inputStream = entry.getInputStream()) {
+                // Index field, method, interfaces, super type & constants of each member
+                ClassReader classReader = new ClassReader(inputStream);
+                classReader.accept(classIndexer, SKIP_DEBUG | SKIP_FRAMES);
+
+                // Index descriptors
+                for (String descriptor : descriptorSet) {
+                    new SignatureReader(descriptor).accept(signatureIndexer);
+                }
 
-            for (int i = classReader.getItemCount() - 1; i > 0; i--) {
-                int startIndex = classReader.getItem(i);
+                // Index references
+                char[] buffer = new char[classReader.getMaxStringLength()];
 
-                if (startIndex != 0) {
-                    int tag = classReader.readByte(startIndex - 1);
+                for (int i = classReader.getItemCount() - 1; i > 0; i--) {
+                    int startIndex = classReader.getItem(i);
 
-                    switch (tag) {
-                    case CONSTANT_Class:
-                        String className = classReader.readUTF8(startIndex, buffer);
-                        if (className.startsWith("[")) {
-                            new SignatureReader(className).acceptType(signatureIndexer);
-                        } else {
-                            typeReferenceSet.add(className);
-                        }
-                        break;
-                    case CONSTANT_String:
-                        String str = classReader.readUTF8(startIndex, buffer);
-                        stringSet.add(str);
-                        break;
-                    case CONSTANT_Fieldref:
-                        int nameAndTypeItem = classReader.readUnsignedShort(startIndex + 2);
-                        int nameAndTypeIndex = classReader.getItem(nameAndTypeItem);
-                        tag = classReader.readByte(nameAndTypeIndex - 1);
-                        if (tag == CONSTANT_NameAndType) {
-                            String fieldName = classReader.readUTF8(nameAndTypeIndex, buffer);
-                            fieldReferenceSet.add(fieldName);
-                        }
-                        break;
-                    case CONSTANT_Methodref, CONSTANT_InterfaceMethodref:
-                        nameAndTypeItem = classReader.readUnsignedShort(startIndex + 2);
-                        nameAndTypeIndex = classReader.getItem(nameAndTypeItem);
-                        tag = classReader.readByte(nameAndTypeIndex - 1);
-                        if (tag == CONSTANT_NameAndType) {
-                            String methodName = classReader.readUTF8(nameAndTypeIndex, buffer);
-                            if (StringConstants.INSTANCE_CONSTRUCTOR.equals(methodName)) {
-                                int classItem = classReader.readUnsignedShort(startIndex);
-                                int classIndex = classReader.getItem(classItem);
-                                className = classReader.readUTF8(classIndex, buffer);
-                                constructorReferenceSet.add(className);
+                    if (startIndex != 0) {
+                        int tag = classReader.readByte(startIndex - 1);
+
+                        switch (tag) {
+                        case CONSTANT_Class:
+                            String className = classReader.readUTF8(startIndex, buffer);
+                            if (className.startsWith("[")) {
+                                new SignatureReader(className).acceptType(signatureIndexer);
                             } else {
-                                methodReferenceSet.add(methodName);
+                                typeReferenceSet.add(className);
+                            }
+                            break;
+                        case CONSTANT_String:
+                            String str = classReader.readUTF8(startIndex, buffer);
+                            stringSet.add(str);
+                            break;
+                        case CONSTANT_Fieldref:
+                            int nameAndTypeItem = classReader.readUnsignedShort(startIndex + 2);
+                            int nameAndTypeIndex = classReader.getItem(nameAndTypeItem);
+                            tag = classReader.readByte(nameAndTypeIndex - 1);
+                            if (tag == CONSTANT_NameAndType) {
+                                String fieldName = classReader.readUTF8(nameAndTypeIndex, buffer);
+                                fieldReferenceSet.add(fieldName);
+                            }
+                            break;
+                        case CONSTANT_Methodref, CONSTANT_InterfaceMethodref:
+                            nameAndTypeItem = classReader.readUnsignedShort(startIndex + 2);
+                            nameAndTypeIndex = classReader.getItem(nameAndTypeItem);
+                            tag = classReader.readByte(nameAndTypeIndex - 1);
+                            if (tag == CONSTANT_NameAndType) {
+                                String methodName = classReader.readUTF8(nameAndTypeIndex, buffer);
+                                if (StringConstants.INSTANCE_CONSTRUCTOR.equals(methodName)) {
+                                    int classItem = classReader.readUnsignedShort(startIndex);
+                                    int classIndex = classReader.getItem(classItem);
+                                    className = classReader.readUTF8(classIndex, buffer);
+                                    constructorReferenceSet.add(className);
+                                } else {
+                                    methodReferenceSet.add(methodName);
+                                }
                             }
+                            break;
                         }
-                        break;
                     }
                 }
-            }
 
-            String typeName = classIndexer.name;
-
-            // Append sets to indexes
-            addToIndexes(indexes, "typeDeclarations", typeDeclarationSet, entry);
-            addToIndexes(indexes, "constructorDeclarations", constructorDeclarationSet, entry);
-            addToIndexes(indexes, "methodDeclarations", methodDeclarationSet, entry);
-            addToIndexes(indexes, "fieldDeclarations", fieldDeclarationSet, entry);
-            addToIndexes(indexes, "typeReferences", typeReferenceSet, entry);
-            addToIndexes(indexes, "constructorReferences", constructorReferenceSet, entry);
-            addToIndexes(indexes, "methodReferences", methodReferenceSet, entry);
-            addToIndexes(indexes, "fieldReferences", fieldReferenceSet, entry);
-            addToIndexes(indexes, "strings", stringSet, entry);
-
-            // Populate map [super type name : [sub type name]]
-            if (!superTypeNameSet.isEmpty()) {
+                String typeName = classIndexer.name;
+
+                // Append sets to indexes
+                addToIndexes(indexes, "typeDeclarations", typeDeclarationSet, entry);
+                addToIndexes(indexes, "constructorDeclarations", constructorDeclarationSet, entry);
+                addToIndexes(indexes, "methodDeclarations", methodDeclarationSet, entry);
+                addToIndexes(indexes, "fieldDeclarations", fieldDeclarationSet, entry);
+                addToIndexes(indexes, "typeReferences", typeReferenceSet, entry);
+                addToIndexes(indexes, "constructorReferences", constructorReferenceSet, entry);
+                addToIndexes(indexes, "methodReferences", methodReferenceSet, entry);
+                addToIndexes(indexes, "fieldReferences", fieldReferenceSet, entry);
+                addToIndexes(indexes, "strings", stringSet, entry);
+
+                // Populate map [super type name : [sub type name]]
+                if (!superTypeNameSet.isEmpty()) {
+                    @SuppressWarnings("rawtypes")
+                    Map<String, Collection> index = indexes.getIndex("subTypeNames");
+
+                    for (String superTypeName : superTypeNameSet) {
+                        index.get(superTypeName).add(typeName);
+                    }
+                }
+
+                // Populate map [type name : [super class name]], empty for types without super class
                 @SuppressWarnings("rawtypes")
-                Map<String, Collection> index = indexes.getIndex("subTypeNames");
+                Collection superClassNames = indexes.getIndex("superClassNames").get(typeName);
 
-                for (String superTypeName : superTypeNameSet) {
-                    index.get(superTypeName).add(typeName);
+                if (classIndexer.superName != null) {
+                    superClassNames.add(classIndexer.superName);
                 }
-            }
-            
-            ProgressUtil.updateProgress(entry, getProgressFunction, setProgressFunction);
 
-        } catch (Exception e) {
-            assert ExceptionUtil.printStackTrace(e);
-        }
-    }
+                // Populate map [type name : [access flags]]
+                indexes.getIndex("typeAccessFlags").get(typeName).add(String.valueOf(classIndexer.access));
 
-    protected class ClassIndexer extends ClassVisitor {
-        private AnnotationIndexer annotationIndexer = new AnnotationIndexer();
-        private FieldIndexer fieldIndexer = new FieldIndexer(annotationIndexer);
-        private MethodIndexer methodIndexer = new MethodIndexer(annotationIndexer);
+                // Populate map [inner type name : [outer type name]]
+                if (classIndexer.outerName != null) {
+                    indexes.getIndex("outerTypeNames").get(typeName).add(classIndexer.outerName);
+                }
+
+                // Populate map [type name '.' member name : [descriptor]]
+                if (!memberDeclarationMap.isEmpty()) {
+                    @SuppressWarnings("rawtypes")
+                    Map<String, Collection> index = indexes.getIndex("memberDeclarations");
 
-        private String name;
+                    for (Map.Entry<String, Set<String>> mapEntry : memberDeclarationMap.entrySet()) {
+                        index.get(mapEntry.getKey()).addAll(mapEntry.getValue());
+                    }
+                }
 
-        public ClassIndexer() {
-            super(Opcodes.ASM9);
+                // Populate map [type name : [entry, member name, member descriptor, index name, constant...]...]
+                if (!memberConstantMap.isEmpty()) {
+                    List<Object> memberConstants = new ArrayList<>();
+
+                    for (Map.Entry<List<String>, Set<String>> mapEntry : memberConstantMap.entrySet()) {
+                        memberConstants.add(entry);
+                        memberConstants.addAll(mapEntry.getKey());
+                        memberConstants.addAll(mapEntry.getValue());
+                    }
+
+                    // Single call: the groups of concurrent workers do not interleave
+                    indexes.getIndex("memberConstants").get(typeName).addAll(memberConstants);
+                }
+
+                ProgressUtil.updateProgress(entry, getProgressFunction, setProgressFunction);
+
+            } catch (Exception e) {
+                assert ExceptionUtil.printStackTrace(e);
+            }
         }
 
-        @Override
-        public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
-            this.name = name;
-            typeDeclarationSet.add(name);
+        /**
+         * Visitors chained to the visitors of a {@link MemberConstantReader}.
+         */
+        protected class ClassIndexer extends ClassVisitor {
+            private AnnotationIndexer annotationIndexer;
+            private FieldIndexer fieldIndexer;
+            private MethodIndexer methodIndexer;
+
+            private String name;
+            private int access;
+            private String superName;
+            private String outerName;
+
+            public ClassIndexer(MemberConstantReader memberConstantReader) {
+                super(Opcodes.ASM9, memberConstantReader.getClassVisitor());
+                this.annotationIndexer = new AnnotationIndexer(memberConstantReader.getAnnotationVisitor());
+                this.fieldIndexer = new FieldIndexer(annotationIndexer, memberConstantReader.getFieldVisitor());
+                this.methodIndexer = new MethodIndexer(annotationIndexer, memberConstantReader.getMethodVisitor());
+            }
+
+            @Override
+            public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+                super.visit(version, access, name, signature, superName, interfaces);
+                this.name = name;
+                this.access = access;
+                this.superName = superName;
+                this.outerName = null;
+                typeDeclarationSet.add(name);
+
+                if (superName != null) {
+                    superTypeNameSet.add(superName);
+                }
 
-            if (superName != null) {
-                superTypeNameSet.add(superName);
+                if (interfaces != null) {
+                    Collections.addAll(superTypeNameSet, interfaces);
+                }
             }
 
-            if (interfaces != null) {
-                Collections.addAll(superTypeNameSet, interfaces);
+            @Override
+            public void visitOuterClass(String owner, String name, String descriptor) {
+                // Local or anonymous class
+                this.outerName = owner;
             }
-        }
 
-        @Override
-        public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
-            descriptorSet.add(desc);
-            return annotationIndexer;
-        }
+            @Override
+            public void visitInnerClass(String name, String outerName, String innerName, int access) {
+                if (this.name.equals(name)) {
+                    // Flags of the declaration: private, protected, static...
+                    this.access = access;
 
-        @Override
-        public AnnotationVisitor visitTypeAnnotation(int typeRef, TypePath typePath, String desc, boolean visible) {
-            descriptorSet.add(desc);
-            return annotationIndexer;
-        }
+                    if (outerName != null) {
+                        // Member class
+                        this.outerName = outerName;
+                    }
+                }
+            }
 
-        @Override
-        public FieldVisitor visitField(int access, String name, String desc, String signature, Object value) {
-            fieldDeclarationSet.add(name);
-            descriptorSet.add(signature == null ? desc : signature);
-            return fieldIndexer;
-        }
+            @Override
+            public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+                super.visitAnnotation(desc, visible);
+                descriptorSet.add(desc);
+                return annotationIndexer;
+            }
 
-        @Override
-        public MethodVisitor visitMethod(int access, String name, String desc, String signature, String[] exceptions) {
-            if (StringConstants.INSTANCE_CONSTRUCTOR.equals(name)) {
-                constructorDeclarationSet.add(this.name);
-            } else if (!"<clinit>".equals(name)) {
-                methodDeclarationSet.add(name);
+            @Override
+            public AnnotationVisitor visitTypeAnnotation(int typeRef, TypePath typePath, String desc, boolean visible) {
+                super.visitTypeAnnotation(typeRef, typePath, desc, visible);
+                descriptorSet.add(desc);
+                return annotationIndexer;
             }
 
-            descriptorSet.add(signature == null ? desc : signature);
+            @Override
+            public FieldVisitor visitField(int access, String name, String desc, String signature, Object value) {
+                super.visitField(access, name, desc, signature, value);
+                fieldDeclarationSet.add(name);
+                descriptorSet.add(signature == null ? desc : signature);
 
-            if (exceptions != null) {
-                Collections.addAll(typeReferenceSet, exceptions);
+                if ((access & (Opcodes.ACC_SYNTHETIC|Opcodes.ACC_ENUM)) == 0) {
+                    addMemberDeclaration(name, desc);
+                }
+                return fieldIndexer;
             }
-            return methodIndexer;
-        }
-    }
 
-    protected class SignatureIndexer extends SignatureVisitor {
-        SignatureIndexer() {
-            super(Opcodes.ASM9);
-        }
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String desc, String signature, String[] exceptions) {
+                super.visitMethod(access, name, desc, signature, exceptions);
+                if (StringConstants.INSTANCE_CONSTRUCTOR.equals(name)) {
+                    constructorDeclarationSet.add(this.name);
+                } else if (!"<clinit>".equals(name)) {
+                    methodDeclarationSet.add(name);
+                }
 
-        @Override
-        public void visitClassType(String name) {
-            typeReferenceSet.add(name);
-        }
-    }
+                descriptorSet.add(signature == null ? desc : signature);
 
-    protected class AnnotationIndexer extends AnnotationVisitor {
-        public AnnotationIndexer() {
-            super(Opcodes.ASM9);
-        }
+                if (exceptions != null) {
+                    Collections.addAll(typeReferenceSet, exceptions);
+                }
 
-        @Override
-        public void visitEnum(String name, String desc, String value) {
-            descriptorSet.add(desc);
-        }
+                if ((access & (Opcodes.ACC_SYNTHETIC|Opcodes.ACC_BRIDGE)) == 0) {
+                    addMemberDeclaration(name, desc);
+                }
+                return methodIndexer;
+            }
 
-        @Override
-        public AnnotationVisitor visitAnnotation(String name, String desc) {
-            descriptorSet.add(desc);
-            return this;
+            /**
+             * Same members as the types made by ClassFileTypeFactoryProvider, to resolve references without
+             * parsing the class file.
+             */
+            protected void addMemberDeclaration(String memberName, String desc) {
+                memberDeclarationMap.computeIfAbsent(this.name + '.' + memberName, k -> new HashSet<>()).add(desc);
+            }
         }
-    }
 
-    protected class FieldIndexer extends FieldVisitor {
-        private AnnotationIndexer annotationIndexer;
+        protected class SignatureIndexer extends SignatureVisitor {
+            SignatureIndexer() {
+                super(Opcodes.ASM9);
+            }
 
-        public FieldIndexer(AnnotationIndexer annotationIndexer) {
-            super(Opcodes.ASM9);
-            this.annotationIndexer = annotationIndexer;
+            @Override
+            public void visitClassType(String name) {
+                typeReferenceSet.add(name);
+            }
         }
 
-        @Override
-        public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
-            descriptorSet.add(desc);
-            return annotationIndexer;
-        }
+        protected class AnnotationIndexer extends AnnotationVisitor {
+            public AnnotationIndexer(AnnotationVisitor annotationVisitor) {
+                super(Opcodes.ASM9, annotationVisitor);
+            }
+
+            @Override
+            public void visitEnum(String name, String desc, String value) {
+                super.visitEnum(name, desc, value);
+                descriptorSet.add(desc);
+            }
 
-        @Override
-        public AnnotationVisitor visitTypeAnnotation(int typeRef, TypePath typePath, String desc, boolean visible) {
-            descriptorSet.add(desc);
-            return annotationIndexer;
+            @Override
+            public AnnotationVisitor visitAnnotation(String name, String desc) {
+                super.visitAnnotation(name, desc);
+                descriptorSet.add(desc);
+                return this;
+            }
         }
-    }
 
-    protected class MethodIndexer extends MethodVisitor {
-        private AnnotationIndexer annotationIndexer;
+        protected class FieldIndexer extends FieldVisitor {
+            private AnnotationIndexer annotationIndexer;
 
-        public MethodIndexer(AnnotationIndexer annotationIndexer) {
-            super(Opcodes.ASM9);
-            this.annotationIndexer = annotationIndexer;
-        }
+            public FieldIndexer(AnnotationIndexer annotationIndexer, FieldVisitor fieldVisitor) {
+                super(Opcodes.ASM9, fieldVisitor);
+                this.annotationIndexer = annotationIndexer;
+            }
 
-        @Override
-        public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
-            descriptorSet.add(desc);
-            return annotationIndexer;
-        }
+            @Override
+            public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+                super.visitAnnotation(desc, visible);
+                descriptorSet.add(desc);
+                return annotationIndexer;
+            }
 
-        @Override
-        public AnnotationVisitor visitTypeAnnotation(int typeRef, TypePath typePath, String desc, boolean visible) {
-            descriptorSet.add(desc);
-            return annotationIndexer;
+            @Override
+            public AnnotationVisitor visitTypeAnnotation(int typeRef, TypePath typePath, String desc, boolean visible) {
+                super.visitTypeAnnotation(typeRef, typePath, desc, visible);
+                descriptorSet.add(desc);
+                return annotationIndexer;
+            }
         }
 
-        @Override
-        public AnnotationVisitor visitParameterAnnotation(int parameter, String desc, boolean visible) {
-            descriptorSet.add(desc);
-            return annotationIndexer;
+        /**
+         * Method code is visited by the {@link MemberConstantReader} only.
+         */
+        protected class MethodIndexer extends MethodVisitor {
+            private AnnotationIndexer annotationIndexer;
+
+            public MethodIndexer(AnnotationIndexer annotationIndexer, MethodVisitor methodVisitor) {
+                super(Opcodes.ASM9, methodVisitor);
+                this.annotationIndexer = annotationIndexer;
+            }
+
+            @Override
+            public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+                super.visitAnnotation(desc, visible);
+                descriptorSet.add(desc);
+                return annotationIndexer;
+            }
+
+            @Override
+            public AnnotationVisitor visitTypeAnnotation(int typeRef, TypePath typePath, String desc, boolean visible) {
+                super.visitTypeAnnotation(typeRef, typePath, desc, visible);
+                descriptorSet.add(desc);
+                return annotationIndexer;
+            }
+
+            @Override
+            public AnnotationVisitor visitParameterAnnotation(int parameter, String desc, boolean visible) {
+                super.visitParameterAnnotation(parameter, desc, visible);
+                descriptorSet.add(desc);
+                return annotationIndexer;
+            }
         }
     }
 }
@@ -11,7 +11,6 @@ import org.jd.core.v1.service.converter.classfiletojavasyntax.util.ExceptionUtil
 import org.jd.gui.api.API;
 import org.jd.gui.api.model.Container;
 import org.jd.gui.api.model.Indexes;
-import org.jd.gui.spi.Indexer;
 import org.jd.gui.util.decompiler.GuiPreferences;
 
 import java.util.function.BooleanSupplier;
@@ -37,18 +36,11 @@ public class DirectoryIndexerProvider extends AbstractIndexerProvider {
     }
 
     public void index(API api, Container.Entry entry, Indexes indexes, DoubleSupplier getProgressFunction, DoubleConsumer setProgressFunction, BooleanSupplier isCancelledFunction, int depth) {
-        if (depth-- > 0) {
-            for (Container.Entry e : entry.getChildren().values()) {
-                if (e.isDirectory()) {
-                    index(api, e, indexes, getProgressFunction, setProgressFunction, isCancelledFunction, depth);
-                } else {
-                    Indexer indexer = api.getIndexer(e);
-
-                    if (indexer != null) {
-                        indexer.index(api, e, indexes, getProgressFunction, setProgressFunction, isCancelledFunction);
-                    }
-                }
-            }
+        if (depth > 0) {
+            int childDepth = depth - 1;
+
+            indexChildren(api, entry, indexes, getProgressFunction, setProgressFunction, isCancelledFunction,
+                    e -> index(api, e, indexes, getProgressFunction, setProgressFunction, isCancelledFunction, childDepth));
         }
     }
 }
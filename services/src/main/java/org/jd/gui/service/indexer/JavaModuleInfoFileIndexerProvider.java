@@ -29,7 +29,8 @@ import static org.objectweb.asm.ClassReader.SKIP_DEBUG;
 import static org.objectweb.asm.ClassReader.SKIP_FRAMES;
 
 /**
- * Unsafe thread implementation of class file indexer.
+ * Unsafe thread implementation of class file indexer, serialized by a lock
+ * when entries are indexed in parallel.
  */
 public class JavaModuleInfoFileIndexerProvider extends AbstractIndexerProvider {
     protected Set<String> javaModuleDeclarationSet = new HashSet<>();
@@ -42,7 +43,7 @@ public class JavaModuleInfoFileIndexerProvider extends AbstractIndexerProvider {
     public String[] getSelectors() { return appendSelectors("jmod:file:classes/module-info.class"); }
 
     @Override
-    public void index(API api, Container.Entry entry, Indexes indexes, DoubleSupplier getProgressFunction, DoubleConsumer setProgressFunction, BooleanSupplier isCancelledFunction) {
+    public synchronized void index(API api, Container.Entry entry, Indexes indexes, DoubleSupplier getProgressFunction, DoubleConsumer setProgressFunction, BooleanSupplier isCancelledFunction) {
         // Cleaning sets...
         javaModuleDeclarationSet.clear();
         javaModuleReferenceSet.clear();
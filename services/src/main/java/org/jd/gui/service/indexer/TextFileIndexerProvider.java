@@ -12,10 +12,16 @@ import org.jd.gui.api.API;
 import org.jd.gui.api.model.Container;
 import org.jd.gui.api.model.Indexes;
 import org.jd.gui.util.ProgressUtil;
+import org.jd.gui.util.index.TextTokenizer;
 import org.jd.gui.util.io.TextReader;
 
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.function.BooleanSupplier;
 import java.util.function.DoubleConsumer;
 import java.util.function.DoubleSupplier;
@@ -28,11 +34,47 @@ public class TextFileIndexerProvider extends AbstractIndexerProvider {
                 "*:file:*.xsd", "*:file:*.properties", "*:file:*.props", "*:file:*.sql", "*:file:*.yaml", "*:file:*.yml", "*:file:*.json");
     }
 
-    @SuppressWarnings("unchecked")
+    /**
+     * Index the distinct tokens of the text and the numbers of their lines, the content itself is not kept.
+     * Patterns spanning a separator are verified with the lines of their tokens. On open, pages highlight and
+     * scroll to the first occurrence of the searched pattern on the matching line.
+     */
     @Override
+    @SuppressWarnings({ "rawtypes", "unchecked" })
     public void index(API api, Container.Entry entry, Indexes indexes, DoubleSupplier getProgressFunction, DoubleConsumer setProgressFunction, BooleanSupplier isCancelledFunction) {
-        try (InputStream inputStream = entry.getInputStream()) {
-            indexes.getIndex("strings").get(TextReader.getText(inputStream)).add(entry);
+        // Token -> entry, then the distinct numbers of the lines containing the token
+        Map<String, List<Object>> tokenLines = new LinkedHashMap<>();
+        List<String> lineNumbers = new ArrayList<>();
+
+        try (Reader reader = TextReader.getReader(entry.getInputStream())) {
+            TextTokenizer.tokenizeLines(reader, (token, lineNumber) -> {
+                while (lineNumbers.size() < lineNumber) {
+                    lineNumbers.add(String.valueOf(lineNumbers.size() + 1));
+                }
+
+                List<Object> group = tokenLines.computeIfAbsent(token, k -> new ArrayList<>(List.of(entry)));
+                String line = lineNumbers.get(lineNumber - 1);
+
+                if (!line.equals(group.get(group.size() - 1))) {
+                    group.add(line);
+                }
+            });
+        } catch (IOException e) {
+            assert ExceptionUtil.printStackTrace(e);
+        }
+
+        addToIndexes(indexes, "strings", tokenLines.keySet(), entry);
+
+        if (!tokenLines.isEmpty()) {
+            Map<String, Collection> index = indexes.getIndex("textTokenLines");
+
+            for (Map.Entry<String, List<Object>> tokenLine : tokenLines.entrySet()) {
+                // Single call: the groups of concurrent workers do not interleave
+                index.get(tokenLine.getKey()).addAll(tokenLine.getValue());
+            }
+        }
+
+        try {
             ProgressUtil.updateProgress(entry, getProgressFunction, setProgressFunction);
         } catch (IOException e) {
             assert ExceptionUtil.printStackTrace(e);
@@ -10,7 +10,6 @@ package org.jd.gui.service.indexer;
 import org.jd.gui.api.API;
 import org.jd.gui.api.model.Container;
 import org.jd.gui.api.model.Indexes;
-import org.jd.gui.spi.Indexer;
 
 import java.util.function.BooleanSupplier;
 import java.util.function.DoubleConsumer;
@@ -23,16 +22,7 @@ public class ZipFileIndexerProvider extends AbstractIndexerProvider {
 
     @Override
     public void index(API api, Container.Entry entry, Indexes indexes, DoubleSupplier getProgressFunction, DoubleConsumer setProgressFunction, BooleanSupplier isCancelledFunction) {
-        for (Container.Entry e : entry.getChildren().values()) {
-            if (e.isDirectory()) {
-                index(api, e, indexes, getProgressFunction, setProgressFunction, isCancelledFunction);
-            } else {
-                Indexer indexer = api.getIndexer(e);
-
-                if (indexer != null && !isCancelledFunction.getAsBoolean()) {
-                    indexer.index(api, e, indexes, getProgressFunction, setProgressFunction, isCancelledFunction);
-                }
-            }
-        }
+        indexChildren(api, entry, indexes, getProgressFunction, setProgressFunction, isCancelledFunction,
+                e -> index(api, e, indexes, getProgressFunction, setProgressFunction, isCancelledFunction));
     }
 }
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.service.preferencespanel;
+
+import org.jd.core.v1.service.converter.classfiletojavasyntax.util.ExceptionUtil;
+import org.jd.gui.spi.PreferencesPanel;
+
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.util.Map;
+
+import javax.swing.JComponent;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JTextField;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+
+import static org.jd.gui.util.decompiler.GuiPreferences.INDEX_CACHE_MAX_SIZE_KEY;
+
+public class IndexCachePreferencesProvider extends JPanel implements PreferencesPanel, DocumentListener {
+
+    private static final long serialVersionUID = 1L;
+    protected static final int MAX_VALUE = 65536;
+    public static final String DEFAULT_VALUE = "256";
+
+    protected transient PreferencesPanel.PreferencesPanelChangeListener listener;
+    protected JTextField maximumSizeTextField;
+    protected Color errorBackgroundColor = Color.RED;
+    protected Color defaultBackgroundColor;
+
+    public IndexCachePreferencesProvider() {
+        super(new BorderLayout());
+
+        add(new JLabel("Maximum size in MB (0.." + MAX_VALUE + ", 0 = disabled): "), BorderLayout.WEST);
+
+        maximumSizeTextField = new JTextField();
+        maximumSizeTextField.getDocument().addDocumentListener(this);
+        add(maximumSizeTextField, BorderLayout.CENTER);
+
+        defaultBackgroundColor = maximumSizeTextField.getBackground();
+    }
+
+    // --- PreferencesPanel --- //
+    @Override
+    public String getPreferencesGroupTitle() { return "Indexer"; }
+    @Override
+    public String getPreferencesPanelTitle() { return "Index cache"; }
+    @Override
+    public JComponent getPanel() { return this; }
+
+    @Override
+    public void init(Color errorBackgroundColor) {
+        this.errorBackgroundColor = errorBackgroundColor;
+    }
+
+    @Override
+    public boolean isActivated() { return true; }
+
+    @Override
+    public void loadPreferences(Map<String, String> preferences) {
+        String preference = preferences.get(INDEX_CACHE_MAX_SIZE_KEY);
+
+        maximumSizeTextField.setText(preference != null ? preference : DEFAULT_VALUE);
+        maximumSizeTextField.setCaretPosition(maximumSizeTextField.getText().length());
+    }
+
+    @Override
+    public void savePreferences(Map<String, String> preferences) {
+        preferences.put(INDEX_CACHE_MAX_SIZE_KEY, maximumSizeTextField.getText());
+    }
+
+    @Override
+    public boolean arePreferencesValid() {
+        try {
+            String maximumSize = maximumSizeTextField.getText();
+            if (maximumSize != null && maximumSize.matches("\\d+")) {
+                int i = Integer.parseInt(maximumSize);
+                return i >= 0 && i <= MAX_VALUE;
+            }
+        } catch (NumberFormatException e) {
+            assert ExceptionUtil.printStackTrace(e);
+        }
+        return false;
+    }
+
+    @Override
+    public void addPreferencesChangeListener(PreferencesPanel.PreferencesPanelChangeListener listener) {
+        this.listener = listener;
+    }
+
+    // --- DocumentListener --- //
+    @Override
+    public void insertUpdate(DocumentEvent e) { onTextChange(); }
+    @Override
+    public void removeUpdate(DocumentEvent e) { onTextChange(); }
+    @Override
+    public void changedUpdate(DocumentEvent e) { onTextChange(); }
+
+    public void onTextChange() {
+        maximumSizeTextField.setBackground(arePreferencesValid() ? defaultBackgroundColor : errorBackgroundColor);
+
+        if (listener != null) {
+            listener.preferencesPanelChanged(this);
+        }
+    }
+
+    @Override
+    public void restoreDefaults() {
+        maximumSizeTextField.setText(DEFAULT_VALUE);
+    }
+}
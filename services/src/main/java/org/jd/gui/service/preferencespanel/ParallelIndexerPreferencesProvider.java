@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.service.preferencespanel;
+
+import org.jd.core.v1.service.converter.classfiletojavasyntax.util.ExceptionUtil;
+import org.jd.gui.spi.PreferencesPanel;
+
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.util.Map;
+
+import javax.swing.JComponent;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JTextField;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+
+import static org.jd.gui.util.decompiler.GuiPreferences.INDEXER_WORKER_COUNT_KEY;
+
+public class ParallelIndexerPreferencesProvider extends JPanel implements PreferencesPanel, DocumentListener {
+
+    private static final long serialVersionUID = 1L;
+    protected static final int MAX_VALUE = 256;
+
+    protected transient PreferencesPanel.PreferencesPanelChangeListener listener;
+    protected JTextField workerCountTextField;
+    protected Color errorBackgroundColor = Color.RED;
+    protected Color defaultBackgroundColor;
+
+    public ParallelIndexerPreferencesProvider() {
+        super(new BorderLayout());
+
+        add(new JLabel("Worker threads (1.." + MAX_VALUE + ", 1 = sequential): "), BorderLayout.WEST);
+
+        workerCountTextField = new JTextField();
+        workerCountTextField.getDocument().addDocumentListener(this);
+        add(workerCountTextField, BorderLayout.CENTER);
+
+        defaultBackgroundColor = workerCountTextField.getBackground();
+    }
+
+    public static int getDefaultWorkerCount() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    // --- PreferencesPanel --- //
+    @Override
+    public String getPreferencesGroupTitle() { return "Indexer"; }
+    @Override
+    public String getPreferencesPanelTitle() { return "Parallel indexing"; }
+    @Override
+    public JComponent getPanel() { return this; }
+
+    @Override
+    public void init(Color errorBackgroundColor) {
+        this.errorBackgroundColor = errorBackgroundColor;
+    }
+
+    @Override
+    public boolean isActivated() { return true; }
+
+    @Override
+    public void loadPreferences(Map<String, String> preferences) {
+        String preference = preferences.get(INDEXER_WORKER_COUNT_KEY);
+
+        workerCountTextField.setText(preference != null ? preference : String.valueOf(getDefaultWorkerCount()));
+        workerCountTextField.setCaretPosition(workerCountTextField.getText().length());
+    }
+
+    @Override
+    public void savePreferences(Map<String, String> preferences) {
+        preferences.put(INDEXER_WORKER_COUNT_KEY, workerCountTextField.getText());
+    }
+
+    @Override
+    public boolean arePreferencesValid() {
+        try {
+            String workerCount = workerCountTextField.getText();
+            if (workerCount != null && workerCount.matches("\\d+")) {
+                int i = Integer.parseInt(workerCount);
+                return i > 0 && i <= MAX_VALUE;
+            }
+        } catch (NumberFormatException e) {
+            assert ExceptionUtil.printStackTrace(e);
+        }
+        return false;
+    }
+
+    @Override
+    public void addPreferencesChangeListener(PreferencesPanel.PreferencesPanelChangeListener listener) {
+        this.listener = listener;
+    }
+
+    // --- DocumentListener --- //
+    @Override
+    public void insertUpdate(DocumentEvent e) { onTextChange(); }
+    @Override
+    public void removeUpdate(DocumentEvent e) { onTextChange(); }
+    @Override
+    public void changedUpdate(DocumentEvent e) { onTextChange(); }
+
+    public void onTextChange() {
+        workerCountTextField.setBackground(arePreferencesValid() ? defaultBackgroundColor : errorBackgroundColor);
+
+        if (listener != null) {
+            listener.preferencesPanelChanged(this);
+        }
+    }
+
+    @Override
+    public void restoreDefaults() {
+        workerCountTextField.setText(String.valueOf(getDefaultWorkerCount()));
+    }
+}
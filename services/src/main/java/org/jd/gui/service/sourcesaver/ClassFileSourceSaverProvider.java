@@ -7,7 +7,6 @@
 
 package org.jd.gui.service.sourcesaver;
 
-import org.jd.core.v1.printer.LineNumberStringBuilderPrinter;
 import org.jd.core.v1.service.converter.classfiletojavasyntax.util.ByteCodeWriter;
 import org.jd.core.v1.service.converter.classfiletojavasyntax.util.ExceptionUtil;
 import org.jd.core.v1.util.StringConstants;
@@ -16,10 +15,7 @@ import org.jd.gui.api.model.Container;
 import org.jd.gui.util.MethodPatcher;
 import org.jd.gui.util.ProgressUtil;
 import org.jd.gui.util.decompiler.ContainerLoader;
-import org.jd.gui.util.loader.LoaderUtils;
-
-import com.heliosdecompiler.transformerapi.StandardTransformers;
-import com.heliosdecompiler.transformerapi.common.Loader;
+import org.jd.gui.util.decompiler.DecompilationCache;
 
 import java.io.IOException;
 import java.io.OutputStream;
@@ -40,10 +36,7 @@ import jd.core.DecompilationResult;
 
 public class ClassFileSourceSaverProvider extends AbstractSourceSaverProvider {
 
-    private static final String INTERNAL_ERROR = "// INTERNAL ERROR //";
-
-    protected ContainerLoader loader = new ContainerLoader();
-    protected LineNumberStringBuilderPrinter printer = new LineNumberStringBuilderPrinter();
+    protected static final String INTERNAL_ERROR = "// INTERNAL ERROR //";
 
     @Override
     public String[] getSelectors() { return appendSelectors("*:file:*.class"); }
@@ -74,34 +67,49 @@ public class ClassFileSourceSaverProvider extends AbstractSourceSaverProvider {
 
     @Override
     public void saveContent(API api, Path rootPath, Path path, Container.Entry entry, DoubleSupplier getProgressFunction, DoubleConsumer setProgressFunction, BooleanSupplier isCancelledFunction) {
+        writeCodeToFile(path, decompile(api, entry));
+        updateProgress(entry, getProgressFunction, setProgressFunction);
+    }
 
-        DecompilationResult decompiledResult = new DecompilationResult();
-        
+    /**
+     * Decompile the entry with its own loader, so that several entries can be decompiled concurrently.
+     */
+    public String decompile(API api, Container.Entry entry) {
         try {
             // Init preferences
             Map<String, String> preferences = api.getPreferences();
 
             // Init loader
-            loader.setEntry(entry);
+            ContainerLoader loader = new ContainerLoader(entry);
 
             // Format internal name
             String entryInternalName = ClassUtil.getInternalName(entry.getPath());
             
             String decompileEngine = preferences.getOrDefault(DECOMPILE_ENGINE, ENGINE_JD_CORE_V1);
-            Loader apiLoader = LoaderUtils.createLoader(preferences, loader, entry);
-            decompiledResult = StandardTransformers.decompile(apiLoader, entryInternalName, preferences, decompileEngine);
-            if (decompiledResult.getDecompiledOutput().contains(ByteCodeWriter.DECOMPILATION_FAILED_AT_LINE)) {
-                DecompilationResult sourceCodeV0 = StandardTransformers.decompile(apiLoader, entryInternalName, preferences, ENGINE_JD_CORE_V0);
-                decompiledResult.setDecompiledOutput(MethodPatcher.patchCode(decompiledResult.getDecompiledOutput(), sourceCodeV0.getDecompiledOutput(), entry));
+            DecompilationCache decompilationCache = DecompilationCache.getInstance();
+            String decompiledOutput = decompilationCache.decompile(preferences, loader, entry, entryInternalName, decompileEngine).getDecompiledOutput();
+            if (decompiledOutput.contains(ByteCodeWriter.DECOMPILATION_FAILED_AT_LINE)) {
+                DecompilationResult sourceCodeV0 = decompilationCache.decompile(preferences, loader, entry, entryInternalName, ENGINE_JD_CORE_V0);
+                decompiledOutput = MethodPatcher.patchCode(decompiledOutput, sourceCodeV0.getDecompiledOutput(), entry);
             }
-
+            return decompiledOutput;
         } catch (Exception t) {
-            decompiledResult.setDecompiledOutput(INTERNAL_ERROR);
             assert ExceptionUtil.printStackTrace(t);
+            return INTERNAL_ERROR;
         }
-        
-        writeCodeToFile(path, decompiledResult.getDecompiledOutput());
-        
+    }
+
+    /**
+     * @return the key of the decompilation of the entry, null if the class can not be loaded
+     */
+    public String getKey(API api, Container.Entry entry) {
+        Map<String, String> preferences = api.getPreferences();
+        String entryInternalName = ClassUtil.getInternalName(entry.getPath());
+        String decompileEngine = preferences.getOrDefault(DECOMPILE_ENGINE, ENGINE_JD_CORE_V1);
+        return DecompilationCache.getKey(preferences, new ContainerLoader(entry), entry, entryInternalName, decompileEngine);
+    }
+
+    public void updateProgress(Container.Entry entry, DoubleSupplier getProgressFunction, DoubleConsumer setProgressFunction) {
         try {
             ProgressUtil.updateProgress(entry, getProgressFunction, setProgressFunction);
             // update progress of inner classes that were filtered by PackageSourceSaverProvider
@@ -117,7 +125,7 @@ public class ClassFileSourceSaverProvider extends AbstractSourceSaverProvider {
         }
     }
 
-    private static void writeCodeToFile(Path path, String sourceCode) {
+    protected static void writeCodeToFile(Path path, String sourceCode) {
         try (OutputStream os = Files.newOutputStream(path)) {
             os.write(sourceCode.getBytes(StandardCharsets.UTF_8));
         } catch (IOException e) {
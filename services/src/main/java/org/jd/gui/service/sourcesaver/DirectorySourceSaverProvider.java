@@ -11,19 +11,43 @@ import org.jd.core.v1.service.converter.classfiletojavasyntax.util.ExceptionUtil
 import org.jd.gui.api.API;
 import org.jd.gui.api.model.Container;
 import org.jd.gui.spi.SourceSaver;
+import org.jd.gui.util.ExportManifest;
+import org.jd.gui.util.WorkerUtil;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.BooleanSupplier;
 import java.util.function.DoubleConsumer;
 import java.util.function.DoubleSupplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+/**
+ * Save the content of a directory, decompiling the class files on a pool of workers.<br>
+ * <br>
+ * Entries are visited in the order of their paths. The results are written by the calling thread, in
+ * that order, so that the archive produced is the same whatever the number of workers. At most
+ * {@link #RESULTS_PER_WORKER} results per worker wait to be written. A class failing to decompile, even with an
+ * error, is saved as an internal error and the export goes on. Nested archives share the workers of the export.<br>
+ * <br>
+ * With an {@link ExportManifest}, the sources saved by the previous export with the same key are not
+ * decompiled again, and the sources of the classes removed since are deleted.
+ */
 public class DirectorySourceSaverProvider extends AbstractSourceSaverProvider {
+    protected static final int RESULTS_PER_WORKER = 4;
 
     @Override
     public String[] getSelectors() { return appendSelectors("*:dir:*"); }
@@ -70,15 +94,185 @@ public class DirectorySourceSaverProvider extends AbstractSourceSaverProvider {
 
     @Override
     public void saveContent(API api, Path rootPath, Path path, Container.Entry entry, DoubleSupplier getProgressFunction, DoubleConsumer setProgressFunction, BooleanSupplier isCancelledFunction) {
-        for (Container.Entry e : getChildren(entry)) {
+        saveContent(api, rootPath, entry, getProgressFunction, setProgressFunction, isCancelledFunction, null, null, () -> false);
+    }
+
+    /**
+     * Save the content, stopping when a checkpoint is due so that the caller can close the archive and store the
+     * manifest. Called again with the same manifest, the entries already saved by this export are skipped.
+     *
+     * @param manifest the manifest of the previous export to update
+     * @param isCheckpointDueFunction checked after each saved entry
+     * @return true if the content is saved, false if cancelled or stopped for a checkpoint
+     */
+    public boolean saveContent(API api, Path rootPath, Container.Entry entry, DoubleSupplier getProgressFunction, DoubleConsumer setProgressFunction, BooleanSupplier isCancelledFunction, ExportManifest manifest, BooleanSupplier isCheckpointDueFunction) {
+        return saveContent(api, rootPath, entry, getProgressFunction, setProgressFunction, isCancelledFunction, manifest, null, isCheckpointDueFunction);
+    }
+
+    /**
+     * @param manifest the manifest of the previous export to update, null to save everything
+     * @param executor the workers of the enclosing archive, null to start workers for this one
+     * @return true if the content is saved, false if cancelled or stopped for a checkpoint
+     */
+    protected boolean saveContent(API api, Path rootPath, Container.Entry entry, DoubleSupplier getProgressFunction, DoubleConsumer setProgressFunction, BooleanSupplier isCancelledFunction, ExportManifest manifest, ExecutorService executor, BooleanSupplier isCheckpointDueFunction) {
+        int workerCount = WorkerUtil.getWorkerCount(api);
+        ExecutorService workers = executor;
+
+        if (workers == null) {
+            workers = Executors.newFixedThreadPool(workerCount, r -> {
+                Thread thread = new Thread(r, "source-saver");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        List<Callable<Runnable>> tasks = new ArrayList<>();
+        addTasks(api, rootPath, getChildren(entry), tasks, getProgressFunction, setProgressFunction, isCancelledFunction, manifest, workers);
+
+        Deque<Future<Runnable>> futures = new ArrayDeque<>();
+        boolean saved = false;
+
+        try {
+            Iterator<Callable<Runnable>> iterator = tasks.iterator();
+
+            while (!isCancelledFunction.getAsBoolean() && !isCheckpointDueFunction.getAsBoolean()) {
+                while (futures.size() < workerCount * RESULTS_PER_WORKER && iterator.hasNext()) {
+                    futures.add(workers.submit(iterator.next()));
+                }
+
+                Future<Runnable> future = futures.poll();
+
+                if (future == null) {
+                    saved = true;
+                    break;
+                }
+
+                // Write in the order of the tasks
+                try {
+                    future.get().run();
+                } catch (ExecutionException e) {
+                    // Tasks catch their errors: keep saving the other entries
+                    assert ExceptionUtil.printStackTrace(e);
+                }
+            }
+
+            if (saved && manifest != null && !isCancelledFunction.getAsBoolean()) {
+                for (String removedPath : manifest.getRemovedPaths()) {
+                    Files.deleteIfExists(rootPath.resolve(removedPath));
+                }
+                manifest.setComplete();
+            }
+        } catch (InterruptedException e) {
+            assert ExceptionUtil.printStackTrace(e);
+            // Restore interrupted state...
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            assert ExceptionUtil.printStackTrace(e);
+        } finally {
+            // Do not interrupt the workers: interrupting a thread reading an archive closes it
+            for (Future<Runnable> future : futures) {
+                future.cancel(false);
+            }
+            if (executor == null) {
+                workers.shutdown();
+            }
+        }
+
+        return saved && !isCancelledFunction.getAsBoolean();
+    }
+
+    /**
+     * Add, in the order of their paths, the tasks saving the entries and the content of their directories.
+     * Tasks decompile the class files and return the action writing the result. Nested archives are saved by
+     * the action, on the same workers.
+     */
+    protected void addTasks(API api, Path rootPath, Collection<Container.Entry> entries, List<Callable<Runnable>> tasks, DoubleSupplier getProgressFunction, DoubleConsumer setProgressFunction, BooleanSupplier isCancelledFunction, ExportManifest manifest, ExecutorService executor) {
+        List<Container.Entry> sortedEntries = new ArrayList<>(entries);
+        sortedEntries.sort((a, b) -> a.getPath().compareTo(b.getPath()));
+
+        for (Container.Entry e : sortedEntries) {
             if (isCancelledFunction.getAsBoolean()) {
                 break;
             }
 
             SourceSaver sourceSaver = api.getSourceSaver(e);
 
-            if (sourceSaver != null) {
-                sourceSaver.save(api, rootPath, e, getProgressFunction, setProgressFunction, isCancelledFunction);
+            if (manifest != null && sourceSaver != null && !e.isDirectory() && manifest.isSaved(sourceSaver.getSourcePath(e))) {
+                // Saved before the last checkpoint
+                continue;
+            }
+
+            if (e.isDirectory() && sourceSaver instanceof DirectorySourceSaverProvider) { // to convert to jdk16 pattern matching only when spotbugs #1617 and eclipse #577987 are solved
+                DirectorySourceSaverProvider directorySourceSaver = (DirectorySourceSaverProvider) sourceSaver;
+                Path path = rootPath.resolve(e.getPath());
+
+                tasks.add(() -> () -> {
+                    try {
+                        Files.createDirectories(path);
+                    } catch (IOException ex) {
+                        assert ExceptionUtil.printStackTrace(ex);
+                    }
+                });
+                directorySourceSaver.addTasks(api, rootPath, directorySourceSaver.getChildren(e), tasks, getProgressFunction, setProgressFunction, isCancelledFunction, manifest, executor);
+            } else if (sourceSaver instanceof ClassFileSourceSaverProvider) { // to convert to jdk16 pattern matching only when spotbugs #1617 and eclipse #577987 are solved
+                ClassFileSourceSaverProvider classFileSourceSaver = (ClassFileSourceSaverProvider) sourceSaver;
+                String sourcePath = classFileSourceSaver.getSourcePath(e);
+                Path path = rootPath.resolve(sourcePath);
+
+                tasks.add(() -> {
+                    if (isCancelledFunction.getAsBoolean()) {
+                        return () -> {};
+                    }
+
+                    String key = null;
+                    String sourceCode;
+
+                    try {
+                        key = manifest == null ? null : classFileSourceSaver.getKey(api, e);
+
+                        if (key != null && manifest.isUpToDate(sourcePath, key) && Files.exists(path)) {
+                            String upToDateKey = key;
+                            return () -> {
+                                manifest.put(sourcePath, upToDateKey);
+                                classFileSourceSaver.updateProgress(e, getProgressFunction, setProgressFunction);
+                            };
+                        }
+
+                        sourceCode = classFileSourceSaver.decompile(api, e);
+                    } catch (Throwable t) {
+                        // StackOverflowError, OutOfMemoryError... on a class must not end the export
+                        assert ExceptionUtil.printStackTrace(t);
+                        key = null;
+                        sourceCode = ClassFileSourceSaverProvider.INTERNAL_ERROR;
+                    }
+
+                    String savedKey = key;
+                    String savedSourceCode = sourceCode;
+
+                    return () -> {
+                        ClassFileSourceSaverProvider.writeCodeToFile(path, savedSourceCode);
+                        if (manifest != null) {
+                            manifest.put(sourcePath, savedKey);
+                        }
+                        classFileSourceSaver.updateProgress(e, getProgressFunction, setProgressFunction);
+                    };
+                });
+            } else if (sourceSaver instanceof ZipFileSourceSaverProvider) { // to convert to jdk16 pattern matching only when spotbugs #1617 and eclipse #577987 are solved
+                ZipFileSourceSaverProvider zipFileSourceSaver = (ZipFileSourceSaverProvider) sourceSaver;
+
+                tasks.add(() -> () -> {
+                    zipFileSourceSaver.save(api, rootPath, e, getProgressFunction, setProgressFunction, isCancelledFunction, executor);
+                    if (manifest != null) {
+                        manifest.put(sourceSaver.getSourcePath(e), null);
+                    }
+                });
+            } else if (sourceSaver != null) {
+                tasks.add(() -> () -> {
+                    sourceSaver.save(api, rootPath, e, getProgressFunction, setProgressFunction, isCancelledFunction);
+                    if (manifest != null) {
+                        manifest.put(sourceSaver.getSourcePath(e), null);
+                    }
+                });
             }
         }
     }
@@ -17,8 +17,10 @@ import java.nio.file.FileSystem;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 import java.util.function.BooleanSupplier;
 import java.util.function.DoubleConsumer;
 import java.util.function.DoubleSupplier;
@@ -30,6 +32,13 @@ public class ZipFileSourceSaverProvider extends DirectorySourceSaverProvider {
 
     @Override
     public void save(API api, Path rootPath, Container.Entry entry, DoubleSupplier getProgressFunction, DoubleConsumer setProgressFunction, BooleanSupplier isCancelledFunction) {
+        save(api, rootPath, entry, getProgressFunction, setProgressFunction, isCancelledFunction, null);
+    }
+
+    /**
+     * @param executor the workers of the enclosing archive, null to start workers for this one
+     */
+    protected void save(API api, Path rootPath, Container.Entry entry, DoubleSupplier getProgressFunction, DoubleConsumer setProgressFunction, BooleanSupplier isCancelledFunction, ExecutorService executor) {
         try {
             String sourcePath = getSourcePath(entry);
             Path path = rootPath.resolve(sourcePath);
@@ -42,7 +51,7 @@ public class ZipFileSourceSaverProvider extends DirectorySourceSaverProvider {
             File tmpSourceFile = api.loadSourceFile(entry);
 
             if (tmpSourceFile != null) {
-                Files.copy(tmpSourceFile.toPath(), path);
+                Files.copy(tmpSourceFile.toPath(), path, StandardCopyOption.REPLACE_EXISTING);
             } else {
                 File tmpFile = File.createTempFile("jd-gui.", ".tmp.zip");
 
@@ -57,10 +66,10 @@ public class ZipFileSourceSaverProvider extends DirectorySourceSaverProvider {
 
                 try (FileSystem tmpArchiveFs = FileSystems.newFileSystem(tmpArchiveUri, env)) {
                     Path tmpArchiveRootPath = tmpArchiveFs.getPath("/");
-                    saveContent(api, tmpArchiveRootPath, tmpArchiveRootPath, entry, getProgressFunction, setProgressFunction, isCancelledFunction);
+                    saveContent(api, tmpArchiveRootPath, entry, getProgressFunction, setProgressFunction, isCancelledFunction, null, executor, () -> false);
                 }
 
-                Files.move(tmpFile.toPath(), path);
+                Files.move(tmpFile.toPath(), path, StandardCopyOption.REPLACE_EXISTING);
             }
         } catch (Exception e) {
             assert ExceptionUtil.printStackTrace(e);
@@ -310,7 +310,7 @@ public abstract class AbstractTypeFactoryProvider implements TypeFactory {
     }
 
     /** Icon getters. */
-    protected static ImageIcon getTypeIcon(int access) {
+    public static ImageIcon getTypeIcon(int access) {
         if ((access & ACC_ANNOTATION) != 0) {
             return ANNOTATION_ICON;
         }
@@ -47,8 +47,11 @@ public class ClassFileTypeFactoryProvider extends AbstractTypeFactoryProvider {
     public Type make(API api, Container.Entry entry, String fragment) {
         URI key = entry.getUri();
 
-        if (cache.containsKey(key)) {
-            return cache.get(key);
+        // Types are made by the search dialogs in parallel
+        synchronized (cache) {
+            if (cache.containsKey(key)) {
+                return cache.get(key);
+            }
         }
         JavaType type;
 
@@ -108,7 +111,9 @@ public class ClassFileTypeFactoryProvider extends AbstractTypeFactoryProvider {
             type = null;
         }
 
-        cache.put(key, type);
+        synchronized (cache) {
+            cache.put(key, type);
+        }
         return type;
     }
 
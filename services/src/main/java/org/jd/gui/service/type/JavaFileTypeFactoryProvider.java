@@ -80,8 +80,11 @@ public class JavaFileTypeFactoryProvider extends AbstractTypeFactoryProvider {
     protected Listener getListener(Container.Entry entry) {
         URI key = entry.getUri();
 
-        if (cache.containsKey(key)) {
-            return cache.get(key);
+        // Types are made by the search dialogs in parallel
+        synchronized (cache) {
+            if (cache.containsKey(key)) {
+                return cache.get(key);
+            }
         }
         Listener listener;
 
@@ -93,7 +96,9 @@ public class JavaFileTypeFactoryProvider extends AbstractTypeFactoryProvider {
             listener = null;
         }
 
-        cache.put(key, listener);
+        synchronized (cache) {
+            cache.put(key, listener);
+        }
         return listener;
     }
 
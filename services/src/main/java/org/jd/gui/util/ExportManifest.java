@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.util;
+
+import org.jd.core.v1.service.converter.classfiletojavasyntax.util.ExceptionUtil;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Manifest of an export of sources, stored next to the exported file.<br>
+ * <br>
+ * The manifest maps the path of each saved source to the key of its decompilation: the SHA-1 of the class
+ * and its inner classes, the engine and the decompiler preferences. An export skips the sources whose key
+ * did not change and resumes after a cancellation or a crash. The manifest is stored once the exported
+ * file is closed, so that it never references a source missing from the file: long exports close the file
+ * and store the manifest at checkpoints.
+ */
+public class ExportManifest {
+    public static final String FILE_SUFFIX = ".manifest";
+
+    protected static final String HEADER = "# JD-GUI export manifest 1";
+    // Key of the files saved without decompilation, never up to date
+    protected static final String NO_KEY = "-";
+
+    private final Path manifestPath;
+    private final Map<String, String> previousKeys;
+    private final Map<String, String> keys = new ConcurrentHashMap<>();
+    private volatile boolean complete;
+
+    protected ExportManifest(Path manifestPath, Map<String, String> previousKeys) {
+        this.manifestPath = manifestPath;
+        this.previousKeys = previousKeys;
+    }
+
+    /**
+     * @param path the exported file
+     * @return the manifest of the previous export, empty if the exported file or its manifest is missing or invalid
+     */
+    public static ExportManifest load(Path path) {
+        Path manifestPath = path.resolveSibling(path.getFileName() + FILE_SUFFIX);
+        Map<String, String> previousKeys = new HashMap<>();
+
+        if (Files.exists(path) && Files.exists(manifestPath)) {
+            try (BufferedReader reader = Files.newBufferedReader(manifestPath, StandardCharsets.UTF_8)) {
+                if (HEADER.equals(reader.readLine())) {
+                    String line;
+
+                    while ((line = reader.readLine()) != null) {
+                        int index = line.lastIndexOf('=');
+
+                        if (index > 0) {
+                            previousKeys.put(line.substring(0, index), line.substring(index + 1));
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                assert ExceptionUtil.printStackTrace(e);
+                previousKeys.clear();
+            }
+        }
+
+        return new ExportManifest(manifestPath, previousKeys);
+    }
+
+    /**
+     * @return true if the previous export is empty or unknown
+     */
+    public boolean isEmpty() { return previousKeys.isEmpty(); }
+
+    /**
+     * @return true if the source was saved by the previous export with the same key
+     */
+    public boolean isUpToDate(String sourcePath, String key) {
+        return key != null && !NO_KEY.equals(key) && key.equals(previousKeys.get(sourcePath));
+    }
+
+    /**
+     * Record a saved source.
+     *
+     * @param key the key of the decompilation, null for a file saved without decompilation
+     */
+    public void put(String sourcePath, String key) {
+        keys.put(sourcePath, key == null ? NO_KEY : key);
+    }
+
+    /**
+     * @return true if the source was saved by this export
+     */
+    public boolean isSaved(String sourcePath) { return keys.containsKey(sourcePath); }
+
+    /**
+     * @return the number of sources saved by this export
+     */
+    public int getSavedCount() { return keys.size(); }
+
+    /**
+     * @return the paths saved by the previous export and not by this one
+     */
+    public Set<String> getRemovedPaths() {
+        Set<String> removedPaths = new HashSet<>(previousKeys.keySet());
+        removedPaths.removeAll(keys.keySet());
+        return Collections.unmodifiableSet(removedPaths);
+    }
+
+    /**
+     * Mark the export as complete: the sources of the previous export that were not saved again are forgotten.
+     */
+    public void setComplete() { complete = true; }
+
+    public void store() throws IOException {
+        Map<String, String> storedKeys = new TreeMap<>(keys);
+
+        if (!complete) {
+            // The sources not reached yet are still in the exported file
+            for (Map.Entry<String, String> entry : previousKeys.entrySet()) {
+                storedKeys.putIfAbsent(entry.getKey(), entry.getValue());
+            }
+        }
+
+        Path tmpPath = manifestPath.resolveSibling(manifestPath.getFileName() + ".tmp");
+
+        try (BufferedWriter writer = Files.newBufferedWriter(tmpPath, StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.newLine();
+
+            for (Map.Entry<String, String> entry : storedKeys.entrySet()) {
+                writer.write(entry.getKey());
+                writer.write('=');
+                writer.write(entry.getValue());
+                writer.newLine();
+            }
+        }
+
+        Files.move(tmpPath, manifestPath, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
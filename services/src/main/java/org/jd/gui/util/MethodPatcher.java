@@ -55,6 +55,10 @@ public final class MethodPatcher {
                 return super.visit(node);
             }
         });
+        if (methodKeyPositionRanges.isEmpty()) {
+            // No method to patch: do not parse the source of JD-Core V0
+            return sourceCodeV1;
+        }
         astParserFactory.newASTParser(sourceCodeV0.toCharArray(), unitName, jarURI).createAST(null).accept(new ASTVisitor() {
 
             @Override
@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (C) 2022 GPLv3
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package org.jd.gui.util;
+
+import org.jd.core.v1.service.converter.classfiletojavasyntax.util.ExceptionUtil;
+import org.jd.gui.api.model.Container;
+
+import java.io.File;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleConsumer;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Progress of a task shared by many threads, passed to indexers and savers as progress functions.<br>
+ * <br>
+ * {@link ProgressUtil} adds the contribution of each entry, relative to the size of its archive, which is
+ * computed once per container. Contributions are accumulated in a {@link LongAdder} and the sum is forwarded
+ * to the progress function of the task.<br>
+ * <br>
+ * Code updating progress with 'set(get() + delta)' is supported: each thread reads and writes its own share
+ * of the progress, so concurrent updates are not lost. As a consequence, {@link #getAsDouble()} does not
+ * return the progress of the task, use {@link #getProgress()} to read it.
+ */
+public class ProgressTracker implements DoubleSupplier, DoubleConsumer {
+    protected static final double UNITS_PER_PERCENT = 1_000_000D;
+
+    private final DoubleConsumer setProgressFunction;
+    private final LongAdder progress = new LongAdder();
+    private final ThreadLocal<double[]> threadProgress = ThreadLocal.withInitial(() -> new double[1]);
+    private final Map<Container, Long> archiveSizes = new ConcurrentHashMap<>();
+
+    public ProgressTracker(DoubleConsumer setProgressFunction) {
+        this.setProgressFunction = setProgressFunction;
+    }
+
+    /**
+     * Unlike other progress suppliers, returns the share of the current thread, so that 'set(get() + delta)'
+     * adds 'delta' to the progress of the task, as done by {@link ProgressUtil}.
+     *
+     * @return the progress added by the current thread
+     */
+    @Override
+    public double getAsDouble() {
+        return threadProgress.get()[0];
+    }
+
+    /**
+     * @return the progress of the task, added by all threads
+     */
+    public double getProgress() {
+        return Math.min(100D, progress.sum() / UNITS_PER_PERCENT);
+    }
+
+    /**
+     * Set the progress added by the current thread.
+     */
+    @Override
+    public void accept(double value) {
+        add(value - threadProgress.get()[0]);
+    }
+
+    public void addEntry(Container.Entry entry) {
+        long archiveSize = archiveSizes.computeIfAbsent(entry.getContainer(), ProgressTracker::getArchiveSize);
+
+        if (archiveSize > 0) {
+            add(100D * entry.compressedLength() / archiveSize);
+        }
+    }
+
+    public void add(double percentage) {
+        threadProgress.get()[0] += percentage;
+        progress.add(Math.round(percentage * UNITS_PER_PERCENT));
+        setProgressFunction.accept(getProgress());
+    }
+
+    /**
+     * @return the size of the file containing the container, 0 if not found
+     */
+    protected static long getArchiveSize(Container container) {
+        Container.Entry root = container.getRoot().getParent();
+
+        while (root != null) {
+            URI uri = root.getUri();
+
+            if (uri != null && "file".equals(uri.getScheme())) {
+                try {
+                    File file = new File(uri);
+
+                    if (file.isFile()) {
+                        return file.length();
+                    }
+                } catch (IllegalArgumentException e) {
+                    assert ExceptionUtil.printStackTrace(e);
+                }
+            }
+
+            root = root.getParent();
+        }
+
+        return 0;
+    }
+}
@@ -45,7 +45,13 @@ public final class ProgressUtil {
     }
 
     public static void updateProgress(Container.Entry entry, DoubleSupplier getProgressFunction, DoubleConsumer setProgressFunction) throws IOException {
-        updateProgress(entry.getContainer().getRoot().getParent(), entry, getProgressFunction, setProgressFunction);
+        if (setProgressFunction instanceof ProgressTracker) { // to convert to jdk16 pattern matching only when spotbugs #1617 and eclipse #577987 are solved
+            // Archive sizes are computed once per task, the progress supplier only returns the share of this thread
+            ProgressTracker progressTracker = (ProgressTracker) setProgressFunction;
+            progressTracker.addEntry(entry);
+        } else {
+            updateProgress(entry.getContainer().getRoot().getParent(), entry, getProgressFunction, setProgressFunction);
+        }
     }
 
 }
@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (C) 2022 GPLv3
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ ******************************************************************************/
+package org.jd.gui.util;
+
+import org.jd.core.v1.service.converter.classfiletojavasyntax.util.ExceptionUtil;
+
+import java.util.Collection;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * Runs the searches of a dialog: one search at a time is current, the last submitted one.<br>
+ * <br>
+ * A search starts after a short delay without new submission, so fast typing runs only the search of the
+ * last pattern. Submitting a search cancels the previous one: a search not started yet is dropped, a running
+ * search sees its cancellation function return true and should stop as soon as possible. Results are passed
+ * to the result consumer on the event dispatch thread, only if the search is still current at that time.
+ */
+public class SearchScheduler {
+    public static final long DEFAULT_DELAY = 150;
+
+    private final ScheduledExecutorService executor;
+    private final Executor resultExecutor;
+    private final long delay;
+    private final AtomicLong currentGeneration = new AtomicLong();
+    private ScheduledFuture<?> pendingSearch;
+
+    public SearchScheduler(ScheduledExecutorService executor) {
+        this(executor, SwingUtilities::invokeLater, DEFAULT_DELAY);
+    }
+
+    /**
+     * @param executor       executor running the searches
+     * @param resultExecutor executor running the result consumers
+     * @param delay          delay in milliseconds before starting a search
+     */
+    public SearchScheduler(ScheduledExecutorService executor, Executor resultExecutor, long delay) {
+        this.executor = executor;
+        this.resultExecutor = resultExecutor;
+        this.delay = delay;
+    }
+
+    /**
+     * @param searchFunction search, called with its cancellation function, returning the results
+     * @param resultConsumer consumer of the results of the search, if it is still current
+     */
+    public synchronized <R> void submit(Function<BooleanSupplier, R> searchFunction, Consumer<R> resultConsumer) {
+        long generation = cancel();
+        BooleanSupplier isCancelledFunction = () -> currentGeneration.get() != generation;
+
+        pendingSearch = executor.schedule(() -> {
+            if (!isCancelledFunction.getAsBoolean()) {
+                try {
+                    R result = searchFunction.apply(isCancelledFunction);
+
+                    if (!isCancelledFunction.getAsBoolean()) {
+                        resultExecutor.execute(() -> {
+                            if (!isCancelledFunction.getAsBoolean()) {
+                                resultConsumer.accept(result);
+                            }
+                        });
+                    }
+                } catch (Exception e) {
+                    assert ExceptionUtil.printStackTrace(e);
+                }
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Cancel the current search, its results will not be passed to its result consumer.
+     *
+     * @return the generation of the next search
+     */
+    public synchronized long cancel() {
+        if (pendingSearch != null) {
+            pendingSearch.cancel(false);
+            pendingSearch = null;
+        }
+        return currentGeneration.incrementAndGet();
+    }
+
+    /**
+     * Run the action on each item in parallel, skipping the remaining items once the search is cancelled.
+     */
+    public static <T> void forEach(Collection<T> items, BooleanSupplier isCancelledFunction, Consumer<T> action) {
+        items.parallelStream().forEach(item -> {
+            if (!isCancelledFunction.getAsBoolean()) {
+                action.accept(item);
+            }
+        });
+    }
+}
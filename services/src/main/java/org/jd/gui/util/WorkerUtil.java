@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.util;
+
+import org.jd.core.v1.service.converter.classfiletojavasyntax.util.ExceptionUtil;
+import org.jd.gui.api.API;
+import org.jd.gui.service.preferencespanel.ParallelIndexerPreferencesProvider;
+
+import static org.jd.gui.util.decompiler.GuiPreferences.INDEXER_WORKER_COUNT_KEY;
+
+public final class WorkerUtil {
+
+    private WorkerUtil() {
+    }
+
+    /**
+     * @return the number of worker threads chosen in the preferences, the number of processors by default
+     */
+    public static int getWorkerCount(API api) {
+        String preference = api.getPreferences().get(INDEXER_WORKER_COUNT_KEY);
+
+        if (preference != null) {
+            try {
+                return Math.max(1, Integer.parseInt(preference));
+            } catch (NumberFormatException e) {
+                assert ExceptionUtil.printStackTrace(e);
+            }
+        }
+
+        return ParallelIndexerPreferencesProvider.getDefaultWorkerCount();
+    }
+}
@@ -0,0 +1,497 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.util.decompiler;
+
+import org.jd.core.v1.api.loader.Loader;
+import org.jd.core.v1.service.converter.classfiletojavasyntax.util.ExceptionUtil;
+import org.jd.gui.api.model.Container;
+import org.jd.gui.util.loader.LoaderUtils;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.Opcodes;
+
+import com.heliosdecompiler.transformerapi.StandardTransformers;
+import com.heliosdecompiler.transformerapi.TransformationException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.objectweb.asm.ClassReader.SKIP_CODE;
+import static org.objectweb.asm.ClassReader.SKIP_DEBUG;
+import static org.objectweb.asm.ClassReader.SKIP_FRAMES;
+
+import jd.core.DecompilationResult;
+
+/**
+ * Cache of decompilation results, addressed by their content: the SHA-1 of the bytes of the class and of its
+ * inner classes, the engine name and the preferences read by the decompilers.<br>
+ * <br>
+ * The memory tier keeps the whole results, source, line numbers and links, and evicts the least recently used
+ * ones beyond {@link #MAXIMUM_MEMORY_WEIGHT}. The disk tier, enabled by {@link #setDirectory(File)}, keeps the
+ * gzipped sources with their line numbers: a result read from disk has no links, its users parse the source to
+ * make them. Disk files are evicted in least recently used order beyond {@link #MAXIMUM_DISK_SIZE}.
+ */
+public class DecompilationCache {
+    protected static final DecompilationCache DECOMPILATION_CACHE = new DecompilationCache();
+
+    public static DecompilationCache getInstance() { return DECOMPILATION_CACHE; }
+
+    protected static final int MAGIC = 0x4A44534F;
+    protected static final int FORMAT_VERSION = 2;
+    protected static final String CACHE_FILE_SUFFIX = ".src";
+    protected static final long MAXIMUM_MEMORY_WEIGHT = 64L * 1024L * 1024L;
+    protected static final long MAXIMUM_DISK_SIZE = 256L * 1024L * 1024L;
+    protected static final long ENTRY_WEIGHT = 64;
+    protected static final long LINK_WEIGHT = 64;
+
+    // Preferences of the user interface, indexers and source loaders, not read by the decompilers
+    protected static final String[] IGNORED_PREFERENCE_PREFIXES = {
+        "ViewerPreferences.", "JdGuiPreferences.", "UI", "DirectoryIndexerPreferences.", "ParallelIndexerPreferences.",
+        "IndexCachePreferences.", "MavenOrgSourceLoaderPreferencesProvider.", GuiPreferences.SHOW_COMPILER_ERRORS,
+        GuiPreferences.SHOW_COMPILER_WARNINGS, GuiPreferences.SHOW_COMPILER_INFO, GuiPreferences.REMOVE_UNNECESSARY_CASTS
+    };
+
+    private final LinkedHashMap<String, Node> map = new LinkedHashMap<>(16, 0.75F, true);
+    private long weight;
+    private long hitCount;
+    private long missCount;
+    private long diskHitCount;
+
+    private File directory;
+    // Size of the disk tier, -1 until computed
+    private long diskSize = -1;
+
+    /**
+     * Enable the disk tier, null to disable it.
+     */
+    public synchronized void setDirectory(File directory) {
+        this.directory = directory;
+        this.diskSize = -1;
+    }
+
+    /**
+     * @see StandardTransformers#decompile(com.heliosdecompiler.transformerapi.common.Loader, String, Map, String)
+     */
+    public DecompilationResult decompile(Map<String, String> preferences, ContainerLoader loader, Container.Entry entry, String internalName, String engineName) throws IOException, TransformationException, IllegalAccessException, InvocationTargetException {
+        URI jarURI = entry.getContainer().getRoot().getParent().getUri();
+        return decompile(preferences, loader, jarURI, internalName, engineName);
+    }
+
+    /**
+     * The result is shared: it must not be modified.
+     *
+     * @see StandardTransformers#decompile(com.heliosdecompiler.transformerapi.common.Loader, String, Map, String)
+     */
+    public DecompilationResult decompile(Map<String, String> preferences, Loader loader, URI jarURI, String internalName, String engineName) throws IOException, TransformationException, IllegalAccessException, InvocationTargetException {
+        String key = getLookupKey(preferences, loader, jarURI, internalName, engineName);
+
+        if (key != null) {
+            DecompilationResult decompilationResult = get(key);
+
+            if (decompilationResult != null) {
+                return decompilationResult;
+            }
+        }
+
+        DecompilationResult decompilationResult = StandardTransformers.decompile(LoaderUtils.createLoader(preferences, loader, jarURI), internalName, preferences, engineName);
+
+        if (key != null) {
+            put(key, decompilationResult);
+        }
+
+        return decompilationResult;
+    }
+
+    /**
+     * @return the key of the decompilation of the entry, null if the class can not be loaded
+     */
+    public static String getKey(Map<String, String> preferences, ContainerLoader loader, Container.Entry entry, String internalName, String engineName) {
+        URI jarURI = entry.getContainer().getRoot().getParent().getUri();
+        return getLookupKey(preferences, loader, jarURI, internalName, engineName);
+    }
+
+    protected static String getLookupKey(Map<String, String> preferences, Loader loader, URI jarURI, String internalName, String engineName) {
+        // The jar only changes the result when the classes are looked up in its directory
+        boolean advancedClassLookup = Boolean.parseBoolean(preferences.getOrDefault(GuiPreferences.ADVANCED_CLASS_LOOKUP, Boolean.FALSE.toString()));
+        return getKey(preferences, loader, advancedClassLookup ? jarURI : null, internalName, engineName);
+    }
+
+    protected DecompilationResult get(String key) {
+        synchronized (this) {
+            Node node = map.get(key);
+
+            if (node != null) {
+                hitCount++;
+                return node.decompilationResult;
+            }
+
+            missCount++;
+        }
+
+        DecompilationResult decompilationResult = readResult(key);
+
+        if (decompilationResult == null) {
+            return null;
+        }
+
+        synchronized (this) {
+            diskHitCount++;
+            putInMemory(key, decompilationResult);
+        }
+
+        return decompilationResult;
+    }
+
+    protected void put(String key, DecompilationResult decompilationResult) {
+        if (decompilationResult.getDecompiledOutput() != null) {
+            synchronized (this) {
+                putInMemory(key, decompilationResult);
+            }
+            writeResult(key, decompilationResult);
+        }
+    }
+
+    protected void putInMemory(String key, DecompilationResult decompilationResult) {
+        Node node = new Node(decompilationResult, weigh(decompilationResult));
+        Node previous = map.put(key, node);
+
+        if (previous != null) {
+            weight -= previous.weight;
+        }
+
+        weight += node.weight;
+
+        // Evict the least recently used results
+        Iterator<Node> iterator = map.values().iterator();
+
+        while (weight > MAXIMUM_MEMORY_WEIGHT && iterator.hasNext()) {
+            weight -= iterator.next().weight;
+            iterator.remove();
+        }
+    }
+
+    public synchronized void clear() {
+        map.clear();
+        weight = 0;
+    }
+
+    public synchronized int size() { return map.size(); }
+    public synchronized long getWeight() { return weight; }
+    public synchronized long getHitCount() { return hitCount; }
+    public synchronized long getMissCount() { return missCount; }
+    public synchronized long getDiskHitCount() { return diskHitCount; }
+
+    @Override
+    public synchronized String toString() {
+        return "DecompilationCache{size=" + map.size() + ", weight=" + weight + '/' + MAXIMUM_MEMORY_WEIGHT + ", hits=" + hitCount + ", misses=" + missCount + ", diskHits=" + diskHitCount + '}';
+    }
+
+    /**
+     * @return the approximate retained size of a result: its source and its links
+     */
+    protected static long weigh(DecompilationResult decompilationResult) {
+        String source = decompilationResult.getDecompiledOutput();
+        long links = (long) decompilationResult.getHyperlinks().size() + decompilationResult.getReferences().size() +
+                decompilationResult.getDeclarations().size() + decompilationResult.getStrings().size() + decompilationResult.getLineNumbers().size();
+        return ENTRY_WEIGHT + 2L * (source == null ? 0 : source.length()) + LINK_WEIGHT * links;
+    }
+
+    /**
+     * @return the SHA-1 of the bytes of the class and its inner classes, the engine and the decompiler preferences;
+     *         null if the class can not be loaded
+     */
+    protected static String getKey(Map<String, String> preferences, Loader loader, URI jarURI, String internalName, String engineName) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-1");
+
+            update(messageDigest, Integer.toString(FORMAT_VERSION));
+            update(messageDigest, engineName);
+            update(messageDigest, jarURI == null ? "" : jarURI.toString());
+
+            for (Map.Entry<String, String> preference : new TreeMap<>(preferences).entrySet()) {
+                if (!isIgnored(preference.getKey())) {
+                    update(messageDigest, preference.getKey());
+                    update(messageDigest, String.valueOf(preference.getValue()));
+                }
+            }
+
+            // Class and inner classes, in the order of their discovery
+            List<String> internalNames = new ArrayList<>();
+            Set<String> visited = new HashSet<>();
+
+            internalNames.add(internalName);
+            visited.add(internalName);
+
+            for (int i = 0; i < internalNames.size(); i++) {
+                String name = internalNames.get(i);
+                byte[] data = loader.canLoad(name) ? loader.load(name) : null;
+
+                if (data == null) {
+                    if (i == 0) {
+                        return null;
+                    }
+                    update(messageDigest, name);
+                } else {
+                    update(messageDigest, name);
+                    messageDigest.update(data);
+
+                    for (String innerName : getInnerClassNames(name, data)) {
+                        if (visited.add(innerName)) {
+                            internalNames.add(innerName);
+                        }
+                    }
+                }
+            }
+
+            StringBuilder sb = new StringBuilder();
+
+            for (byte b : messageDigest.digest()) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+
+            return sb.toString();
+        } catch (IOException | NoSuchAlgorithmException | RuntimeException e) {
+            assert ExceptionUtil.printStackTrace(e);
+            return null;
+        }
+    }
+
+    protected static boolean isIgnored(String preferenceKey) {
+        for (String prefix : IGNORED_PREFERENCE_PREFIXES) {
+            if (preferenceKey.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    protected static void update(MessageDigest messageDigest, String s) {
+        messageDigest.update(s.getBytes(StandardCharsets.UTF_8));
+        messageDigest.update((byte) 0);
+    }
+
+    /**
+     * @return the inner classes declared by the class, from its 'InnerClasses' attribute
+     */
+    protected static List<String> getInnerClassNames(String internalName, byte[] data) {
+        List<String> innerNames = new ArrayList<>();
+        String prefix = internalName + '$';
+
+        new ClassReader(data).accept(new ClassVisitor(Opcodes.ASM9) {
+            @Override
+            public void visitInnerClass(String name, String outerName, String innerName, int access) {
+                if (internalName.equals(outerName) || (outerName == null && name.startsWith(prefix))) {
+                    innerNames.add(name);
+                }
+            }
+        }, SKIP_CODE | SKIP_DEBUG | SKIP_FRAMES);
+
+        return innerNames;
+    }
+
+    // --- Disk tier --- //
+    /**
+     * File format: magic, version, key, maximum line number, number of line numbers, pairs of line number and
+     * original line number, length and UTF-8 bytes of the source; gzipped.
+     *
+     * @return the source and the line numbers of the result, without links, or null
+     */
+    protected DecompilationResult readResult(String key) {
+        File cacheFile = getCacheFile(key);
+
+        if (cacheFile == null || !cacheFile.isFile()) {
+            return null;
+        }
+
+        DecompilationResult decompilationResult = null;
+
+        try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(cacheFile))))) {
+            if (dis.readInt() == MAGIC && dis.readInt() == FORMAT_VERSION && key.equals(dis.readUTF())) {
+                DecompilationResult result = new DecompilationResult();
+                result.setMaxLineNumber(dis.readInt());
+
+                Map<Integer, Integer> lineNumbers = result.getLineNumbers();
+
+                for (int i = dis.readInt(); i > 0; i--) {
+                    int lineNumber = dis.readInt();
+                    lineNumbers.put(lineNumber, dis.readInt());
+                }
+
+                byte[] bytes = new byte[dis.readInt()];
+                dis.readFully(bytes);
+                result.setDecompiledOutput(new String(bytes, StandardCharsets.UTF_8));
+                decompilationResult = result;
+            }
+        } catch (IOException | RuntimeException e) {
+            assert ExceptionUtil.printStackTrace(e);
+        }
+
+        synchronized (this) {
+            if (decompilationResult == null) {
+                // Corrupted or older format
+                deleteQuietly(cacheFile);
+            } else if (!cacheFile.setLastModified(System.currentTimeMillis())) {
+                assert ExceptionUtil.printStackTrace(new IOException("Unable to touch " + cacheFile));
+            }
+        }
+
+        return decompilationResult;
+    }
+
+    protected void writeResult(String key, DecompilationResult decompilationResult) {
+        File cacheFile = getCacheFile(key);
+
+        if (cacheFile == null) {
+            return;
+        }
+
+        File parentFile = cacheFile.getParentFile();
+        File tmpFile = new File(parentFile, cacheFile.getName() + '.' + Thread.currentThread().getId() + ".tmp");
+
+        try {
+            Files.createDirectories(parentFile.toPath());
+
+            try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(tmpFile))))) {
+                Map<Integer, Integer> lineNumbers = decompilationResult.getLineNumbers();
+                byte[] bytes = decompilationResult.getDecompiledOutput().getBytes(StandardCharsets.UTF_8);
+
+                dos.writeInt(MAGIC);
+                dos.writeInt(FORMAT_VERSION);
+                dos.writeUTF(key);
+                dos.writeInt(decompilationResult.getMaxLineNumber());
+                dos.writeInt(lineNumbers.size());
+
+                for (Map.Entry<Integer, Integer> lineNumber : lineNumbers.entrySet()) {
+                    dos.writeInt(lineNumber.getKey());
+                    dos.writeInt(lineNumber.getValue());
+                }
+
+                dos.writeInt(bytes.length);
+                dos.write(bytes);
+            }
+
+            synchronized (this) {
+                long previousLength = cacheFile.length();
+                Files.move(tmpFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+                if (diskSize != -1) {
+                    diskSize += cacheFile.length() - previousLength;
+                }
+
+                evict();
+            }
+        } catch (IOException e) {
+            assert ExceptionUtil.printStackTrace(e);
+            deleteQuietly(tmpFile);
+        }
+    }
+
+    /**
+     * Evict the least recently used files, down to 3/4 of the maximum size. To call in a synchronized block.
+     */
+    protected void evict() {
+        List<File> files = listCacheFiles();
+
+        if (diskSize == -1) {
+            diskSize = 0;
+
+            for (File file : files) {
+                diskSize += file.length();
+            }
+        }
+
+        if (diskSize > MAXIMUM_DISK_SIZE) {
+            // Least recently used first
+            files.sort(Comparator.comparingLong(File::lastModified));
+
+            for (File file : files) {
+                if (diskSize <= MAXIMUM_DISK_SIZE * 3 / 4) {
+                    break;
+                }
+
+                long length = file.length();
+
+                if (file.delete()) {
+                    diskSize -= length;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the cache files, if the size of the disk tier is unknown or too large. To call in a synchronized block.
+     */
+    protected List<File> listCacheFiles() {
+        List<File> files = new ArrayList<>();
+
+        if (directory != null && (diskSize == -1 || diskSize > MAXIMUM_DISK_SIZE)) {
+            File[] subDirectories = directory.listFiles(File::isDirectory);
+
+            if (subDirectories != null) {
+                for (File subDirectory : subDirectories) {
+                    File[] subFiles = subDirectory.listFiles((dir, name) -> name.endsWith(CACHE_FILE_SUFFIX));
+
+                    if (subFiles != null) {
+                        files.addAll(List.of(subFiles));
+                    }
+                }
+            }
+        }
+
+        return files;
+    }
+
+    /**
+     * @return the file of the key, in a sub directory named after the first characters of the key
+     */
+    protected synchronized File getCacheFile(String key) {
+        return directory == null ? null : new File(new File(directory, key.substring(0, 2)), key.substring(2) + CACHE_FILE_SUFFIX);
+    }
+
+    protected static void deleteQuietly(File file) {
+        try {
+            Files.deleteIfExists(file.toPath());
+        } catch (IOException e) {
+            assert ExceptionUtil.printStackTrace(e);
+        }
+    }
+
+    protected static class Node {
+        private final DecompilationResult decompilationResult;
+        private final long weight;
+
+        public Node(DecompilationResult decompilationResult, long weight) {
+            this.decompilationResult = decompilationResult;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.util.decompiler;
+
+import org.jd.core.v1.service.converter.classfiletojavasyntax.util.ExceptionUtil;
+import org.jd.core.v1.util.StringConstants;
+import org.jd.gui.api.model.Container;
+import org.jd.gui.api.model.Indexes;
+import org.jd.gui.util.index.IndexesUtil;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import static com.heliosdecompiler.transformerapi.StandardTransformers.Decompilers.ENGINE_JD_CORE_V1;
+import static org.jd.gui.util.decompiler.GuiPreferences.DECOMPILE_ENGINE;
+
+import jd.core.ClassUtil;
+import jd.core.links.ReferenceData;
+
+/**
+ * Decompiles the classes likely to be opened next into the {@link DecompilationCache}, on a single thread of
+ * minimum priority.<br>
+ * <br>
+ * A new request cancels the previous one. The prefetcher waits while a page is decompiling and for
+ * {@link #IDLE_DELAY} ms after, and stops when less than {@link #MINIMUM_FREE_MEMORY_RATIO} of the heap is free.
+ */
+public class DecompilationPrefetcher {
+    protected static final DecompilationPrefetcher DECOMPILATION_PREFETCHER = new DecompilationPrefetcher();
+
+    public static DecompilationPrefetcher getInstance() { return DECOMPILATION_PREFETCHER; }
+
+    public static final int MAXIMUM_CLASS_COUNT = 8;
+
+    protected static final long IDLE_DELAY = 500;
+    protected static final double MINIMUM_FREE_MEMORY_RATIO = 0.25;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "decompilation-prefetcher");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+    // Generation of the request, incremented to cancel the previous one
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicInteger busyCount = new AtomicInteger();
+    private volatile long lastActivityTime;
+
+    /**
+     * Pause the prefetch while the user waits for a decompilation.
+     */
+    public void busy() {
+        busyCount.incrementAndGet();
+        lastActivityTime = System.currentTimeMillis();
+    }
+
+    public void idle() {
+        busyCount.decrementAndGet();
+        lastActivityTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Decompile the entries supplied in the background, in their order.
+     */
+    public void prefetch(Map<String, String> preferences, Supplier<Collection<Container.Entry>> entriesSupplier) {
+        long currentGeneration = generation.incrementAndGet();
+        BooleanSupplier isCancelledFunction = () -> generation.get() != currentGeneration;
+
+        executor.schedule(new PrefetchTask(preferences, entriesSupplier, isCancelledFunction), IDLE_DELAY, TimeUnit.MILLISECONDS);
+    }
+
+    public void cancel() {
+        generation.incrementAndGet();
+    }
+
+    protected boolean isBusy() {
+        return busyCount.get() > 0 || System.currentTimeMillis() - lastActivityTime < IDLE_DELAY;
+    }
+
+    protected static boolean isMemoryLow() {
+        Runtime runtime = Runtime.getRuntime();
+        long maxMemory = runtime.maxMemory();
+        long usedMemory = runtime.totalMemory() - runtime.freeMemory();
+        return maxMemory - usedMemory < maxMemory * MINIMUM_FREE_MEMORY_RATIO;
+    }
+
+    /**
+     * @return the top level classes referenced by the page, most referenced first, and the classes following the
+     *         entry in its package, at most {@link #MAXIMUM_CLASS_COUNT}
+     */
+    public static List<Container.Entry> getLikelyNextEntries(Container.Entry entry, Collection<Future<Indexes>> collectionOfFutureIndexes, Collection<ReferenceData> references) {
+        String internalTypeName = ClassUtil.getInternalName(entry.getPath());
+        Map<String, Integer> referenceCounts = new HashMap<>();
+
+        for (ReferenceData reference : references) {
+            String typeName = reference.getTypeName();
+
+            if (typeName != null) {
+                int index = typeName.indexOf('$');
+                String topLevelTypeName = index == -1 ? typeName : typeName.substring(0, index);
+
+                if (!topLevelTypeName.equals(internalTypeName)) {
+                    referenceCounts.merge(topLevelTypeName, 1, Integer::sum);
+                }
+            }
+        }
+
+        List<String> referencedTypeNames = new ArrayList<>(referenceCounts.keySet());
+        referencedTypeNames.sort((a, b) -> referenceCounts.get(b) - referenceCounts.get(a));
+
+        Set<Container.Entry> referencedEntries = new LinkedHashSet<>();
+
+        for (String typeName : referencedTypeNames) {
+            if (referencedEntries.size() == MAXIMUM_CLASS_COUNT) {
+                break;
+            }
+
+            Container.Entry referencedEntry = selectEntry(IndexesUtil.findInternalTypeName(collectionOfFutureIndexes, typeName), entry.getContainer());
+
+            if (referencedEntry != null) {
+                referencedEntries.add(referencedEntry);
+            }
+        }
+
+        // Half referenced classes, half following classes of the package
+        Set<Container.Entry> entries = new LinkedHashSet<>();
+        List<Container.Entry> siblingEntries = getFollowingSiblingEntries(entry);
+        int referencedCount = Math.max(MAXIMUM_CLASS_COUNT / 2, MAXIMUM_CLASS_COUNT - siblingEntries.size());
+
+        for (Container.Entry referencedEntry : referencedEntries) {
+            if (entries.size() == referencedCount) {
+                break;
+            }
+            entries.add(referencedEntry);
+        }
+        for (Container.Entry siblingEntry : siblingEntries) {
+            if (entries.size() == MAXIMUM_CLASS_COUNT) {
+                break;
+            }
+            entries.add(siblingEntry);
+        }
+
+        return new ArrayList<>(entries);
+    }
+
+    protected static Container.Entry selectEntry(List<Container.Entry> entries, Container preferredContainer) {
+        for (Container.Entry e : entries) {
+            if (e.getContainer() == preferredContainer) {
+                return e;
+            }
+        }
+        return entries.isEmpty() ? null : entries.get(0);
+    }
+
+    /**
+     * @return the top level classes of the package of the entry, following it then preceding it
+     */
+    protected static List<Container.Entry> getFollowingSiblingEntries(Container.Entry entry) {
+        List<Container.Entry> siblingEntries = new ArrayList<>();
+        Container.Entry parent = entry.getParent();
+
+        if (parent != null) {
+            for (Container.Entry e : parent.getChildren().values()) {
+                String path = e.getPath();
+
+                if (!e.isDirectory() && path.endsWith(StringConstants.CLASS_FILE_SUFFIX) && path.indexOf('$', path.lastIndexOf('/') + 1) == -1) {
+                    siblingEntries.add(e);
+                }
+            }
+        }
+
+        siblingEntries.sort((a, b) -> a.getPath().compareTo(b.getPath()));
+
+        int index = siblingEntries.indexOf(entry);
+        List<Container.Entry> followingEntries = new ArrayList<>(siblingEntries.subList(index + 1, siblingEntries.size()));
+
+        if (index > 0) {
+            followingEntries.addAll(siblingEntries.subList(0, index));
+        }
+
+        return followingEntries;
+    }
+
+    protected class PrefetchTask implements Runnable {
+        private final Map<String, String> preferences;
+        private final Supplier<Collection<Container.Entry>> entriesSupplier;
+        private final BooleanSupplier isCancelledFunction;
+        private Deque<Container.Entry> entries;
+
+        public PrefetchTask(Map<String, String> preferences, Supplier<Collection<Container.Entry>> entriesSupplier, BooleanSupplier isCancelledFunction) {
+            this.preferences = preferences;
+            this.entriesSupplier = entriesSupplier;
+            this.isCancelledFunction = isCancelledFunction;
+        }
+
+        @Override
+        public void run() {
+            if (entries == null && !isCancelledFunction.getAsBoolean()) {
+                entries = new ArrayDeque<>(entriesSupplier.get());
+            }
+
+            String engineName = preferences.getOrDefault(DECOMPILE_ENGINE, ENGINE_JD_CORE_V1);
+
+            while (entries != null && !entries.isEmpty() && !isCancelledFunction.getAsBoolean() && !isMemoryLow()) {
+                if (isBusy()) {
+                    // Back off
+                    executor.schedule(this, IDLE_DELAY, TimeUnit.MILLISECONDS);
+                    return;
+                }
+
+                Container.Entry entry = entries.poll();
+
+                try {
+                    String entryInternalName = ClassUtil.getInternalName(entry.getPath());
+                    DecompilationCache.getInstance().decompile(preferences, new ContainerLoader(entry), entry, entryInternalName, engineName);
+                } catch (Exception e) {
+                    assert ExceptionUtil.printStackTrace(e);
+                }
+            }
+        }
+    }
+}
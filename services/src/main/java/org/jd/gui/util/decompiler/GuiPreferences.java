@@ -10,6 +10,8 @@ package org.jd.gui.util.decompiler;
 public final class GuiPreferences {
 
     public static final String MAXIMUM_DEPTH_KEY        = "DirectoryIndexerPreferences.maximumDepth";
+    public static final String INDEXER_WORKER_COUNT_KEY = "ParallelIndexerPreferences.workerCount";
+    public static final String INDEX_CACHE_MAX_SIZE_KEY = "IndexCachePreferences.maximumSize";
     public static final String FONT_SIZE_KEY            = "ViewerPreferences.fontSize";
     public static final String ERROR_BACKGROUND_COLOR   = "JdGuiPreferences.errorBackgroundColor";
     public static final String DECOMPILE_ENGINE         = "ClassFileDecompilerPreferences.decompileEngine";
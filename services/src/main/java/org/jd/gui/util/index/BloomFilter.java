@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.util.index;
+
+import java.util.function.IntFunction;
+
+/**
+ * Membership sketch over the keys of an index: 'false' means the key is absent, 'true' means the key may be
+ * present and must be verified.<br>
+ * <br>
+ * Filters use 10 to 20 bits per key and 7 probes, so about 1% of absent keys are reported as present. Keys
+ * are hashed once with {@link #hash(String)}, the same hash can be tested against several filters.
+ */
+public final class BloomFilter {
+    protected static final int BITS_PER_KEY = 10;
+    protected static final int PROBE_COUNT = 7;
+    protected static final long MAX_BIT_COUNT = 1L << 27;
+
+    private final long[] bits;
+    private final int bitMask;
+
+    /**
+     * @param keyCount expected number of keys
+     */
+    public BloomFilter(int keyCount) {
+        int bitCount = (int)Math.min(MAX_BIT_COUNT, Long.highestOneBit(Math.max(64L, (long)keyCount * BITS_PER_KEY)) << 1);
+
+        bits = new long[bitCount >>> 6];
+        bitMask = bitCount - 1;
+    }
+
+    /**
+     * @param keys     key at a position
+     * @param keyCount number of keys
+     */
+    public BloomFilter(IntFunction<String> keys, int keyCount) {
+        this(keyCount);
+
+        for (int position = 0; position < keyCount; position++) {
+            add(hash(keys.apply(position)));
+        }
+    }
+
+    public void add(String key) {
+        add(hash(key));
+    }
+
+    public void add(long hash) {
+        int h1 = (int)hash;
+        int h2 = (int)(hash >>> 32) | 1;
+
+        for (int i = 0; i < PROBE_COUNT; i++) {
+            int bit = (h1 + i * h2) & bitMask;
+            bits[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    /**
+     * Add the keys of another filter. The bits of a larger filter are folded, the bits of a smaller filter are
+     * repeated, so that every key of the other filter is reported as present without hashing it again.
+     */
+    public void addAll(BloomFilter other) {
+        long[] otherBits = other.bits;
+
+        if (otherBits.length >= bits.length) {
+            int wordMask = bits.length - 1;
+
+            for (int i = 0; i < otherBits.length; i++) {
+                bits[i & wordMask] |= otherBits[i];
+            }
+        } else {
+            int otherWordMask = otherBits.length - 1;
+
+            for (int i = 0; i < bits.length; i++) {
+                bits[i] |= otherBits[i & otherWordMask];
+            }
+        }
+    }
+
+    public boolean mightContain(String key) {
+        return mightContain(hash(key));
+    }
+
+    public boolean mightContain(long hash) {
+        int h1 = (int)hash;
+        int h2 = (int)(hash >>> 32) | 1;
+
+        for (int i = 0; i < PROBE_COUNT; i++) {
+            int bit = (h1 + i * h2) & bitMask;
+
+            if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return a 64 bits FNV-1a hash of the characters of the key, with a final mix
+     */
+    public static long hash(String key) {
+        long hash = 0xCBF29CE484222325L;
+        int length = key.length();
+
+        for (int i = 0; i < length; i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
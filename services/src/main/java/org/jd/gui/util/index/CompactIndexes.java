@@ -0,0 +1,353 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.util.index;
+
+import org.jd.gui.api.model.Container;
+import org.jd.gui.api.model.Indexes;
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * Read-only indexes backed by primitive arrays.<br>
+ * <br>
+ * All keys and string values of all indexes of a container share one sorted string table, entries are
+ * referenced by int ids, and the values of each key are stored as a slice of a single int array. A value
+ * id is either an entry id (&gt;= 0) or the complement of a string id (&lt; 0).<br>
+ * <br>
+ * Maps returned by {@link #getIndex(String)} follow the contract of the mutable indexes: 'get' returns
+ * null for unknown keys, values are unmodifiable collections.
+ */
+public final class CompactIndexes implements Indexes {
+    private final String[] strings;
+    private final Container.Entry[] entries;
+    private final Map<String, Index> indexes;
+    private volatile TypeNameIndex typeNameIndex;
+
+    private CompactIndexes(String[] strings, Container.Entry[] entries, Map<String, Index> indexes) {
+        this.strings = strings;
+        this.entries = entries;
+        this.indexes = indexes;
+    }
+
+    /**
+     * Copy mutable indexes into compact indexes.
+     *
+     * @param map index name to index, values must contain only entries and strings
+     * @throws IllegalArgumentException if a value is neither a {@link Container.Entry} nor a {@link String}
+     */
+    @SuppressWarnings("rawtypes")
+    public static CompactIndexes freeze(Map<String, Map<String, Collection>> map) {
+        // Build the shared string table and the entry table
+        Set<String> stringSet = new HashSet<>();
+        Map<Container.Entry, Integer> entryIds = new HashMap<>();
+
+        for (Map<String, Collection> index : map.values()) {
+            for (Map.Entry<String, Collection> mapEntry : index.entrySet()) {
+                stringSet.add(mapEntry.getKey());
+
+                for (Object value : mapEntry.getValue()) {
+                    if (value instanceof Container.Entry) {
+                        entryIds.putIfAbsent((Container.Entry) value, entryIds.size());
+                    } else if (value instanceof String) {
+                        stringSet.add((String) value);
+                    } else {
+                        throw new IllegalArgumentException("Unsupported index value: " + value);
+                    }
+                }
+            }
+        }
+
+        String[] strings = stringSet.toArray(new String[stringSet.size()]);
+        Arrays.parallelSort(strings);
+
+        Container.Entry[] entries = new Container.Entry[entryIds.size()];
+
+        for (Map.Entry<Container.Entry, Integer> mapEntry : entryIds.entrySet()) {
+            entries[mapEntry.getValue()] = mapEntry.getKey();
+        }
+
+        // Build indexes
+        Map<String, Index> indexes = new HashMap<>(map.size() * 2);
+        CompactIndexes compactIndexes = new CompactIndexes(strings, entries, indexes);
+
+        for (Map.Entry<String, Map<String, Collection>> mapEntry : map.entrySet()) {
+            indexes.put(mapEntry.getKey(), compactIndexes.new Index(mapEntry.getValue(), entryIds));
+        }
+
+        return compactIndexes;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Map<String, Collection> getIndex(String name) {
+        return indexes.get(name);
+    }
+
+    /**
+     * @return the sorted string table shared by all indexes
+     */
+    public String[] getStrings() {
+        return strings;
+    }
+
+    /**
+     * @return the id of the string in the shared string table or a negative value
+     */
+    public int getStringId(String string) {
+        return Arrays.binarySearch(strings, string);
+    }
+
+    /**
+     * @return the index of the keys of 'typeDeclarations', built on first use
+     */
+    public TypeNameIndex getTypeNameIndex() {
+        TypeNameIndex result = typeNameIndex;
+
+        if (result == null) {
+            synchronized (this) {
+                result = typeNameIndex;
+
+                if (result == null) {
+                    Index index = indexes.get("typeDeclarations");
+                    typeNameIndex = result = new TypeNameIndex(index == null ? Collections.emptySet() : index.keySet());
+                }
+            }
+        }
+
+        return result;
+    }
+
+    public int getEntryCount() {
+        return entries.length;
+    }
+
+    public Container.Entry getEntry(int entryId) {
+        return entries[entryId];
+    }
+
+    private Object decode(int valueId) {
+        return valueId >= 0 ? entries[valueId] : strings[~valueId];
+    }
+
+    /**
+     * Build the trigram indexes of some indexes now, instead of on first use.
+     */
+    public void buildTrigramIndexes(String... indexNames) {
+        for (String indexName : indexNames) {
+            Index index = indexes.get(indexName);
+
+            if (index != null) {
+                index.getTrigramIndex();
+            }
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    public final class Index extends AbstractMap<String, Collection> {
+        // Sorted string ids of the keys, so keys are sorted too
+        private final int[] keyIds;
+        // Values of key i are postings[offsets[i]] .. postings[offsets[i+1]-1]
+        private final int[] offsets;
+        private final int[] postings;
+        private volatile TrigramIndex trigramIndex;
+        private volatile BloomFilter bloomFilter;
+
+        private Index(Map<String, Collection> index, Map<Container.Entry, Integer> entryIds) {
+            String[] keys = index.keySet().toArray(new String[index.size()]);
+            Arrays.sort(keys);
+
+            int postingCount = 0;
+
+            for (Collection values : index.values()) {
+                postingCount += values.size();
+            }
+
+            keyIds = new int[keys.length];
+            offsets = new int[keys.length + 1];
+            postings = new int[postingCount];
+
+            int offset = 0;
+
+            for (int i = 0; i < keys.length; i++) {
+                keyIds[i] = getStringId(keys[i]);
+                offsets[i] = offset;
+
+                for (Object value : index.get(keys[i])) {
+                    postings[offset++] = value instanceof Container.Entry ? entryIds.get(value) : ~getStringId((String) value);
+                }
+            }
+
+            offsets[keys.length] = offset;
+        }
+
+        /**
+         * @return the position of the key in this index or a negative value
+         */
+        public int indexOfKey(Object key) {
+            if (key instanceof String) {
+                int stringId = getStringId((String) key);
+
+                if (stringId >= 0) {
+                    return Arrays.binarySearch(keyIds, stringId);
+                }
+            }
+            return -1;
+        }
+
+        public String getKey(int position) {
+            return strings[keyIds[position]];
+        }
+
+        public Collection getValues(int position) {
+            return new Values(offsets[position], offsets[position + 1]);
+        }
+
+        /**
+         * @return the trigram index over the keys of this index, built on first use
+         */
+        public TrigramIndex getTrigramIndex() {
+            TrigramIndex result = trigramIndex;
+
+            if (result == null) {
+                synchronized (this) {
+                    result = trigramIndex;
+
+                    if (result == null) {
+                        trigramIndex = result = new TrigramIndex(this::getKey, keyIds.length);
+                    }
+                }
+            }
+
+            return result;
+        }
+
+        /**
+         * @return the trigram index over the keys of this index if it was built, null otherwise
+         */
+        public TrigramIndex getBuiltTrigramIndex() {
+            return trigramIndex;
+        }
+
+        /**
+         * @return the membership sketch of the keys of this index, built on first use
+         */
+        public BloomFilter getBloomFilter() {
+            BloomFilter result = bloomFilter;
+
+            if (result == null) {
+                synchronized (this) {
+                    result = bloomFilter;
+
+                    if (result == null) {
+                        bloomFilter = result = new BloomFilter(this::getKey, keyIds.length);
+                    }
+                }
+            }
+
+            return result;
+        }
+
+        @Override
+        public Collection get(Object key) {
+            int position = indexOfKey(key);
+            return position >= 0 ? getValues(position) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return indexOfKey(key) >= 0;
+        }
+
+        @Override
+        public int size() {
+            return keyIds.length;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return keyIds.length == 0;
+        }
+
+        @Override
+        public Set<Map.Entry<String, Collection>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Map.Entry<String, Collection>> iterator() {
+                    return new Iterator<>() {
+                        private int position;
+
+                        @Override
+                        public boolean hasNext() {
+                            return position < keyIds.length;
+                        }
+
+                        @Override
+                        public Map.Entry<String, Collection> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            Map.Entry<String, Collection> mapEntry = new SimpleImmutableEntry<>(getKey(position), getValues(position));
+                            position++;
+                            return mapEntry;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return keyIds.length;
+                }
+            };
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+
+        protected final class Values extends AbstractList<Object> implements RandomAccess {
+            private final int fromIndex;
+            private final int toIndex;
+
+            private Values(int fromIndex, int toIndex) {
+                this.fromIndex = fromIndex;
+                this.toIndex = toIndex;
+            }
+
+            @Override
+            public Object get(int index) {
+                if (index < 0 || index >= size()) {
+                    throw new IndexOutOfBoundsException(index);
+                }
+                return decode(postings[fromIndex + index]);
+            }
+
+            @Override
+            public int size() {
+                return toIndex - fromIndex;
+            }
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.util.index;
+
+import org.jd.core.v1.service.converter.classfiletojavasyntax.util.ExceptionUtil;
+import org.jd.gui.api.model.Indexes;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.function.ToLongFunction;
+
+/**
+ * Thread safe cache of search results, keyed by the instance of the searched indexes and a string.<br>
+ * <br>
+ * Entries are evicted in least recently used order once the sum of their weights, an approximate retained size
+ * in bytes, exceeds the maximum weight. A result heavier than the maximum weight is not stored.<br>
+ * <br>
+ * Indexes are compared by identity and weakly referenced: the entries of collected indexes are dropped. Results
+ * must not reference their indexes, e.g. {@link CompactIndexes} maps and values, else the indexes never become
+ * weakly reachable: store copies, like the matching keys. {@link #retainIndexes(Collection)} drops the entries of
+ * closed containers without waiting for the garbage collector.
+ */
+public class IndexesResultCache<V> {
+    protected static final long ENTRY_WEIGHT = 48;
+    protected static final long ELEMENT_WEIGHT = 16;
+
+    private final long maxWeight;
+    private final ToLongFunction<V> weigher;
+    private final LinkedHashMap<Key, Node<V>> map = new LinkedHashMap<>(16, 0.75F, true);
+    private final ReferenceQueue<Indexes> queue = new ReferenceQueue<>();
+
+    private long weight;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    /**
+     * @param maxWeight maximum sum of the weights of the entries
+     * @param weigher   approximate retained size of a value, in bytes
+     */
+    public IndexesResultCache(long maxWeight, ToLongFunction<V> weigher) {
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+    }
+
+    /**
+     * @return the approximate retained size of a result map: its nodes and the elements of its collections
+     */
+    @SuppressWarnings("rawtypes")
+    public static long weigh(Map<String, Collection> map) {
+        long w = ENTRY_WEIGHT;
+
+        for (Collection collection : map.values()) {
+            w += ENTRY_WEIGHT + ELEMENT_WEIGHT * collection.size();
+        }
+
+        return w;
+    }
+
+    /**
+     * @return the approximate retained size of an array of keys, the keys being shared with the indexes
+     */
+    public static long weighKeys(String[] keys) {
+        return ELEMENT_WEIGHT + 4L * keys.length;
+    }
+
+    public synchronized V get(Indexes indexes, String key) {
+        expungeStaleEntries();
+
+        Node<V> node = map.get(new Key(indexes, key, null));
+
+        if (node == null) {
+            missCount++;
+            return null;
+        }
+
+        hitCount++;
+        return node.value;
+    }
+
+    public synchronized void put(Indexes indexes, String key, V value) {
+        expungeStaleEntries();
+
+        long valueWeight = ENTRY_WEIGHT + weigher.applyAsLong(value);
+        Node<V> previous = map.remove(new Key(indexes, key, null));
+
+        if (previous != null) {
+            weight -= previous.weight;
+        }
+
+        if (valueWeight <= maxWeight) {
+            map.put(new Key(indexes, key, queue), new Node<>(value, valueWeight));
+            weight += valueWeight;
+
+            // Evict the least recently used entries
+            Iterator<Node<V>> iterator = map.values().iterator();
+
+            while (weight > maxWeight && iterator.hasNext()) {
+                weight -= iterator.next().weight;
+                iterator.remove();
+                evictionCount++;
+            }
+        }
+    }
+
+    /**
+     * Drop the entries of the indexes not in the given collection.
+     */
+    public synchronized void retainAll(Collection<Indexes> indexes) {
+        Set<Indexes> set = Collections.newSetFromMap(new IdentityHashMap<>());
+        set.addAll(indexes);
+
+        Iterator<Map.Entry<Key, Node<V>>> iterator = map.entrySet().iterator();
+
+        while (iterator.hasNext()) {
+            Map.Entry<Key, Node<V>> entry = iterator.next();
+
+            if (!set.contains(entry.getKey().get())) {
+                weight -= entry.getValue().weight;
+                iterator.remove();
+            }
+        }
+
+        expungeStaleEntries();
+    }
+
+    /**
+     * Drop the entries of the indexes not in the given collection, waiting for none.
+     */
+    public void retainIndexes(Collection<Future<Indexes>> collectionOfFutureIndexes) {
+        try {
+            retainAll(IndexesUtil.getDoneIndexes(collectionOfFutureIndexes));
+        } catch (InterruptedException e) {
+            assert ExceptionUtil.printStackTrace(e);
+            // Restore interrupted state...
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            assert ExceptionUtil.printStackTrace(e);
+        }
+    }
+
+    public synchronized void clear() {
+        map.clear();
+        weight = 0;
+        expungeStaleEntries();
+    }
+
+    public synchronized int size() { return map.size(); }
+    public synchronized long getWeight() { return weight; }
+    public long getMaxWeight() { return maxWeight; }
+    public synchronized long getHitCount() { return hitCount; }
+    public synchronized long getMissCount() { return missCount; }
+    public synchronized long getEvictionCount() { return evictionCount; }
+
+    @Override
+    public synchronized String toString() {
+        return "IndexesResultCache{size=" + map.size() + ", weight=" + weight + '/' + maxWeight + ", hits=" + hitCount + ", misses=" + missCount + ", evictions=" + evictionCount + '}';
+    }
+
+    protected void expungeStaleEntries() {
+        Object reference;
+
+        while ((reference = queue.poll()) != null) {
+            Node<V> node = map.remove(reference);
+
+            if (node != null) {
+                weight -= node.weight;
+            }
+        }
+    }
+
+    protected static class Key extends WeakReference<Indexes> {
+        private final String key;
+        private final int hash;
+
+        public Key(Indexes indexes, String key, ReferenceQueue<Indexes> queue) {
+            super(indexes, queue);
+            this.key = key;
+            this.hash = 31 * System.identityHashCode(indexes) + key.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || obj.getClass() != getClass()) {
+                return false;
+            }
+            Key other = (Key) obj;
+            Indexes indexes = get();
+            return indexes != null && indexes == other.get() && key.equals(other.key);
+        }
+    }
+
+    protected static class Node<V> {
+        private final V value;
+        private final long weight;
+
+        public Node(V value, long weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+}
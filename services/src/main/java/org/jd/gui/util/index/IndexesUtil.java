@@ -15,6 +15,9 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.zip.ZipEntry;
 
@@ -22,6 +25,9 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 
 public final class IndexesUtil {
 
+    // Index name -> membership sketch of the indexes searched
+    private static final Map<String, CombinedBloomFilter> COMBINED_BLOOM_FILTERS = new ConcurrentHashMap<>();
+
     private IndexesUtil() {
         super();
     }
@@ -36,13 +42,16 @@ public final class IndexesUtil {
 
     @SuppressWarnings("rawtypes")
     public static boolean contains(Collection<Future<Indexes>> collectionOfFutureIndexes, String indexName, String key) {
+        long hash = BloomFilter.hash(key);
+
         try {
-            for (Future<Indexes> futureIndexes : collectionOfFutureIndexes) {
-                if (futureIndexes.isDone()) {
-                    Map<String, Collection> index = futureIndexes.get().getIndex(indexName);
-                    if (index != null && index.get(key) != null) {
-                        return true;
-                    }
+            List<Indexes> doneIndexes = getDoneIndexes(collectionOfFutureIndexes);
+            boolean mayContain = getCombinedBloomFilter(indexName, doneIndexes).mightContain(hash);
+
+            for (Indexes indexes : doneIndexes) {
+                Map<String, Collection> index = indexes.getIndex(indexName);
+                if (index != null && mightContain(index, hash, mayContain) && index.get(key) != null) {
+                    return true;
                 }
             }
         } catch (InterruptedException e) {
@@ -59,17 +68,19 @@ public final class IndexesUtil {
     @SuppressWarnings({ "rawtypes" })
     public static List<Container.Entry> find(Collection<Future<Indexes>> collectionOfFutureIndexes, String indexName, String key) {
         List<Container.Entry> entries = new ArrayList<>();
+        long hash = BloomFilter.hash(key);
 
         try {
-            for (Future<Indexes> futureIndexes : collectionOfFutureIndexes) {
-                if (futureIndexes.isDone()) {
-                    Map<String, Collection> index = futureIndexes.get().getIndex(indexName);
-                    if (index != null) {
-                        @SuppressWarnings("unchecked")
-                        Collection<Container.Entry> collection = index.get(key);
-                        if (collection != null) {
-                            entries.addAll(collection);
-                        }
+            List<Indexes> doneIndexes = getDoneIndexes(collectionOfFutureIndexes);
+            boolean mayContain = getCombinedBloomFilter(indexName, doneIndexes).mightContain(hash);
+
+            for (Indexes indexes : doneIndexes) {
+                Map<String, Collection> index = indexes.getIndex(indexName);
+                if (index != null && mightContain(index, hash, mayContain)) {
+                    @SuppressWarnings("unchecked")
+                    Collection<Container.Entry> collection = index.get(key);
+                    if (collection != null) {
+                        entries.addAll(collection);
                     }
                 }
             }
@@ -83,7 +94,109 @@ public final class IndexesUtil {
 
         return entries;
     }
-    
+
+    protected static List<Indexes> getDoneIndexes(Collection<Future<Indexes>> collectionOfFutureIndexes) throws InterruptedException, ExecutionException {
+        List<Indexes> doneIndexes = new ArrayList<>(collectionOfFutureIndexes.size());
+
+        for (Future<Indexes> futureIndexes : collectionOfFutureIndexes) {
+            if (futureIndexes.isDone()) {
+                doneIndexes.add(futureIndexes.get());
+            }
+        }
+
+        return doneIndexes;
+    }
+
+    /**
+     * @param mayContain result of the combined filter, used for compact indexes only
+     * @return false if the index does not contain the key, true if it may contain it
+     */
+    @SuppressWarnings("rawtypes")
+    protected static boolean mightContain(Map<String, Collection> index, long hash, boolean mayContain) {
+        if (index instanceof CompactIndexes.Index) {
+            // to convert to jdk16 pattern matching only when spotbugs #1617 and eclipse #577987 are solved
+            return mayContain && ((CompactIndexes.Index) index).getBloomFilter().mightContain(hash);
+        }
+        return true;
+    }
+
+    /**
+     * @return the union of the membership sketches of the compact indexes, updated with the indexes not seen yet
+     */
+    protected static BloomFilter getCombinedBloomFilter(String indexName, List<Indexes> doneIndexes) {
+        return COMBINED_BLOOM_FILTERS.computeIfAbsent(indexName, CombinedBloomFilter::new).get(doneIndexes);
+    }
+
+    /**
+     * Membership sketch of the keys of an index over several containers, so that lookups of absent keys
+     * cost one test instead of one test per container.<br>
+     * <br>
+     * The sketch of each compact index is built once by the index itself; new indexes are added to the union
+     * with a bitwise 'or'. The union is rebuilt from the sketches, without hashing keys again, when it becomes
+     * too small or when most of its keys belong to released indexes, e.g. intermediate snapshots.
+     */
+    protected static final class CombinedBloomFilter {
+        private final String indexName;
+        // Indexes added to the union -> number of keys
+        private final Map<Indexes, Integer> keyCounts = new WeakHashMap<>();
+        // Number of keys added to the union, including the keys of released indexes
+        private long addedKeyCount;
+        private long capacity;
+        private BloomFilter bloomFilter;
+
+        public CombinedBloomFilter(String indexName) {
+            this.indexName = indexName;
+        }
+
+        public synchronized BloomFilter get(List<Indexes> doneIndexes) {
+            List<Indexes> newIndexes = new ArrayList<>();
+
+            for (Indexes indexes : doneIndexes) {
+                if (!keyCounts.containsKey(indexes)) {
+                    CompactIndexes.Index compactIndex = getCompactIndex(indexes);
+                    keyCounts.put(indexes, compactIndex == null ? 0 : compactIndex.size());
+                    newIndexes.add(indexes);
+                }
+            }
+
+            long keyCount = 0;
+
+            for (Integer count : keyCounts.values()) {
+                keyCount += count;
+            }
+
+            if (bloomFilter == null || keyCount > capacity || addedKeyCount > 2 * keyCount) {
+                capacity = Math.max(1024, 2 * keyCount);
+                bloomFilter = new BloomFilter((int)Math.min(Integer.MAX_VALUE, capacity));
+                addedKeyCount = 0;
+                newIndexes = new ArrayList<>(keyCounts.keySet());
+            }
+
+            for (Indexes indexes : newIndexes) {
+                CompactIndexes.Index compactIndex = getCompactIndex(indexes);
+
+                if (compactIndex != null) {
+                    bloomFilter.addAll(compactIndex.getBloomFilter());
+                    addedKeyCount += compactIndex.size();
+                }
+            }
+
+            return bloomFilter;
+        }
+
+        private CompactIndexes.Index getCompactIndex(Indexes indexes) {
+            @SuppressWarnings("rawtypes")
+            Map<String, Collection> index = indexes.getIndex(indexName);
+
+            if (index instanceof CompactIndexes.Index) {
+                // to convert to jdk16 pattern matching only when spotbugs #1617 and eclipse #577987 are solved
+                return (CompactIndexes.Index) index;
+            }
+
+            return null;
+        }
+    }
+
     /*
      * https://jakewharton.com/calculating-zip-file-entry-true-impact/
      */
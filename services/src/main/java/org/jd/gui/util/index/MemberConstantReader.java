@@ -0,0 +1,299 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.util.index;
+
+import org.jd.core.v1.util.StringConstants;
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.TypePath;
+import org.objectweb.asm.signature.SignatureReader;
+import org.objectweb.asm.signature.SignatureVisitor;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.objectweb.asm.ClassReader.SKIP_DEBUG;
+import static org.objectweb.asm.ClassReader.SKIP_FRAMES;
+
+/**
+ * Reads the constants used by each member of a class file, with the name of the index listing them.<br>
+ * <br>
+ * The class file indexer chains its visitors to the visitors of this reader, so that the constants are attributed
+ * in the same pass as the other indexes. Constants of static blocks, lambdas, bridges, synthetic and enum members
+ * belong to the type.
+ */
+public class MemberConstantReader {
+
+    @FunctionalInterface
+    public interface ConstantConsumer {
+        /**
+         * @param indexName        the index listing the constant, "typeDeclarations", "methodReferences", "strings"...
+         * @param memberName       the name of the member using the constant, empty for the type
+         * @param memberDescriptor the descriptor of the member using the constant, empty for the type
+         * @param constant         the constant
+         */
+        void accept(String indexName, String memberName, String memberDescriptor, String constant);
+    }
+
+    private final ConstantConsumer consumer;
+    private final SignatureVisitor signatureVisitor = new SignatureVisitor(Opcodes.ASM9) {
+        @Override
+        public void visitClassType(String name) {
+            addConstant("typeReferences", name);
+        }
+    };
+    private final AnnotationVisitor annotationVisitor = new AnnotationVisitor(Opcodes.ASM9) {
+        @Override
+        public void visitEnum(String name, String desc, String value) {
+            addDescriptor(desc);
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String name, String desc) {
+            addDescriptor(desc);
+            return this;
+        }
+    };
+    private final ClassConstantVisitor classVisitor = new ClassConstantVisitor();
+    private final FieldConstantVisitor fieldVisitor = new FieldConstantVisitor();
+    private final MethodConstantVisitor methodVisitor = new MethodConstantVisitor();
+    // Name and descriptor of the visited member, empty for the type and for the members not displayed
+    private String memberName = "";
+    private String memberDescriptor = "";
+
+    public MemberConstantReader(ConstantConsumer consumer) {
+        this.consumer = consumer;
+    }
+
+    public static void read(InputStream inputStream, ConstantConsumer consumer) throws IOException {
+        new ClassReader(inputStream).accept(new MemberConstantReader(consumer).getClassVisitor(), SKIP_DEBUG | SKIP_FRAMES);
+    }
+
+    /**
+     * Visitors to chain to: a single instance of each, the class visitor returns the field and method visitors.
+     */
+    public ClassVisitor getClassVisitor() { return classVisitor; }
+    public FieldVisitor getFieldVisitor() { return fieldVisitor; }
+    public MethodVisitor getMethodVisitor() { return methodVisitor; }
+    public AnnotationVisitor getAnnotationVisitor() { return annotationVisitor; }
+
+    protected void addConstant(String indexName, String constant) {
+        consumer.accept(indexName, memberName, memberDescriptor, constant);
+    }
+
+    protected void setMember(String name, String descriptor) {
+        memberName = name;
+        memberDescriptor = descriptor;
+    }
+
+    protected void addDescriptor(String descriptor) {
+        new SignatureReader(descriptor).accept(signatureVisitor);
+    }
+
+    protected void addTypeReference(String internalName) {
+        if (internalName.startsWith("[")) {
+            new SignatureReader(internalName).acceptType(signatureVisitor);
+        } else {
+            addConstant("typeReferences", internalName);
+        }
+    }
+
+    protected void addMemberReference(String owner, String name, boolean field) {
+        addTypeReference(owner);
+
+        if (field) {
+            addConstant("fieldReferences", name);
+        } else if (StringConstants.INSTANCE_CONSTRUCTOR.equals(name)) {
+            addConstant("constructorReferences", owner);
+        } else {
+            addConstant("methodReferences", name);
+        }
+    }
+
+    protected void addValue(Object value) {
+        if (value instanceof String) { // to convert to jdk16 pattern matching only when spotbugs #1617 and eclipse #577987 are solved
+            addConstant("strings", (String) value);
+        } else if (value instanceof Type) { // to convert to jdk16 pattern matching only when spotbugs #1617 and eclipse #577987 are solved
+            Type type = (Type) value;
+            if (type.getSort() == Type.OBJECT || type.getSort() == Type.ARRAY) {
+                addTypeReference(type.getInternalName());
+            }
+        } else if (value instanceof Handle) { // to convert to jdk16 pattern matching only when spotbugs #1617 and eclipse #577987 are solved
+            Handle handle = (Handle) value;
+            addMemberReference(handle.getOwner(), handle.getName(), handle.getTag() <= Opcodes.H_PUTSTATIC);
+        }
+    }
+
+    protected class ClassConstantVisitor extends ClassVisitor {
+        private String name;
+
+        public ClassConstantVisitor() {
+            super(Opcodes.ASM9);
+        }
+
+        @Override
+        public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+            this.name = name;
+            setMember("", "");
+            addConstant("typeDeclarations", name);
+
+            if (superName != null) {
+                addTypeReference(superName);
+            }
+
+            if (interfaces != null) {
+                for (String interfaceName : interfaces) {
+                    addTypeReference(interfaceName);
+                }
+            }
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+            addDescriptor(desc);
+            return annotationVisitor;
+        }
+
+        @Override
+        public AnnotationVisitor visitTypeAnnotation(int typeRef, TypePath typePath, String desc, boolean visible) {
+            addDescriptor(desc);
+            return annotationVisitor;
+        }
+
+        @Override
+        public FieldVisitor visitField(int access, String name, String desc, String signature, Object value) {
+            if ((access & (Opcodes.ACC_SYNTHETIC|Opcodes.ACC_ENUM)) == 0) {
+                setMember(name, desc);
+            } else {
+                setMember("", "");
+            }
+
+            addConstant("fieldDeclarations", name);
+            addDescriptor(signature == null ? desc : signature);
+
+            if (value != null) {
+                addValue(value);
+            }
+            return fieldVisitor;
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String desc, String signature, String[] exceptions) {
+            boolean staticBlock = "<clinit>".equals(name);
+
+            if ((access & (Opcodes.ACC_SYNTHETIC|Opcodes.ACC_BRIDGE)) == 0 && !staticBlock) {
+                setMember(name, desc);
+            } else {
+                setMember("", "");
+            }
+
+            if (StringConstants.INSTANCE_CONSTRUCTOR.equals(name)) {
+                addConstant("constructorDeclarations", this.name);
+            } else if (!staticBlock) {
+                addConstant("methodDeclarations", name);
+            }
+
+            addDescriptor(signature == null ? desc : signature);
+
+            if (exceptions != null) {
+                for (String exception : exceptions) {
+                    addTypeReference(exception);
+                }
+            }
+            return methodVisitor;
+        }
+    }
+
+    protected class FieldConstantVisitor extends FieldVisitor {
+        public FieldConstantVisitor() {
+            super(Opcodes.ASM9);
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+            addDescriptor(desc);
+            return annotationVisitor;
+        }
+
+        @Override
+        public AnnotationVisitor visitTypeAnnotation(int typeRef, TypePath typePath, String desc, boolean visible) {
+            addDescriptor(desc);
+            return annotationVisitor;
+        }
+    }
+
+    protected class MethodConstantVisitor extends MethodVisitor {
+        public MethodConstantVisitor() {
+            super(Opcodes.ASM9);
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+            addDescriptor(desc);
+            return annotationVisitor;
+        }
+
+        @Override
+        public AnnotationVisitor visitTypeAnnotation(int typeRef, TypePath typePath, String desc, boolean visible) {
+            addDescriptor(desc);
+            return annotationVisitor;
+        }
+
+        @Override
+        public AnnotationVisitor visitParameterAnnotation(int parameter, String desc, boolean visible) {
+            addDescriptor(desc);
+            return annotationVisitor;
+        }
+
+        @Override
+        public void visitTypeInsn(int opcode, String type) {
+            addTypeReference(type);
+        }
+
+        @Override
+        public void visitFieldInsn(int opcode, String owner, String name, String descriptor) {
+            addMemberReference(owner, name, true);
+        }
+
+        @Override
+        public void visitMethodInsn(int opcode, String owner, String name, String descriptor, boolean isInterface) {
+            addMemberReference(owner, name, false);
+        }
+
+        @Override
+        public void visitInvokeDynamicInsn(String name, String descriptor, Handle bootstrapMethodHandle, Object... bootstrapMethodArguments) {
+            for (Object argument : bootstrapMethodArguments) {
+                addValue(argument);
+            }
+        }
+
+        @Override
+        public void visitLdcInsn(Object value) {
+            addValue(value);
+        }
+
+        @Override
+        public void visitMultiANewArrayInsn(String descriptor, int numDimensions) {
+            addTypeReference(descriptor);
+        }
+
+        @Override
+        public void visitTryCatchBlock(Label start, Label end, Label handler, String type) {
+            if (type != null) {
+                addTypeReference(type);
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.util.index;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Split text resources into tokens for the 'strings' index.<br>
+ * <br>
+ * A token is a run of letters, digits and characters found in names, paths, URLs and property keys
+ * ('.', '_', '-', '$', ':', '/', '@', '#', '%', '+', '~'). Other characters are separators. Tokens are
+ * truncated to {@link #MAX_TOKEN_LENGTH} characters, so prefix searches still find long tokens.
+ */
+public final class TextTokenizer {
+    public static final int MAX_TOKEN_LENGTH = 256;
+
+    private TextTokenizer() {
+        super();
+    }
+
+    public static void tokenize(Reader reader, Consumer<String> tokenConsumer) throws IOException {
+        tokenizeLines(reader, (token, lineNumber) -> tokenConsumer.accept(token));
+    }
+
+    /**
+     * @param tokenConsumer receives the tokens and the numbers of their lines, starting at 1. Lines end with
+     *                      '\n', '\r' or "\r\n".
+     */
+    public static void tokenizeLines(Reader reader, ObjIntConsumer<String> tokenConsumer) throws IOException {
+        char[] buffer = new char[8192];
+        char[] token = new char[MAX_TOKEN_LENGTH];
+        int tokenLength = 0;
+        boolean inToken = false;
+        int lineNumber = 1;
+        boolean carriageReturn = false;
+        int length;
+
+        while ((length = reader.read(buffer)) != -1) {
+            for (int i = 0; i < length; i++) {
+                char c = buffer[i];
+
+                if (isTokenPart(c)) {
+                    if (tokenLength < MAX_TOKEN_LENGTH) {
+                        token[tokenLength++] = c;
+                    }
+                    inToken = true;
+                } else if (inToken) {
+                    tokenConsumer.accept(new String(token, 0, tokenLength), lineNumber);
+                    tokenLength = 0;
+                    inToken = false;
+                }
+
+                if (c == '\r' || (c == '\n' && !carriageReturn)) {
+                    lineNumber++;
+                }
+                carriageReturn = c == '\r';
+            }
+        }
+
+        if (inToken) {
+            tokenConsumer.accept(new String(token, 0, tokenLength), lineNumber);
+        }
+    }
+
+    public static boolean isTokenPart(char c) {
+        if (Character.isLetterOrDigit(c)) {
+            return true;
+        }
+
+        switch (c) {
+        case '.', '_', '-', '$', ':', '/', '@', '#', '%', '+', '~':
+            return true;
+        default:
+            return false;
+        }
+    }
+}
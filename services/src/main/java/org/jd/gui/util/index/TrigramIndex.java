@@ -0,0 +1,283 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.util.index;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+
+/**
+ * Trigram posting lists over the sorted keys of an index, to narrow the candidates of a search pattern
+ * before verification.<br>
+ * <br>
+ * Patterns use the rules of 'Search in Constant Pools': '*' matches 0 or N characters, '?' matches 1
+ * character, other characters match themselves and the pattern is anchored at the start of the key. The
+ * literal prefix of the pattern is resolved by binary search over the sorted keys, the literal runs after
+ * it by the intersection of the posting lists of their trigrams.<br>
+ * <br>
+ * Trigrams are hashed into a fixed number of buckets, so candidates must always be verified.
+ */
+public final class TrigramIndex {
+    protected static final int MAX_INDEXED_KEY_LENGTH = 512;
+    protected static final int MAX_BUCKET_COUNT = 1 << 22;
+
+    private final IntFunction<String> keys;
+    private final int keyCount;
+    private final int bucketMask;
+    // Positions of keys containing trigrams of bucket i are postings[offsets[i]] .. postings[offsets[i+1]-1]
+    private final int[] offsets;
+    private final int[] postings;
+    // Positions of keys too long to be indexed
+    private final int[] unindexedPositions;
+
+    /**
+     * @param keys     key at a position, keys must be sorted
+     * @param keyCount number of keys
+     */
+    public TrigramIndex(IntFunction<String> keys, int keyCount) {
+        this.keys = keys;
+        this.keyCount = keyCount;
+
+        int bucketCount = Math.min(MAX_BUCKET_COUNT, Integer.highestOneBit(Math.max(keyCount, 256)) << 2);
+        int[] buffer = new int[MAX_INDEXED_KEY_LENGTH];
+        int[] counts = new int[bucketCount + 1];
+        int unindexedCount = 0;
+
+        bucketMask = bucketCount - 1;
+
+        // Count postings per bucket
+        for (int position = 0; position < keyCount; position++) {
+            String key = keys.apply(position);
+
+            if (key.length() > MAX_INDEXED_KEY_LENGTH) {
+                unindexedCount++;
+            } else {
+                int length = getBuckets(key, 0, key.length(), buffer);
+
+                for (int i = 0; i < length; i++) {
+                    counts[buffer[i] + 1]++;
+                }
+            }
+        }
+
+        for (int i = 0; i < bucketCount; i++) {
+            counts[i + 1] += counts[i];
+        }
+
+        // Fill postings, in increasing order of positions
+        offsets = counts;
+        postings = new int[offsets[bucketCount]];
+        unindexedPositions = new int[unindexedCount];
+
+        int[] cursors = Arrays.copyOf(offsets, bucketCount);
+        unindexedCount = 0;
+
+        for (int position = 0; position < keyCount; position++) {
+            String key = keys.apply(position);
+
+            if (key.length() > MAX_INDEXED_KEY_LENGTH) {
+                unindexedPositions[unindexedCount++] = position;
+            } else {
+                int length = getBuckets(key, 0, key.length(), buffer);
+
+                for (int i = 0; i < length; i++) {
+                    postings[cursors[buffer[i]]++] = position;
+                }
+            }
+        }
+    }
+
+    /**
+     * Send to the consumer the position of each key that may match the pattern, in increasing order.
+     */
+    public void forEachCandidate(String pattern, IntConsumer positionConsumer) {
+        int patternLength = pattern.length();
+        int prefixLength = 0;
+
+        while (prefixLength < patternLength && !isWildcard(pattern.charAt(prefixLength))) {
+            prefixLength++;
+        }
+
+        // Range of keys starting with the literal prefix
+        String prefix = pattern.substring(0, prefixLength);
+        int from = lowerBound(prefix);
+        int to = upperBound(prefix, from);
+
+        if (from >= to) {
+            return;
+        }
+
+        // Buckets of the literal runs after the prefix
+        int[] buckets = new int[Math.max(0, patternLength - prefixLength)];
+        int bucketLength = 0;
+        int start = prefixLength;
+
+        while (start < patternLength) {
+            while (start < patternLength && isWildcard(pattern.charAt(start))) {
+                start++;
+            }
+
+            int end = start;
+
+            while (end < patternLength && !isWildcard(pattern.charAt(end))) {
+                end++;
+            }
+
+            bucketLength += getBuckets(pattern, start, end, buckets, bucketLength);
+            start = end;
+        }
+
+        if (bucketLength == 0) {
+            // No trigram to narrow the range
+            for (int position = from; position < to; position++) {
+                positionConsumer.accept(position);
+            }
+        } else {
+            // Intersect the posting lists, starting with the shortest one
+            Arrays.sort(buckets, 0, bucketLength);
+
+            int shortest = buckets[0];
+
+            for (int i = 1; i < bucketLength; i++) {
+                if (getPostingCount(buckets[i]) < getPostingCount(shortest)) {
+                    shortest = buckets[i];
+                }
+            }
+
+            int low = lowerBound(postings, offsets[shortest], offsets[shortest + 1], from);
+            int high = lowerBound(postings, low, offsets[shortest + 1], to);
+            // Keys too long to be indexed are always candidates, merged in order
+            int unindexedLow = lowerBound(unindexedPositions, 0, unindexedPositions.length, from);
+            int unindexedHigh = lowerBound(unindexedPositions, unindexedLow, unindexedPositions.length, to);
+
+            while (low < high || unindexedLow < unindexedHigh) {
+                if (unindexedLow == unindexedHigh || (low < high && postings[low] < unindexedPositions[unindexedLow])) {
+                    int position = postings[low++];
+
+                    if (containsAll(buckets, bucketLength, position)) {
+                        positionConsumer.accept(position);
+                    }
+                } else {
+                    positionConsumer.accept(unindexedPositions[unindexedLow++]);
+                }
+            }
+        }
+    }
+
+    public int getKeyCount() {
+        return keyCount;
+    }
+
+    protected int getPostingCount(int bucket) {
+        return offsets[bucket + 1] - offsets[bucket];
+    }
+
+    protected boolean containsAll(int[] buckets, int bucketLength, int position) {
+        for (int i = 0; i < bucketLength; i++) {
+            int bucket = buckets[i];
+
+            if (Arrays.binarySearch(postings, offsets[bucket], offsets[bucket + 1], position) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the first position where the key is not lower than the prefix
+     */
+    protected int lowerBound(String prefix) {
+        int low = 0;
+        int high = keyCount;
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+
+            if (keys.apply(middle).compareTo(prefix) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * @return the first position where the key is greater than the prefix and does not start with it
+     */
+    protected int upperBound(String prefix, int low) {
+        int high = keyCount;
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+
+            if (keys.apply(middle).startsWith(prefix)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    protected static int lowerBound(int[] array, int low, int high, int value) {
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+
+            if (array[middle] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    protected static boolean isWildcard(char c) {
+        return c == '*' || c == '?';
+    }
+
+    /**
+     * Store the distinct buckets of the trigrams of s[start, end) in the buffer.
+     *
+     * @return the number of distinct buckets
+     */
+    protected int getBuckets(String s, int start, int end, int[] buffer) {
+        int length = getBuckets(s, start, end, buffer, 0);
+
+        if (length > 1) {
+            Arrays.sort(buffer, 0, length);
+
+            int distinct = 1;
+
+            for (int i = 1; i < length; i++) {
+                if (buffer[i] != buffer[distinct - 1]) {
+                    buffer[distinct++] = buffer[i];
+                }
+            }
+
+            length = distinct;
+        }
+
+        return length;
+    }
+
+    protected int getBuckets(String s, int start, int end, int[] buffer, int offset) {
+        int length = 0;
+
+        for (int i = start + 2; i < end; i++) {
+            int hash = (s.charAt(i - 2) << 16 | s.charAt(i - 1)) * 0x9E3779B1 ^ s.charAt(i) * 0x85EBCA6B;
+            buffer[offset + length++] = (hash ^ hash >>> 15) & bucketMask;
+        }
+
+        return length;
+    }
+}
@@ -0,0 +1,476 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.util.index;
+
+import org.jd.core.v1.service.converter.classfiletojavasyntax.util.ExceptionUtil;
+import org.jd.gui.api.model.Indexes;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
+
+/**
+ * Type hierarchy of a set of indexes, built once from the indexes "typeDeclarations", "subTypeNames",
+ * "superClassNames" and "typeAccessFlags".<br>
+ * <br>
+ * Type names are sorted, like the string table of {@link CompactIndexes}, and the id of a type is its position;
+ * direct sub types and super types are stored as adjacency arrays of ids in both directions, so that direct
+ * queries cost one lookup and transitive queries one visit of the reached types.<br>
+ * <br>
+ * The hierarchies of the last {@link #CACHE_SIZE} sets of indexes are kept, referencing their indexes weakly.
+ * Callers on the event dispatch thread use {@link #getBuilt(List)}, which never builds a hierarchy.
+ */
+public final class TypeHierarchy {
+    protected static final int UNKNOWN = -2;
+    protected static final int NONE = -1;
+    protected static final int CACHE_SIZE = 4;
+
+    // Hierarchies of the last sets of indexes, the last used first
+    private static final List<TypeHierarchy> TYPE_HIERARCHIES = new ArrayList<>();
+    // Builds the hierarchies requested by 'getBuilt'
+    private static final ExecutorService BUILDER_EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "type-hierarchy-builder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final List<WeakReference<Indexes>> indexesReferences;
+    // Sorted names of the known types
+    private final String[] names;
+    private final BitSet declaredTypes = new BitSet();
+    // Super class id, NONE for types without super class, UNKNOWN for types not indexed from a class file
+    private final int[] superClassIds;
+    // Access flags, NONE for types not indexed from a class file
+    private final int[] accessFlags;
+    // Sub types of type i are subTypeIds[subTypeOffsets[i] .. subTypeOffsets[i+1]-1], same for super types
+    private final int[] subTypeOffsets;
+    private final int[] subTypeIds;
+    private final int[] superTypeOffsets;
+    private final int[] superTypeIds;
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    public TypeHierarchy(List<Indexes> doneIndexes) {
+        long[] edges = new long[64];
+        int edgeCount = 0;
+
+        indexesReferences = new ArrayList<>(doneIndexes.size());
+        names = getSortedNames(doneIndexes);
+
+        int typeCount = names.length;
+
+        superClassIds = new int[typeCount];
+        Arrays.fill(superClassIds, UNKNOWN);
+        accessFlags = new int[typeCount];
+        Arrays.fill(accessFlags, NONE);
+
+        for (Indexes indexes : doneIndexes) {
+            indexesReferences.add(new WeakReference<>(indexes));
+
+            Map<String, Collection> typeDeclarations = indexes.getIndex("typeDeclarations");
+            Map<String, Collection> subTypeNames = indexes.getIndex("subTypeNames");
+            Map<String, Collection> superClassNames = indexes.getIndex("superClassNames");
+            Map<String, Collection> typeAccessFlags = indexes.getIndex("typeAccessFlags");
+
+            if (typeDeclarations != null) {
+                for (String typeName : typeDeclarations.keySet()) {
+                    declaredTypes.set(getId(typeName));
+                }
+            }
+
+            if (subTypeNames != null) {
+                for (Map.Entry<String, Collection> entry : subTypeNames.entrySet()) {
+                    long superTypeId = getId(entry.getKey());
+
+                    for (String subTypeName : (Collection<String>) entry.getValue()) {
+                        if (subTypeName != null) {
+                            if (edgeCount == edges.length) {
+                                edges = Arrays.copyOf(edges, edgeCount * 2);
+                            }
+                            edges[edgeCount++] = (superTypeId << 32) | getId(subTypeName);
+                        }
+                    }
+                }
+            }
+
+            if (superClassNames != null) {
+                for (Map.Entry<String, Collection> entry : superClassNames.entrySet()) {
+                    int typeId = getId(entry.getKey());
+                    Collection<String> collection = entry.getValue();
+
+                    // Keep the first super class found
+                    if (superClassIds[typeId] < 0) {
+                        superClassIds[typeId] = collection.isEmpty() ? NONE : getId(collection.iterator().next());
+                    }
+                }
+            }
+
+            if (typeAccessFlags != null) {
+                for (Map.Entry<String, Collection> entry : typeAccessFlags.entrySet()) {
+                    int typeId = getId(entry.getKey());
+                    Collection<String> collection = entry.getValue();
+
+                    // Keep the first flags found, of a declared type
+                    if (typeId != -1 && accessFlags[typeId] == NONE && !collection.isEmpty()) {
+                        accessFlags[typeId] = Integer.parseInt(collection.iterator().next());
+                    }
+                }
+            }
+        }
+
+        // Sort edges by super type then sub type, remove duplicates
+        Arrays.sort(edges, 0, edgeCount);
+
+        int uniqueEdgeCount = 0;
+
+        for (int i = 0; i < edgeCount; i++) {
+            if (uniqueEdgeCount == 0 || edges[uniqueEdgeCount - 1] != edges[i]) {
+                edges[uniqueEdgeCount++] = edges[i];
+            }
+        }
+
+        subTypeOffsets = new int[typeCount + 1];
+        subTypeIds = new int[uniqueEdgeCount];
+        superTypeOffsets = new int[typeCount + 1];
+        superTypeIds = new int[uniqueEdgeCount];
+
+        for (int i = 0; i < uniqueEdgeCount; i++) {
+            subTypeOffsets[(int) (edges[i] >>> 32) + 1]++;
+            superTypeOffsets[(int) edges[i] + 1]++;
+        }
+
+        for (int i = 0; i < typeCount; i++) {
+            subTypeOffsets[i + 1] += subTypeOffsets[i];
+            superTypeOffsets[i + 1] += superTypeOffsets[i];
+        }
+
+        int[] superTypePositions = Arrays.copyOf(superTypeOffsets, typeCount);
+
+        for (int i = 0; i < uniqueEdgeCount; i++) {
+            int superTypeId = (int) (edges[i] >>> 32);
+            int subTypeId = (int) edges[i];
+
+            subTypeIds[i] = subTypeId;
+            superTypeIds[superTypePositions[subTypeId]++] = superTypeId;
+        }
+    }
+
+    /**
+     * @return the sorted names of the declared types, the super types and the sub types, without duplicates
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    protected static String[] getSortedNames(List<Indexes> doneIndexes) {
+        List<String> list = new ArrayList<>();
+
+        for (Indexes indexes : doneIndexes) {
+            for (String indexName : new String[] { "typeDeclarations", "subTypeNames", "superClassNames" }) {
+                Map<String, Collection> index = indexes.getIndex(indexName);
+
+                if (index != null) {
+                    list.addAll(index.keySet());
+
+                    if (!"typeDeclarations".equals(indexName)) {
+                        for (Collection<String> typeNames : index.values()) {
+                            for (String typeName : typeNames) {
+                                if (typeName != null) {
+                                    list.add(typeName);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        String[] array = list.toArray(new String[list.size()]);
+        Arrays.parallelSort(array);
+
+        int uniqueCount = 0;
+
+        for (int i = 0; i < array.length; i++) {
+            if (uniqueCount == 0 || !array[uniqueCount - 1].equals(array[i])) {
+                array[uniqueCount++] = array[i];
+            }
+        }
+
+        return Arrays.copyOf(array, uniqueCount);
+    }
+
+    /**
+     * @return the hierarchy of the done indexes, built if the last hierarchies were built from other indexes
+     */
+    public static TypeHierarchy get(Collection<Future<Indexes>> collectionOfFutureIndexes) {
+        try {
+            return get(IndexesUtil.getDoneIndexes(collectionOfFutureIndexes));
+        } catch (InterruptedException e) {
+            assert ExceptionUtil.printStackTrace(e);
+            // Restore interrupted state...
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            assert ExceptionUtil.printStackTrace(e);
+        }
+
+        return new TypeHierarchy(Collections.emptyList());
+    }
+
+    public static TypeHierarchy get(List<Indexes> doneIndexes) {
+        TypeHierarchy typeHierarchy = find(doneIndexes);
+
+        if (typeHierarchy == null) {
+            // Built out of the lock, so that callers with other indexes do not wait
+            typeHierarchy = new TypeHierarchy(doneIndexes);
+            add(typeHierarchy);
+        }
+
+        return typeHierarchy;
+    }
+
+    /**
+     * @return the hierarchy of the done indexes if it is built, null otherwise: the hierarchy is then built in
+     *         the background
+     */
+    public static TypeHierarchy getBuilt(List<Indexes> doneIndexes) {
+        TypeHierarchy typeHierarchy = find(doneIndexes);
+
+        if (typeHierarchy == null) {
+            List<Indexes> indexes = new ArrayList<>(doneIndexes);
+
+            BUILDER_EXECUTOR.execute(() -> {
+                if (find(indexes) == null) {
+                    add(new TypeHierarchy(indexes));
+                }
+            });
+        }
+
+        return typeHierarchy;
+    }
+
+    protected static TypeHierarchy find(List<Indexes> doneIndexes) {
+        synchronized (TYPE_HIERARCHIES) {
+            for (int i = 0; i < TYPE_HIERARCHIES.size(); i++) {
+                TypeHierarchy typeHierarchy = TYPE_HIERARCHIES.get(i);
+
+                if (typeHierarchy.isBuiltFrom(doneIndexes)) {
+                    // Move to front
+                    TYPE_HIERARCHIES.add(0, TYPE_HIERARCHIES.remove(i));
+                    return typeHierarchy;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    protected static void add(TypeHierarchy typeHierarchy) {
+        synchronized (TYPE_HIERARCHIES) {
+            // Forget the hierarchies of released indexes, e.g. intermediate snapshots
+            TYPE_HIERARCHIES.removeIf(TypeHierarchy::isReleased);
+            TYPE_HIERARCHIES.add(0, typeHierarchy);
+
+            if (TYPE_HIERARCHIES.size() > CACHE_SIZE) {
+                TYPE_HIERARCHIES.remove(CACHE_SIZE);
+            }
+        }
+    }
+
+    public boolean isBuiltFrom(List<Indexes> doneIndexes) {
+        int size = indexesReferences.size();
+
+        if (size != doneIndexes.size()) {
+            return false;
+        }
+
+        for (int i = 0; i < size; i++) {
+            if (indexesReferences.get(i).get() != doneIndexes.get(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    protected boolean isReleased() {
+        for (WeakReference<Indexes> indexesReference : indexesReferences) {
+            if (indexesReference.get() == null) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @return the id of the type, -1 if the type is unknown
+     */
+    public int getId(String typeName) {
+        int id = Arrays.binarySearch(names, typeName);
+        return id < 0 ? -1 : id;
+    }
+
+    public String getName(int id) {
+        return names[id];
+    }
+
+    /**
+     * @return the number of known types, declared or referenced as super types
+     */
+    public int size() {
+        return names.length;
+    }
+
+    public boolean isDeclared(String typeName) {
+        int id = getId(typeName);
+        return id != -1 && declaredTypes.get(id);
+    }
+
+    /**
+     * @return the access flags of the type declaration, -1 if the type is not indexed from a class file
+     */
+    public int getAccessFlags(String typeName) {
+        int id = getId(typeName);
+        return id == -1 ? NONE : accessFlags[id];
+    }
+
+    /**
+     * @return true if the super class of the type is indexed, the type may still have no super class
+     */
+    public boolean isSuperClassKnown(String typeName) {
+        int id = getId(typeName);
+        return id != -1 && superClassIds[id] != UNKNOWN;
+    }
+
+    /**
+     * @return the super class name, null if the type has no super class or if its super class is unknown
+     */
+    public String getSuperClassName(String typeName) {
+        int id = getId(typeName);
+
+        if (id == -1 || superClassIds[id] < 0) {
+            return null;
+        }
+
+        return names[superClassIds[id]];
+    }
+
+    public int getSubTypeCount(String typeName) {
+        int id = getId(typeName);
+        return id == -1 ? 0 : subTypeOffsets[id + 1] - subTypeOffsets[id];
+    }
+
+    /**
+     * @return the direct sub classes and sub interfaces
+     */
+    public List<String> getSubTypeNames(String typeName) {
+        return getNames(getId(typeName), subTypeOffsets, subTypeIds);
+    }
+
+    /**
+     * @return the direct super class and super interfaces
+     */
+    public List<String> getSuperTypeNames(String typeName) {
+        return getNames(getId(typeName), superTypeOffsets, superTypeIds);
+    }
+
+    public int getAllSubTypeCount(String typeName) {
+        int[] count = new int[1];
+        visit(getId(typeName), subTypeOffsets, subTypeIds, id -> count[0]++);
+        return count[0];
+    }
+
+    /**
+     * @return the direct and indirect sub types
+     */
+    public List<String> getAllSubTypeNames(String typeName) {
+        List<String> typeNames = new ArrayList<>();
+        visit(getId(typeName), subTypeOffsets, subTypeIds, id -> typeNames.add(names[id]));
+        return typeNames;
+    }
+
+    /**
+     * @return the direct and indirect super types
+     */
+    public List<String> getAllSuperTypeNames(String typeName) {
+        List<String> typeNames = new ArrayList<>();
+        visit(getId(typeName), superTypeOffsets, superTypeIds, id -> typeNames.add(names[id]));
+        return typeNames;
+    }
+
+    /**
+     * @return true if 'typeName' is a direct or indirect sub type of 'superTypeName'
+     */
+    public boolean isSubTypeOf(String typeName, String superTypeName) {
+        int id = getId(typeName);
+        int superTypeId = getId(superTypeName);
+
+        if (id == -1 || superTypeId == -1) {
+            return false;
+        }
+
+        boolean[] found = new boolean[1];
+        visit(id, superTypeOffsets, superTypeIds, i -> found[0] |= i == superTypeId);
+        return found[0];
+    }
+
+    protected List<String> getNames(int id, int[] offsets, int[] targetIds) {
+        if (id == -1) {
+            return Collections.emptyList();
+        }
+
+        int from = offsets[id];
+        int to = offsets[id + 1];
+        List<String> typeNames = new ArrayList<>(to - from);
+
+        for (int i = from; i < to; i++) {
+            typeNames.add(names[targetIds[i]]);
+        }
+
+        return typeNames;
+    }
+
+    /**
+     * Visit the types reachable from the given type, once each, the given type excluded.
+     */
+    protected void visit(int id, int[] offsets, int[] targetIds, IntConsumer consumer) {
+        if (id == -1) {
+            return;
+        }
+
+        BitSet visited = new BitSet(names.length);
+        int[] stack = new int[16];
+        int stackSize = 0;
+
+        visited.set(id);
+        stack[stackSize++] = id;
+
+        while (stackSize > 0) {
+            int current = stack[--stackSize];
+
+            for (int i = offsets[current], to = offsets[current + 1]; i < to; i++) {
+                int target = targetIds[i];
+
+                if (!visited.get(target)) {
+                    visited.set(target);
+                    consumer.accept(target);
+
+                    if (stackSize == stack.length) {
+                        stack = Arrays.copyOf(stack, stackSize * 2);
+                    }
+                    stack[stackSize++] = target;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.util.index;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.Consumer;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * Type names sorted by simple name and by CamelCase humps.<br>
+ * <br>
+ * A pattern matches a type if it is a prefix of the simple name, or if each hump of the pattern is a prefix
+ * of the consecutive humps of the simple name: 'HSR' and 'HttpSeRe' match 'HttpServletRequest'. Lower case
+ * characters of the pattern match both cases, other characters match themselves. The simple name starts after
+ * the last '/' or '$'.<br>
+ * <br>
+ * Both kinds of queries are resolved by binary searches, then matching names are enumerated.
+ */
+public final class TypeNameIndex {
+    private final String[] typeNamesBySimpleName;
+    private final String[] typeNamesByHumps;
+
+    public TypeNameIndex(Collection<String> typeNames) {
+        typeNamesBySimpleName = typeNames.toArray(new String[typeNames.size()]);
+        typeNamesByHumps = typeNamesBySimpleName.clone();
+
+        Arrays.parallelSort(typeNamesBySimpleName, TypeNameIndex::compareSimpleNames);
+        Arrays.parallelSort(typeNamesByHumps, TypeNameIndex::compareHumps);
+    }
+
+    public int size() {
+        return typeNamesBySimpleName.length;
+    }
+
+    /**
+     * Send each matching type name once to the consumer.
+     */
+    public void match(String pattern, Consumer<String> typeNameConsumer) {
+        if (pattern.isEmpty()) {
+            return;
+        }
+
+        // Prefix of simple names
+        int from = lowerBound(typeNamesBySimpleName, pattern, TypeNameIndex::compareSimpleNamePrefix);
+        int to = upperBound(typeNamesBySimpleName, pattern, TypeNameIndex::compareSimpleNamePrefix, from);
+
+        for (int i = from; i < to; i++) {
+            String typeName = typeNamesBySimpleName[i];
+
+            if (matchesPrefix(pattern, typeName)) {
+                typeNameConsumer.accept(typeName);
+            }
+        }
+
+        // Prefix of humps, skipping names already sent
+        from = lowerBound(typeNamesByHumps, pattern, TypeNameIndex::compareHumpPrefix);
+        to = upperBound(typeNamesByHumps, pattern, TypeNameIndex::compareHumpPrefix, from);
+
+        for (int i = from; i < to; i++) {
+            String typeName = typeNamesByHumps[i];
+
+            if (matchesHumps(pattern, typeName) && !matchesPrefix(pattern, typeName)) {
+                typeNameConsumer.accept(typeName);
+            }
+        }
+    }
+
+    /**
+     * Linear version of the query, for indexes without type name index.
+     */
+    public static boolean matches(String pattern, String typeName) {
+        return matchesPrefix(pattern, typeName) || matchesHumps(pattern, typeName);
+    }
+
+    public static int getSimpleNameIndex(String typeName) {
+        int lastPackageSeparatorIndex = typeName.lastIndexOf('/') + 1;
+        int lastTypeNameSeparatorIndex = typeName.lastIndexOf('$') + 1;
+        return Math.max(lastPackageSeparatorIndex, lastTypeNameSeparatorIndex);
+    }
+
+    protected static boolean matchesPrefix(String pattern, String typeName) {
+        int patternLength = pattern.length();
+        int index = getSimpleNameIndex(typeName);
+
+        if (typeName.length() - index < patternLength) {
+            return false;
+        }
+
+        for (int i = 0; i < patternLength; i++) {
+            if (!matches(pattern.charAt(i), typeName.charAt(index + i))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    protected static boolean matchesHumps(String pattern, String typeName) {
+        int patternLength = pattern.length();
+        int typeNameLength = typeName.length();
+        int patternIndex = 0;
+        int index = getSimpleNameIndex(typeName);
+
+        while (patternIndex < patternLength) {
+            if (index >= typeNameLength) {
+                return false;
+            }
+
+            int patternHumpEnd = nextHump(pattern, patternIndex + 1);
+            int humpEnd = nextHump(typeName, index + 1);
+            int length = patternHumpEnd - patternIndex;
+
+            if (length > humpEnd - index) {
+                return false;
+            }
+
+            for (int i = 0; i < length; i++) {
+                if (!matches(pattern.charAt(patternIndex + i), typeName.charAt(index + i))) {
+                    return false;
+                }
+            }
+
+            patternIndex = patternHumpEnd;
+            index = humpEnd;
+        }
+
+        return true;
+    }
+
+    protected static boolean matches(char patternChar, char c) {
+        return patternChar == c || Character.isLowerCase(patternChar) && Character.toUpperCase(patternChar) == c;
+    }
+
+    protected static int nextHump(String s, int index) {
+        int length = s.length();
+
+        while (index < length && !Character.isUpperCase(s.charAt(index))) {
+            index++;
+        }
+
+        return index;
+    }
+
+    // --- Orders --- //
+    protected static int compareSimpleNames(String typeName1, String typeName2) {
+        int index1 = getSimpleNameIndex(typeName1);
+        int index2 = getSimpleNameIndex(typeName2);
+        int length1 = typeName1.length();
+        int length2 = typeName2.length();
+
+        while (index1 < length1 && index2 < length2) {
+            int diff = Character.toLowerCase(typeName1.charAt(index1++)) - Character.toLowerCase(typeName2.charAt(index2++));
+
+            if (diff != 0) {
+                return diff;
+            }
+        }
+
+        return (length1 - index1) - (length2 - index2);
+    }
+
+    /**
+     * @return 0 if the pattern is a case insensitive prefix of the simple name, the order of the simple name otherwise
+     */
+    protected static int compareSimpleNamePrefix(String typeName, String pattern) {
+        int index = getSimpleNameIndex(typeName);
+        int length = typeName.length();
+        int patternLength = pattern.length();
+
+        for (int i = 0; i < patternLength; i++, index++) {
+            if (index >= length) {
+                return -1;
+            }
+
+            int diff = Character.toLowerCase(typeName.charAt(index)) - Character.toLowerCase(pattern.charAt(i));
+
+            if (diff != 0) {
+                return diff;
+            }
+        }
+
+        return 0;
+    }
+
+    protected static int compareHumps(String typeName1, String typeName2) {
+        int index1 = getSimpleNameIndex(typeName1);
+        int index2 = getSimpleNameIndex(typeName2);
+        int length1 = typeName1.length();
+        int length2 = typeName2.length();
+
+        while (index1 < length1 && index2 < length2) {
+            int diff = Character.toUpperCase(typeName1.charAt(index1)) - Character.toUpperCase(typeName2.charAt(index2));
+
+            if (diff != 0) {
+                return diff;
+            }
+
+            index1 = nextHump(typeName1, index1 + 1);
+            index2 = nextHump(typeName2, index2 + 1);
+        }
+
+        return (index1 < length1 ? 1 : 0) - (index2 < length2 ? 1 : 0);
+    }
+
+    /**
+     * @return 0 if the first letters of the pattern humps are a prefix of the first letters of the simple name
+     *         humps, the order of the simple name otherwise
+     */
+    protected static int compareHumpPrefix(String typeName, String pattern) {
+        int index = getSimpleNameIndex(typeName);
+        int length = typeName.length();
+        int patternIndex = 0;
+        int patternLength = pattern.length();
+
+        while (patternIndex < patternLength) {
+            if (index >= length) {
+                return -1;
+            }
+
+            int diff = Character.toUpperCase(typeName.charAt(index)) - Character.toUpperCase(pattern.charAt(patternIndex));
+
+            if (diff != 0) {
+                return diff;
+            }
+
+            index = nextHump(typeName, index + 1);
+            patternIndex = nextHump(pattern, patternIndex + 1);
+        }
+
+        return 0;
+    }
+
+    /**
+     * @return the first position where the type name is not lower than the pattern
+     */
+    protected static int lowerBound(String[] typeNames, String pattern, ToIntBiFunction<String, String> comparator) {
+        int low = 0;
+        int high = typeNames.length;
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+
+            if (comparator.applyAsInt(typeNames[middle], pattern) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * @return the first position where the type name is greater than the pattern
+     */
+    protected static int upperBound(String[] typeNames, String pattern, ToIntBiFunction<String, String> comparator, int low) {
+        int high = typeNames.length;
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+
+            if (comparator.applyAsInt(typeNames[middle], pattern) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+}
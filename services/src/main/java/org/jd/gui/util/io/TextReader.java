@@ -15,6 +15,7 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.nio.charset.StandardCharsets;
 
 public final class TextReader {
@@ -37,7 +38,7 @@ public final class TextReader {
         char[] charBuffer = new char[8192];
         int nbCharRead;
 
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
+        try (Reader reader = getReader(is)) {
             while ((nbCharRead = reader.read(charBuffer)) != -1) {
                 // appends buffer
                 sb.append(charBuffer, 0, nbCharRead);
@@ -48,4 +49,11 @@ public final class TextReader {
 
         return sb.toString();
     }
+
+    /**
+     * @return a buffered reader decoding the text like {@link #getText(InputStream)}
+     */
+    public static Reader getReader(InputStream is) {
+        return new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8));
+    }
 }
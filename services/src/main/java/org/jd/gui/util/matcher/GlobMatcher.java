@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2008-2019 Emmanuel Dupuy.
+ * This project is distributed under the GPLv3 license.
+ * This is a Copyleft license that gives the user the right to use,
+ * copy and modify the code freely for non-commercial purposes.
+ */
+
+package org.jd.gui.util.matcher;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compiled pattern of the search dialogs, matching regions of char sequences without allocation.<br>
+ * <br>
+ * Rules: '*' matches 0 or N characters, '?' matches 1 character, other characters match themselves. The
+ * pattern is anchored at the start of the region and is followed by an implicit '*'.<br>
+ * <br>
+ * Type name patterns add two rules: lower case characters match both cases, and upper case characters after
+ * the first one match at the start of any following hump, as if preceded by '*'.<br>
+ * <br>
+ * Patterns are split into segments of fixed length between the '*'. The first segment is tested at the start
+ * of the region, the next ones at their leftmost position after the previous one.
+ */
+public final class GlobMatcher {
+    protected static final byte LITERAL = 0;
+    protected static final byte ANY_CASE = 1;
+    protected static final byte ANY_CHARACTER = 2;
+
+    private final char[] chars;
+    private final byte[] kinds;
+    // Segment i is chars[segmentOffsets[i]] .. chars[segmentOffsets[i+1]-1]
+    private final int[] segmentOffsets;
+    private final boolean anchored;
+
+    private GlobMatcher(StringBuilder chars, List<Byte> kinds, List<Integer> segmentOffsets, boolean anchored) {
+        int length = chars.length();
+
+        this.chars = new char[length];
+        this.kinds = new byte[length];
+        this.segmentOffsets = new int[segmentOffsets.size()];
+        this.anchored = anchored;
+
+        chars.getChars(0, length, this.chars, 0);
+
+        for (int i = 0; i < length; i++) {
+            this.kinds[i] = kinds.get(i);
+        }
+        for (int i = 0; i < this.segmentOffsets.length; i++) {
+            this.segmentOffsets[i] = segmentOffsets.get(i);
+        }
+    }
+
+    /**
+     * Compile a pattern of 'Search in Constant Pools'.
+     */
+    public static GlobMatcher compile(String pattern) {
+        return compile(pattern, false);
+    }
+
+    /**
+     * Compile a pattern of 'Open Type', to match simple type names.
+     */
+    public static GlobMatcher compileTypeName(String pattern) {
+        return compile(pattern, true);
+    }
+
+    protected static GlobMatcher compile(String pattern, boolean typeName) {
+        int patternLength = pattern.length();
+        StringBuilder chars = new StringBuilder(patternLength);
+        List<Byte> kinds = new ArrayList<>(patternLength);
+        List<Integer> segmentOffsets = new ArrayList<>();
+        boolean anchored = true;
+        boolean gap = false;
+
+        segmentOffsets.add(0);
+
+        for (int i = 0; i < patternLength; i++) {
+            char c = pattern.charAt(i);
+
+            if (c == '*' || typeName && i > 0 && Character.isUpperCase(c)) {
+                gap = true;
+
+                if (c == '*') {
+                    continue;
+                }
+            }
+
+            if (gap) {
+                // Start a new segment
+                if (chars.length() == 0) {
+                    anchored = false;
+                } else if (segmentOffsets.get(segmentOffsets.size() - 1) != chars.length()) {
+                    segmentOffsets.add(chars.length());
+                }
+                gap = false;
+            }
+
+            chars.append(c);
+
+            if (c == '?') {
+                kinds.add(ANY_CHARACTER);
+            } else if (typeName && Character.isLowerCase(c)) {
+                kinds.add(ANY_CASE);
+            } else {
+                kinds.add(LITERAL);
+            }
+        }
+
+        segmentOffsets.add(chars.length());
+
+        return new GlobMatcher(chars, kinds, segmentOffsets, anchored);
+    }
+
+    public boolean matches(CharSequence s) {
+        return matches(s, 0, s.length());
+    }
+
+    /**
+     * @return true if the pattern matches the region s[start, end)
+     */
+    public boolean matches(CharSequence s, int start, int end) {
+        int segmentCount = segmentOffsets.length - 1;
+        int position = start;
+        int segment = 0;
+
+        if (anchored && segmentCount > 0) {
+            int length = segmentOffsets[1];
+
+            if (length > end - position || !matchesSegment(0, s, position)) {
+                return false;
+            }
+
+            position += length;
+            segment = 1;
+        }
+
+        for (; segment < segmentCount; segment++) {
+            int segmentOffset = segmentOffsets[segment];
+            int last = end - (segmentOffsets[segment + 1] - segmentOffset);
+
+            while (position <= last && !matchesSegment(segment, s, position)) {
+                position++;
+            }
+
+            if (position > last) {
+                return false;
+            }
+
+            position += segmentOffsets[segment + 1] - segmentOffset;
+        }
+
+        return true;
+    }
+
+    protected boolean matchesSegment(int segment, CharSequence s, int position) {
+        int to = segmentOffsets[segment + 1];
+
+        for (int i = segmentOffsets[segment]; i < to; i++, position++) {
+            char c = s.charAt(position);
+
+            switch (kinds[i]) {
+            case ANY_CHARACTER:
+                break;
+            case ANY_CASE:
+                if (c != chars[i] && c != Character.toUpperCase(chars[i])) {
+                    return false;
+                }
+                break;
+            default:
+                if (c != chars[i]) {
+                    return false;
+                }
+                break;
+            }
+        }
+
+        return true;
+    }
+}
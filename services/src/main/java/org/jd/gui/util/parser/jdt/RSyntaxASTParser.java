@@ -16,6 +16,7 @@ import org.jd.gui.api.model.Container.Entry;
 import org.jd.gui.util.decompiler.GuiPreferences;
 
 import java.net.URI;
+import java.util.Map;
 
 import javax.swing.text.BadLocationException;
 
@@ -24,25 +25,73 @@ public class RSyntaxASTParser extends AbstractParser {
     protected final API api;
     protected final Container.Entry entry;
 
+    // Problems of the last text parsed by the page, reused instead of parsing the same text again
+    private String parsedText;
+    private IProblem[] parsedProblems;
+
     public RSyntaxASTParser(Entry entry, API api) {
         this.api = api;
         this.entry = entry;
     }
 
+    /**
+     * Set the problems found by the page when parsing the text it is about to display.
+     */
+    public synchronized void setProblems(String text, IProblem[] problems) {
+        this.parsedText = text;
+        this.parsedProblems = problems;
+    }
+
+    protected synchronized IProblem[] getProblems(String text) {
+        return text.equals(parsedText) ? parsedProblems : null;
+    }
+
+    /**
+     * @return true if compiler problems of some level are displayed
+     */
+    public boolean isShowingProblems() {
+        Map<String, String> preferences = api.getPreferences();
+        return "true".equals(preferences.get(GuiPreferences.SHOW_COMPILER_ERRORS))
+            || "true".equals(preferences.get(GuiPreferences.SHOW_COMPILER_WARNINGS))
+            || "true".equals(preferences.get(GuiPreferences.SHOW_COMPILER_INFO));
+    }
+
+    /**
+     * Parse the text with bindings: may be called out of the event dispatch thread.
+     *
+     * @return the compiler problems of the text, null if it is not a compilation unit
+     */
+    public IProblem[] parseProblems(String text) {
+        String unitName = entry.getPath();
+        URI jarURI = entry.getContainer().getRoot().getParent().getUri();
+        ASTNode ast = ASTParserFactory.getInstanceWithBindings().newASTParser(text.toCharArray(), unitName, jarURI).createAST(null);
+        if (ast instanceof CompilationUnit) { // to convert to jdk16 pattern matching only when spotbugs #1617 and eclipse #577987 are solved
+            CompilationUnit cu = (CompilationUnit) ast;
+            return cu.getProblems();
+        }
+        return null;
+    }
+
     @Override
     public ParseResult parse(RSyntaxDocument doc, String style) {
         boolean showErrors = "true".equals(api.getPreferences().get(GuiPreferences.SHOW_COMPILER_ERRORS));
         boolean showWarnings = "true".equals(api.getPreferences().get(GuiPreferences.SHOW_COMPILER_WARNINGS));
         boolean showInfo = "true".equals(api.getPreferences().get(GuiPreferences.SHOW_COMPILER_INFO));
         DefaultParseResult result = new DefaultParseResult(this);
+        if (!showErrors && !showWarnings && !showInfo) {
+            // Nothing to display: do not parse
+            return result;
+        }
         try {
             String text = doc.getText(0, doc.getLength());
-            String unitName = entry.getPath();
-            URI jarURI = entry.getContainer().getRoot().getParent().getUri();
-            ASTNode ast = ASTParserFactory.getInstanceWithBindings().newASTParser(text.toCharArray(), unitName, jarURI).createAST(null);
-            if (ast instanceof CompilationUnit) {
-                CompilationUnit cu = (CompilationUnit) ast;
-                IProblem[] problems = cu.getProblems();
+            IProblem[] problems = getProblems(text);
+            if (problems == null) {
+                problems = parseProblems(text);
+                if (problems != null) {
+                    setProblems(text, problems);
+                }
+            }
+            if (problems != null) {
                 for (IProblem pb : problems) {
                     int sourceStart = pb.getSourceStart();
                     int length = pb.getSourceEnd() - sourceStart + 1;
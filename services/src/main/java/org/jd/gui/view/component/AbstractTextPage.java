@@ -355,7 +355,7 @@ public class AbstractTextPage extends JPanel implements LineNumberNavigable, Con
         if (query != null) {
             Map<String, String> parameters = parseQuery(query);
 
-            if (parameters.containsKey("lineNumber")) {
+            if (parameters.containsKey("lineNumber") && !parameters.containsKey("highlightPattern")) {
                 String lineNumber = parameters.get("lineNumber");
 
                 try {
@@ -380,16 +380,24 @@ public class AbstractTextPage extends JPanel implements LineNumberNavigable, Con
                 String highlightFlags = parameters.get("highlightFlags");
 
                 if (highlightFlags.indexOf('s') != -1 && parameters.containsKey("highlightPattern")) {
+                    int lineStartOffset = getLineStartOffset(parameters);
+
                     textArea.setMarkAllHighlightColor(SELECT_HIGHLIGHT_COLOR);
-                    textArea.setCaretPosition(0);
+                    textArea.setCaretPosition(lineStartOffset);
 
                     // Highlight all
                     String searchFor = createRegExp(parameters.get("highlightPattern"));
                     SearchContext context = newSearchContext(searchFor, true, false, true, true);
                     SearchResult result = SearchEngine.find(textArea, context);
 
+                    if (result.getMatchRange() == null && lineStartOffset > 0) {
+                        textArea.setCaretPosition(0);
+                        result = SearchEngine.find(textArea, context);
+                    }
+
                     if (result.getMatchRange() != null) {
-                        textArea.setCaretPosition(result.getMatchRange().getStartOffset());
+                        // Jump to the line of the first match
+                        setCaretPositionAndCenter(result.getMatchRange());
                     }
 
                     return true;
@@ -400,6 +408,23 @@ public class AbstractTextPage extends JPanel implements LineNumberNavigable, Con
         return false;
     }
 
+    /**
+     * @return the start offset of the line of the parameter "lineNumber", 0 if missing or invalid
+     */
+    protected int getLineStartOffset(Map<String, String> parameters) {
+        String lineNumber = parameters.get("lineNumber");
+
+        if (lineNumber != null) {
+            try {
+                return textArea.getLineStartOffset(Integer.parseInt(lineNumber) - 1);
+            } catch (NumberFormatException | BadLocationException e) {
+                assert ExceptionUtil.printStackTrace(e);
+            }
+        }
+
+        return 0;
+    }
+
     protected Map<String, String> parseQuery(String query) {
         Map<String, String> parameters = new HashMap<>();
 
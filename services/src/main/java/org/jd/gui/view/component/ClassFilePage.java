@@ -7,28 +7,40 @@
 
 package org.jd.gui.view.component;
 
+import org.eclipse.jdt.core.compiler.IProblem;
 import org.fife.ui.rsyntaxtextarea.DocumentRange;
 import org.fife.ui.rsyntaxtextarea.SyntaxConstants;
 import org.jd.core.v1.service.converter.classfiletojavasyntax.util.ByteCodeWriter;
 import org.jd.core.v1.service.converter.classfiletojavasyntax.util.ExceptionUtil;
 import org.jd.gui.api.API;
 import org.jd.gui.api.model.Container;
+import org.jd.gui.api.model.Indexes;
 import org.jd.gui.util.MethodPatcher;
 import org.jd.gui.util.decompiler.ContainerLoader;
+import org.jd.gui.util.decompiler.DecompilationCache;
+import org.jd.gui.util.decompiler.DecompilationPrefetcher;
 import org.jd.gui.util.decompiler.GuiPreferences;
-import org.jd.gui.util.loader.LoaderUtils;
 import org.jd.gui.util.parser.jdt.core.manipulation.RemoveUnnecessaryCasts;
 
-import com.heliosdecompiler.transformerapi.StandardTransformers;
-import com.heliosdecompiler.transformerapi.common.Loader;
-
 import java.awt.Color;
+import java.awt.event.HierarchyEvent;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintStream;
+import java.net.URI;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
 
+import javax.swing.SwingUtilities;
 import javax.swing.text.BadLocationException;
 import javax.swing.text.DefaultCaret;
 
@@ -40,95 +52,233 @@ import static org.jd.gui.util.decompiler.GuiPreferences.REMOVE_UNNECESSARY_CASTS
 
 import jd.core.ClassUtil;
 import jd.core.DecompilationResult;
+import jd.core.links.ReferenceData;
 
 public class ClassFilePage extends TypePage {
 
     private static final String INTERNAL_ERROR = "// INTERNAL ERROR //";
+    private static final String DECOMPILING = "// DECOMPILING... //";
 
     private static final long serialVersionUID = 1L;
 
+    // Decompiles the sources of the pages in the background
+    private static final ExecutorService DECOMPILER_EXECUTOR = Executors.newFixedThreadPool(2, r -> {
+        Thread thread = new Thread(r, "decompiler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private int maximumLineNumber = -1;
 
+    // Generation of the decompilation, incremented to cancel the running one
+    private final AtomicLong generation = new AtomicLong();
+    private boolean decompiling;
+    // Preferences of the source to decompile, null once the source is displayed
+    private transient Map<String, String> pendingPreferences;
+    // Last URI opened before the source is displayed
+    private URI pendingUri;
+
     public ClassFilePage(API api, Container.Entry entry) {
         super(api, entry);
         Map<String, String> preferences = api.getPreferences();
         // Init view
         setErrorForeground(Color.decode(preferences.get(GuiPreferences.ERROR_BACKGROUND_COLOR)));
+        setText(DECOMPILING);
+        // Decompile while the page is showing, cancel once it is hidden or closed
+        addHierarchyListener(e -> {
+            if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0) {
+                if (isShowing()) {
+                    startDecompilation();
+                } else {
+                    cancelDecompilation();
+                }
+            }
+        });
         // Display source
-        decompile(preferences);
+        decompileLater(preferences);
     }
 
     public void decompile(Map<String, String> preferences) {
-        
-        boolean realignmentLineNumbers = "true".equals(preferences.get(REALIGN_LINE_NUMBERS)) || "true".equals(preferences.get("StretchLines"));
+        setDecompiledSource(decompile(preferences, () -> false), preferences);
+    }
+
+    /**
+     * Decompile in the background once the page is showing, then display the source. The current source stays
+     * displayed meanwhile.
+     */
+    public void decompileLater(Map<String, String> preferences) {
+        cancelDecompilation();
+        pendingPreferences = preferences;
+
+        if (isShowing()) {
+            startDecompilation();
+        }
+    }
+
+    protected void startDecompilation() {
+        Map<String, String> preferences = pendingPreferences;
+
+        if (preferences != null && !decompiling) {
+            long currentGeneration = generation.incrementAndGet();
+            BooleanSupplier isCancelledFunction = () -> generation.get() != currentGeneration;
+
+            decompiling = true;
+            DECOMPILER_EXECUTOR.execute(() -> {
+                DecompilationPrefetcher prefetcher = DecompilationPrefetcher.getInstance();
+                ParsedSource parsedSource = null;
+
+                prefetcher.busy();
+                try {
+                    parsedSource = decompile(preferences, isCancelledFunction);
+                } catch (Throwable t) {
+                    // StackOverflowError, OutOfMemoryError... must not leave the page decompiling forever
+                    assert ExceptionUtil.printStackTrace(t);
+                    parsedSource = new ParsedSource(INTERNAL_ERROR, new ReferenceListener(entry), false, 0, Collections.emptyMap());
+                } finally {
+                    prefetcher.idle();
+
+                    ParsedSource result = parsedSource;
+
+                    SwingUtilities.invokeLater(() -> {
+                        if (!isCancelledFunction.getAsBoolean()) {
+                            decompiling = false;
+
+                            if (result != null) {
+                                pendingPreferences = null;
+                                setDecompiledSource(result, preferences);
+                                prefetch(preferences);
+                            }
+                        }
+                    });
+                }
+            });
+        }
+    }
+
+    /**
+     * Decompile in the background the classes likely to be opened next from this page.
+     */
+    protected void prefetch(Map<String, String> preferences) {
+        Collection<Future<Indexes>> indexes = collectionOfFutureIndexes;
+        List<ReferenceData> references = new ArrayList<>(listener.getReferences());
+
+        DecompilationPrefetcher.getInstance().prefetch(preferences, () -> DecompilationPrefetcher.getLikelyNextEntries(entry, indexes, references));
+    }
+
+    /**
+     * Drop the running decompilation, it is started again when the page is showing.
+     */
+    protected void cancelDecompilation() {
+        if (decompiling) {
+            generation.incrementAndGet();
+            decompiling = false;
+        }
+    }
+
+    /**
+     * Decompile and parse the source, without changing the page.
+     *
+     * @return the source, null if cancelled
+     */
+    protected ParsedSource decompile(Map<String, String> preferences, BooleanSupplier isCancelledFunction) {
+        if (isCancelledFunction.getAsBoolean()) {
+            return null;
+        }
+
         boolean removeUnnecessaryCasts = "true".equals(preferences.get(REMOVE_UNNECESSARY_CASTS));
 
-        setShowMisalignment(realignmentLineNumbers);
-        
         // Init loader
         ContainerLoader loader = new ContainerLoader(entry);
         try {
-            // Clear ...
-            clearLineNumbers();
-            listener.clearData();
-
             // Format internal name
             String entryInternalName = ClassUtil.getInternalName(entry.getPath());
             
             String engineName = preferences.getOrDefault(DECOMPILE_ENGINE, ENGINE_JD_CORE_V1);
-            Loader apiLoader = LoaderUtils.createLoader(preferences, loader, entry);
-            DecompilationResult decompilationResult = StandardTransformers.decompile(apiLoader, entryInternalName, preferences, engineName);
+            DecompilationCache decompilationCache = DecompilationCache.getInstance();
+            DecompilationResult decompilationResult = decompilationCache.decompile(preferences, loader, entry, entryInternalName, engineName);
+            if (isCancelledFunction.getAsBoolean()) {
+                return null;
+            }
             if (decompilationResult.getDecompiledOutput().contains(ByteCodeWriter.DECOMPILATION_FAILED_AT_LINE)) {
                 /*
                  * Sometimes JD-Core v0 decompiles with success where JD-Core v1 fails. 
                  * In this case, patch JD-Core v0 method into JD-Core v1 method.
                  * It will appear with comment 'Patched from JD-Core V0'
                  */
-                DecompilationResult sourceCodeV0 = StandardTransformers.decompile(apiLoader, entryInternalName, preferences, ENGINE_JD_CORE_V0);
+                DecompilationResult sourceCodeV0 = decompilationCache.decompile(preferences, loader, entry, entryInternalName, ENGINE_JD_CORE_V0);
                 String patchedCode = MethodPatcher.patchCode(decompilationResult.getDecompiledOutput(), sourceCodeV0.getDecompiledOutput(), entry);
                 if (removeUnnecessaryCasts) {
                     patchedCode = new RemoveUnnecessaryCasts(entry).process(patchedCode);
                 }
-                parseAndSetText(patchedCode);
-            } else {
+                return isCancelledFunction.getAsBoolean() ? null : parse(patchedCode);
+            }
+            /*
+             * Use the hyperlinks of the decompiler as preferred way providing links as it often provides more of them
+             */
+            if (decompilationResult.getHyperlinks().isEmpty() || removeUnnecessaryCasts) {
                 /*
-                 * Use the hyperlinks of the decompiler as preferred way providing links as it often provides more of them
+                 * if hyperlinks are empty, it means the links are not supported by the decompiler, so the JAVA parser is called to 
+                 * enable the links. Same thing in case 'Remove casts' options is activated, as it ruins the hyperlinks.
+                 * Avoid shifting positions for all of them by re-parsing the source code. 
                  */
-                listener.getStrings().addAll(decompilationResult.getStrings());
-                listener.getTypeDeclarations().putAll(decompilationResult.getTypeDeclarations());
-                listener.getDeclarations().putAll(decompilationResult.getDeclarations());
-                listener.getReferences().addAll(decompilationResult.getReferences());
-                hyperlinks.putAll(decompilationResult.getHyperlinks());
-                if (decompilationResult.getMaxLineNumber() != 0) {
-                    setMaxLineNumber(decompilationResult.getMaxLineNumber());
-                }
-                for (Map.Entry<Integer, Integer> entry : decompilationResult.getLineNumbers().entrySet()) {
-                    Integer textAreaLineNumber = entry.getKey();
-                    Integer sourceLineNumber = entry.getValue();
-                    setLineNumber(textAreaLineNumber, sourceLineNumber);
-                }
-                if (hyperlinks.isEmpty() || removeUnnecessaryCasts) {
-                    /*
-                     * if hyperlinks are empty, it means the links are not supported by the decompiler, so the JAVA parser is called to 
-                     * enable the links. Same thing in case 'Remove casts' options is activated, as it ruins the hyperlinks.
-                     * Avoid shifting positions for all of them by re-parsing the source code. 
-                     */
-                    if (removeUnnecessaryCasts) {
-                        decompilationResult.setDecompiledOutput(new RemoveUnnecessaryCasts(entry).process(decompilationResult.getDecompiledOutput()));
-                    }
-                    parseAndSetText(decompilationResult.getDecompiledOutput());
-                } else {
-                    setText(decompilationResult.getDecompiledOutput());
+                String decompiledOutput = decompilationResult.getDecompiledOutput();
+                if (removeUnnecessaryCasts) {
+                    decompiledOutput = new RemoveUnnecessaryCasts(entry).process(decompiledOutput);
                 }
+                return isCancelledFunction.getAsBoolean() ? null : parse(decompiledOutput);
             }
+            ReferenceListener referenceListener = new ReferenceListener(entry);
+            referenceListener.getStrings().addAll(decompilationResult.getStrings());
+            referenceListener.getTypeDeclarations().putAll(decompilationResult.getTypeDeclarations());
+            referenceListener.getDeclarations().putAll(decompilationResult.getDeclarations());
+            referenceListener.getReferences().addAll(decompilationResult.getReferences());
+            referenceListener.getHyperlinks().putAll(decompilationResult.getHyperlinks());
+            // The links need no parsing: parse for the compiler problems only if they are displayed
+            IProblem[] problems = sourceParser.isShowingProblems() ? sourceParser.parseProblems(decompilationResult.getDecompiledOutput()) : null;
+            if (isCancelledFunction.getAsBoolean()) {
+                return null;
+            }
+            return new ParsedSource(decompilationResult.getDecompiledOutput(), referenceListener, false, decompilationResult.getMaxLineNumber(), decompilationResult.getLineNumbers(), problems);
         } catch (Exception t) {
             assert ExceptionUtil.printStackTrace(t);
-            setText(INTERNAL_ERROR);
-        } finally {
-            maximumLineNumber = getMaximumSourceLineNumber();
+            return new ParsedSource(INTERNAL_ERROR, new ReferenceListener(entry), false, 0, Collections.emptyMap());
         }
     }
 
+    /**
+     * Display the decompiled source, then refresh the links and open the pending URI.
+     */
+    protected void setDecompiledSource(ParsedSource parsedSource, Map<String, String> preferences) {
+        boolean realignmentLineNumbers = "true".equals(preferences.get(REALIGN_LINE_NUMBERS)) || "true".equals(preferences.get("StretchLines"));
+        DefaultCaret caret = (DefaultCaret) textArea.getCaret();
+        int updatePolicy = caret.getUpdatePolicy();
+
+        setShowMisalignment(realignmentLineNumbers);
+        caret.setUpdatePolicy(DefaultCaret.NEVER_UPDATE);
+        setParsedSource(parsedSource);
+        caret.setUpdatePolicy(updatePolicy);
+        maximumLineNumber = getMaximumSourceLineNumber();
+
+        indexesChanged(collectionOfFutureIndexes);
+
+        if (pendingUri != null) {
+            URI uri = pendingUri;
+            pendingUri = null;
+            super.openUri(uri);
+        }
+    }
+
+    // --- UriOpenable --- //
+    @Override
+    public boolean openUri(URI uri) {
+        if (pendingPreferences != null) {
+            // Open once the source is displayed
+            pendingUri = uri;
+            return true;
+        }
+        return super.openUri(uri);
+    }
+
     @Override
     public String getSyntaxStyle() {
         return SyntaxConstants.SYNTAX_STYLE_JAVA;
@@ -145,7 +295,7 @@ public class ClassFilePage extends TypePage {
     @Override
     public void save(API api, OutputStream os) {
 
-        DecompilationResult decompilationResult = new DecompilationResult();
+        String decompiledOutput;
         
         // Init loader
         ContainerLoader loader = new ContainerLoader(entry);
@@ -157,18 +307,18 @@ public class ClassFilePage extends TypePage {
             String entryInternalName = ClassUtil.getInternalName(entry.getPath());
 
             String decompileEngine = preferences.getOrDefault(DECOMPILE_ENGINE, ENGINE_JD_CORE_V1);
-            Loader apiLoader = LoaderUtils.createLoader(preferences, loader, entry);
-            decompilationResult = StandardTransformers.decompile(apiLoader, entryInternalName, preferences, decompileEngine);
-            if (decompilationResult.getDecompiledOutput().contains(ByteCodeWriter.DECOMPILATION_FAILED_AT_LINE)) {
-                DecompilationResult sourceCodeV0 = StandardTransformers.decompile(apiLoader, entryInternalName, preferences, ENGINE_JD_CORE_V0);
-                decompilationResult.setDecompiledOutput(MethodPatcher.patchCode(decompilationResult.getDecompiledOutput(), sourceCodeV0.getDecompiledOutput(), entry));
+            DecompilationCache decompilationCache = DecompilationCache.getInstance();
+            decompiledOutput = decompilationCache.decompile(preferences, loader, entry, entryInternalName, decompileEngine).getDecompiledOutput();
+            if (decompiledOutput.contains(ByteCodeWriter.DECOMPILATION_FAILED_AT_LINE)) {
+                DecompilationResult sourceCodeV0 = decompilationCache.decompile(preferences, loader, entry, entryInternalName, ENGINE_JD_CORE_V0);
+                decompiledOutput = MethodPatcher.patchCode(decompiledOutput, sourceCodeV0.getDecompiledOutput(), entry);
             }
         } catch (Exception t) {
             assert ExceptionUtil.printStackTrace(t);
-            decompilationResult.setDecompiledOutput(INTERNAL_ERROR);
+            decompiledOutput = INTERNAL_ERROR;
         }
         try (PrintStream ps = new PrintStream(os, true, StandardCharsets.UTF_8.name())) {
-            ps.print(decompilationResult.getDecompiledOutput());
+            ps.print(decompiledOutput);
         } catch (IOException e) {
             assert ExceptionUtil.printStackTrace(e);
         }
@@ -202,14 +352,7 @@ public class ClassFilePage extends TypePage {
     // --- PreferencesChangeListener --- //
     @Override
     public void preferencesChanged(Map<String, String> preferences) {
-        DefaultCaret caret = (DefaultCaret) textArea.getCaret();
-        int updatePolicy = caret.getUpdatePolicy();
-
-        caret.setUpdatePolicy(DefaultCaret.NEVER_UPDATE);
-        decompile(preferences);
-        caret.setUpdatePolicy(updatePolicy);
-
+        decompileLater(preferences);
         super.preferencesChanged(preferences);
-        indexesChanged(collectionOfFutureIndexes);
     }
 }
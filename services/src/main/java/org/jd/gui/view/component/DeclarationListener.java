@@ -1,5 +1,6 @@
 package org.jd.gui.view.component;
 
+import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.AbstractTypeDeclaration;
 import org.eclipse.jdt.core.dom.FieldDeclaration;
 import org.eclipse.jdt.core.dom.Initializer;
@@ -38,6 +39,15 @@ public class DeclarationListener extends AbstractJavaListener {
         return super.nameToInternalTypeName;
     }
 
+    /**
+     * Skip the nodes made up by the statement recovery of the parser, and their content, so that a malformed
+     * method body adds no declaration.
+     */
+    @Override
+    public boolean preVisit2(ASTNode node) {
+        return (node.getFlags() & ASTNode.RECOVERED) == 0;
+    }
+
     /** --- Add declarations --- */
     @Override
     public boolean visit(PackageDeclaration node) {
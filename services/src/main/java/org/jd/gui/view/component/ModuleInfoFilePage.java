@@ -67,6 +67,13 @@ public class ModuleInfoFilePage extends ClassFilePage {
         super(api, entry);
     }
 
+    @Override
+    public void decompileLater(Map<String, String> preferences) {
+        // Small source, decompiled at once
+        decompile(preferences);
+        indexesChanged(collectionOfFutureIndexes);
+    }
+
     @Override
     public void decompile(Map<String, String> preferences) {
         try {
@@ -6,6 +6,7 @@
  */
 package org.jd.gui.view.component;
 
+import org.eclipse.jdt.core.compiler.IProblem;
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.ASTParser;
 import org.eclipse.jdt.core.dom.Comment;
@@ -20,6 +21,7 @@ import org.jd.gui.api.model.Container;
 import org.jd.gui.api.model.Indexes;
 import org.jd.gui.api.model.Type;
 import org.jd.gui.util.index.IndexesUtil;
+import org.jd.gui.util.index.TypeHierarchy;
 import org.jd.gui.util.matcher.DescriptorMatcher;
 import org.jd.gui.util.parser.jdt.ASTParserFactory;
 import org.jd.gui.util.parser.jdt.RSyntaxASTParser;
@@ -30,9 +32,11 @@ import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutionException;
+import java.util.Set;
 import java.util.concurrent.Future;
 import java.util.function.BiPredicate;
 import java.util.regex.Matcher;
@@ -56,6 +60,7 @@ public abstract class TypePage extends CustomLineNumbersPage
     protected transient Collection<Future<Indexes>> collectionOfFutureIndexes = Collections.emptyList();
 
     protected final transient ReferenceListener listener;
+    protected final transient RSyntaxASTParser sourceParser;
 
     protected TypePage(API api, Container.Entry entry) {
         // Init attributes
@@ -63,7 +68,8 @@ public abstract class TypePage extends CustomLineNumbersPage
         this.entry = entry;
         this.listener = new ReferenceListener(entry);
         this.listener.setHyperlinks(hyperlinks);
-        this.textArea.addParser(new RSyntaxASTParser(entry, api));
+        this.sourceParser = new RSyntaxASTParser(entry, api);
+        this.textArea.addParser(sourceParser);
     }
 
     @Override
@@ -136,10 +142,16 @@ public abstract class TypePage extends CustomLineNumbersPage
         String fragment = uri.getFragment();
         String query = uri.getQuery();
 
+        DocumentRange fragmentRange = null;
+
         textArea.clearMarkAllHighlights();
 
         if (fragment != null) {
             matchFragmentAndAddDocumentRange(fragment, listener.getDeclarations(), ranges);
+
+            if (!ranges.isEmpty()) {
+                fragmentRange = ranges.get(0);
+            }
         }
 
         if (query != null) {
@@ -178,7 +190,8 @@ public abstract class TypePage extends CustomLineNumbersPage
             textArea.setMarkAllHighlightColor(SELECT_HIGHLIGHT_COLOR);
             textArea.markAll(ranges);
             Collections.sort(ranges);
-            setCaretPositionAndCenter(ranges.get(0));
+            // Scroll to the declaration of the fragment, then to the first highlighted item
+            setCaretPositionAndCenter(fragmentRange == null ? ranges.get(0) : fragmentRange);
         }
 
         return true;
@@ -385,26 +398,7 @@ public abstract class TypePage extends CustomLineNumbersPage
             boolean enabled;
 
             if (reference.getName() == null) {
-                enabled = false;
-
-                try {
-                    for (Future<Indexes> futureIndexes : collectionOfFutureIndexes) {
-                        if (futureIndexes.isDone()) {
-                            @SuppressWarnings("rawtypes")
-                            Map<String, Collection> index = futureIndexes.get().getIndex("typeDeclarations");
-                            if (index != null && index.get(typeName) != null) {
-                                enabled = true;
-                                break;
-                            }
-                        }
-                    }
-                } catch (InterruptedException e) {
-                    assert ExceptionUtil.printStackTrace(e);
-                    // Restore interrupted state...
-                    Thread.currentThread().interrupt();
-                } catch (ExecutionException e) {
-                    assert ExceptionUtil.printStackTrace(e);
-                }
+                enabled = IndexesUtil.containsInternalTypeName(collectionOfFutureIndexes, typeName);
             } else {
                 try {
                     // Recursive search
@@ -434,8 +428,65 @@ public abstract class TypePage extends CustomLineNumbersPage
         }
     }
 
-    @SuppressWarnings({ "rawtypes" })
+    /**
+     * Search the member in the type and its super classes with the index "memberDeclarations" and the type
+     * hierarchy, then parse the first type of the chain missing from these indexes, if any.
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
     protected String searchTypeHavingMember(String typeName, String name, String descriptor, Container.Entry entry) {
+        List<Indexes> doneIndexes = new ArrayList<>();
+
+        try {
+            for (Future<Indexes> futureIndexes : collectionOfFutureIndexes) {
+                if (futureIndexes.isDone()) {
+                    doneIndexes.add(futureIndexes.get());
+                }
+            }
+        } catch (InterruptedException e) {
+            assert ExceptionUtil.printStackTrace(e);
+            // Restore interrupted state...
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            assert ExceptionUtil.printStackTrace(e);
+        }
+
+        // Never built on the event dispatch thread: until it is built in the background, super types are parsed
+        TypeHierarchy typeHierarchy = TypeHierarchy.getBuilt(doneIndexes);
+        boolean field = descriptor.indexOf('(') == -1;
+        Set<String> visitedTypeNames = new HashSet<>();
+
+        while (typeName != null && visitedTypeNames.add(typeName)) {
+            for (Indexes indexes : doneIndexes) {
+                Map<String, Collection> memberIndex = indexes.getIndex("memberDeclarations");
+
+                if (memberIndex != null) {
+                    Collection<String> descriptors = memberIndex.get(typeName + '.' + name);
+
+                    if (descriptors != null) {
+                        for (String memberDescriptor : descriptors) {
+                            if (field ? DescriptorMatcher.matchFieldDescriptors(memberDescriptor, descriptor)
+                                      : DescriptorMatcher.matchMethodDescriptors(memberDescriptor, descriptor)) {
+                                // Member found
+                                return typeName;
+                            }
+                        }
+                    }
+                }
+            }
+
+            if (typeHierarchy == null || !typeHierarchy.isSuperClassKnown(typeName)) {
+                // Type not indexed from a class file, or unknown
+                return parseTypeHavingMember(typeName, name, descriptor, entry);
+            }
+
+            typeName = typeHierarchy.getSuperClassName(typeName);
+        }
+
+        return null;
+    }
+
+    @SuppressWarnings({ "rawtypes" })
+    protected String parseTypeHavingMember(String typeName, String name, String descriptor, Container.Entry entry) {
         List<Container.Entry> entries = new ArrayList<>();
 
         try {
@@ -469,12 +520,12 @@ public abstract class TypePage extends CustomLineNumbersPage
         }
 
         if (!sameContainerEntries.isEmpty()) {
-            return searchTypeHavingMember(typeName, name, descriptor, sameContainerEntries);
+            return parseTypeHavingMember(typeName, name, descriptor, sameContainerEntries);
         }
-        return searchTypeHavingMember(typeName, name, descriptor, entries);
+        return parseTypeHavingMember(typeName, name, descriptor, entries);
     }
 
-    protected String searchTypeHavingMember(String typeName, String name, String descriptor,
+    protected String parseTypeHavingMember(String typeName, String name, String descriptor,
             List<Container.Entry> entries) {
         for (Container.Entry nextEntry : entries) {
             Type type = api.getTypeFactory(nextEntry).make(api, nextEntry, typeName);
@@ -512,26 +563,66 @@ public abstract class TypePage extends CustomLineNumbersPage
     }
 
     public void parseAndSetText(String text) {
-        listener.clearData();
+        setParsedSource(parse(text));
+    }
+
+    /**
+     * Parse the source into a new listener, without changing the page: may be called out of the event dispatch
+     * thread.
+     */
+    protected ParsedSource parse(String text) {
+        ReferenceListener referenceListener = new ReferenceListener(entry);
+        Map<Integer, Integer> lineNumbers = new HashMap<>();
         // Parse
         char[] source = text.toCharArray();
         URI jarURI = entry.getContainer().getRoot().getParent().getUri();
         String unitName = entry.getPath();
-        // 1st pass for declarations
-        ASTParser astParser = ASTParserFactory.getInstance().newASTParser(source, unitName, jarURI);
-        astParser.createAST(null).accept(listener.getDeclarationListener());    
-        listener.init();
-        // 2nd pass for references
-        ASTParser astParserWithBindings = ASTParserFactory.getInstanceWithBindings().newASTParser(source, unitName, jarURI);
-        ASTNode astNode = astParserWithBindings.createAST(null);
-        astNode.accept(listener);
+        // Single pass with bindings: declarations, then references, compiler problems and line numbers
+        ASTParser astParser = ASTParserFactory.getInstanceWithBindings().newASTParser(source, unitName, jarURI);
+        ASTNode astNode = astParser.createAST(null);
+        astNode.accept(referenceListener.getDeclarationListener());
+        referenceListener.init();
+        astNode.accept(referenceListener);
+        addMisalignedLineNumbers(astNode, text, lineNumbers);
+        IProblem[] problems = null;
+        if (astNode instanceof CompilationUnit) { // to convert to jdk16 pattern matching only when spotbugs #1617 and eclipse #577987 are solved
+            CompilationUnit cu = (CompilationUnit) astNode;
+            problems = cu.getProblems();
+        }
+        return new ParsedSource(text, referenceListener, true, 0, lineNumbers, problems);
+    }
+
+    /**
+     * Display the source and replace the declarations, references and hyperlinks of the page.
+     */
+    protected void setParsedSource(ParsedSource parsedSource) {
+        ReferenceListener referenceListener = parsedSource.getListener();
+
+        listener.clearData();
+        clearLineNumbers();
+        listener.getStrings().addAll(referenceListener.getStrings());
+        listener.getTypeDeclarations().putAll(referenceListener.getTypeDeclarations());
+        listener.getDeclarations().putAll(referenceListener.getDeclarations());
+        listener.getReferences().addAll(referenceListener.getReferences());
+        hyperlinks.putAll(referenceListener.getHyperlinks());
+        if (parsedSource.getProblems() != null) {
+            sourceParser.setProblems(parsedSource.getText(), parsedSource.getProblems());
+        }
         // Display
-        setText(text);
-        initLineNumbers();
-        setMisalignedLineNumbers(astNode, text);
+        setText(parsedSource.getText());
+
+        if (parsedSource.isLineNumbersInitialized()) {
+            initLineNumbers();
+        }
+        if (parsedSource.getMaxLineNumber() != 0) {
+            setMaxLineNumber(parsedSource.getMaxLineNumber());
+        }
+        for (Map.Entry<Integer, Integer> lineNumber : parsedSource.getLineNumbers().entrySet()) {
+            setLineNumber(lineNumber.getKey(), lineNumber.getValue());
+        }
     }
 
-    private void setMisalignedLineNumbers(ASTNode astNode, String text) {
+    private static void addMisalignedLineNumbers(ASTNode astNode, String text, Map<Integer, Integer> lineNumbers) {
         if (astNode instanceof CompilationUnit) {
             CompilationUnit cu = (CompilationUnit) astNode;
             @SuppressWarnings("unchecked")
@@ -550,11 +641,48 @@ public abstract class TypePage extends CustomLineNumbersPage
                         int originalLineNumber = Integer.parseInt(lineNumberText);
                         int textAreaLineNumber = startLineNumber;
                         if (originalLineNumber != textAreaLineNumber) {
-                            setLineNumber(textAreaLineNumber, originalLineNumber);
+                            lineNumbers.put(textAreaLineNumber, originalLineNumber);
                         }
                     }
                 }
             }
         }
     }
+
+    /**
+     * Source text with its declarations, references, hyperlinks and line numbers, made before being displayed.
+     */
+    protected static class ParsedSource {
+        private final String text;
+        private final ReferenceListener listener;
+        private final boolean lineNumbersInitialized;
+        private final int maxLineNumber;
+        private final Map<Integer, Integer> lineNumbers;
+        private final IProblem[] problems;
+
+        public ParsedSource(String text, ReferenceListener listener, boolean lineNumbersInitialized, int maxLineNumber, Map<Integer, Integer> lineNumbers) {
+            this(text, listener, lineNumbersInitialized, maxLineNumber, lineNumbers, null);
+        }
+
+        /**
+         * @param lineNumbersInitialized true to map each text area line to the same line before adding 'lineNumbers'
+         * @param lineNumbers            text area line number to original line number
+         * @param problems               compiler problems of the text, null if the text was not parsed
+         */
+        public ParsedSource(String text, ReferenceListener listener, boolean lineNumbersInitialized, int maxLineNumber, Map<Integer, Integer> lineNumbers, IProblem[] problems) {
+            this.text = text;
+            this.listener = listener;
+            this.lineNumbersInitialized = lineNumbersInitialized;
+            this.maxLineNumber = maxLineNumber;
+            this.lineNumbers = lineNumbers;
+            this.problems = problems;
+        }
+
+        public String getText() { return text; }
+        public ReferenceListener getListener() { return listener; }
+        public boolean isLineNumbersInitialized() { return lineNumbersInitialized; }
+        public int getMaxLineNumber() { return maxLineNumber; }
+        public Map<Integer, Integer> getLineNumbers() { return lineNumbers; }
+        public IProblem[] getProblems() { return problems; }
+    }
 }
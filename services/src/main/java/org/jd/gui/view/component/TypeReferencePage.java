@@ -32,13 +32,14 @@ public abstract class TypeReferencePage extends HyperlinkPage {
     public boolean openUri(URI uri) {
         List<DocumentRange> ranges = new ArrayList<>();
         String query = uri.getQuery();
+        int lineStartOffset = 0;
 
         textArea.clearMarkAllHighlights();
 
         if (query != null) {
             Map<String, String> parameters = parseQuery(query);
 
-            if (parameters.containsKey("lineNumber")) {
+            if (parameters.containsKey("lineNumber") && !parameters.containsKey("highlightPattern")) {
                 String lineNumber = parameters.get("lineNumber");
 
                 try {
@@ -65,6 +66,8 @@ public abstract class TypeReferencePage extends HyperlinkPage {
                 if (highlightFlags != null && highlightPattern != null) {
                     String regexp = createRegExp(highlightPattern);
 
+                    lineStartOffset = getLineStartOffset(parameters);
+
                     if (highlightFlags.indexOf('s') != -1) {
                         // Highlight strings
                         Pattern pattern = Pattern.compile(regexp);
@@ -96,7 +99,18 @@ public abstract class TypeReferencePage extends HyperlinkPage {
             textArea.setMarkAllHighlightColor(SELECT_HIGHLIGHT_COLOR);
             textArea.markAll(ranges);
             Collections.sort(ranges);
-            setCaretPositionAndCenter(ranges.get(0));
+
+            // Scroll to the first range of the line, if any
+            DocumentRange firstRange = ranges.get(0);
+
+            for (DocumentRange range : ranges) {
+                if (range.getStartOffset() >= lineStartOffset) {
+                    firstRange = range;
+                    break;
+                }
+            }
+
+            setCaretPositionAndCenter(firstRange);
         }
 
         return false;
@@ -64,18 +64,31 @@ public final class SHA1Util {
                 }
             }
 
-            byte[] array = messageDigest.digest();
-
-            for (byte b : array) {
-                sb.append(hexa((b & 255) >> 4));
-                sb.append(hexa(b & 15));
-            }
+            appendHexa(sb, messageDigest.digest());
         } catch (IOException | NoSuchAlgorithmException e) {
             assert ExceptionUtil.printStackTrace(e);
         }
         return sb.toString();
     }
 
+    public static String computeSHA1(String text) {
+        StringBuilder sb = new StringBuilder();
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-1");
+            appendHexa(sb, messageDigest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            assert ExceptionUtil.printStackTrace(e);
+        }
+        return sb.toString();
+    }
+
+    private static void appendHexa(StringBuilder sb, byte[] array) {
+        for (byte b : array) {
+            sb.append(hexa((b & 255) >> 4));
+            sb.append(hexa(b & 15));
+        }
+    }
+
     private static char hexa(int i) {
         return (char) (i <= 9 ? '0' + i : 'a' - 10 + i);
     }
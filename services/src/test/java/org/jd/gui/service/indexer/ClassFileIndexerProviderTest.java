@@ -0,0 +1,149 @@
+package org.jd.gui.service.indexer;
+
+import org.jd.gui.api.model.Container;
+import org.jd.gui.api.model.Indexes;
+import org.jd.gui.util.ProgressTracker;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.Opcodes;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ClassFileIndexerProviderTest {
+    protected static final String TEST = "org/jd/gui/service/indexer/ClassFileIndexerProviderTest";
+    protected static final String OUTER = TEST + "$Outer";
+    protected static final String INNER = OUTER + "$Inner";
+
+    @Test
+    @SuppressWarnings("rawtypes")
+    public void testOuterTypeNames() {
+        Map<String, Map<String, Collection>> maps = new HashMap<>();
+        Indexes indexes = name -> maps.computeIfAbsent(name, k -> new MapWithDefault());
+        ClassFileIndexerProvider provider = new ClassFileIndexerProvider();
+        ProgressTracker progressTracker = new ProgressTracker(progress -> {});
+        Class<?> anonymousClass = Outer.createAnonymous().getClass();
+
+        for (Class<?> type : List.of(Outer.class, Outer.Inner.class, anonymousClass)) {
+            provider.index(null, new ClassEntry(type), indexes, progressTracker, progressTracker, () -> false);
+        }
+
+        String anonymousTypeName = anonymousClass.getName().replace('.', '/');
+        Map<String, Collection> outerTypeNames = indexes.getIndex("outerTypeNames");
+
+        // Member classes
+        assertEquals(List.of(TEST), outerTypeNames.get(OUTER));
+        assertEquals(List.of(OUTER), outerTypeNames.get(INNER));
+        // Anonymous classes
+        assertEquals(List.of(OUTER), outerTypeNames.get(anonymousTypeName));
+
+        Map<String, Collection> typeDeclarations = indexes.getIndex("typeDeclarations");
+
+        assertEquals(1, typeDeclarations.get(INNER).size());
+        assertTrue(indexes.getIndex("strings").containsKey("inner"));
+        assertTrue(indexes.getIndex("memberDeclarations").containsKey(INNER + ".getName"));
+        // Flags of the member class declaration
+        assertEquals(List.of(String.valueOf(Opcodes.ACC_PROTECTED | Opcodes.ACC_STATIC)), indexes.getIndex("typeAccessFlags").get(INNER));
+    }
+
+    @Test
+    @SuppressWarnings("rawtypes")
+    public void testMemberConstants() {
+        Map<String, Map<String, Collection>> maps = new HashMap<>();
+        Indexes indexes = name -> maps.computeIfAbsent(name, k -> new MapWithDefault());
+        ProgressTracker progressTracker = new ProgressTracker(progress -> {});
+        ClassEntry entry = new ClassEntry(Outer.Inner.class);
+
+        new ClassFileIndexerProvider().index(null, entry, indexes, progressTracker, progressTracker, () -> false);
+
+        Collection values = indexes.getIndex("memberConstants").get(INNER);
+        Set<String> constants = new HashSet<>();
+        Object groupEntry = null;
+        List<String> header = new ArrayList<>();
+
+        // Groups: entry, member name, member descriptor, index name, constants
+        for (Object value : values) {
+            if (value instanceof Container.Entry) {
+                groupEntry = value;
+                header.clear();
+            } else if (header.size() < 3) {
+                header.add((String) value);
+            } else {
+                assertSame(entry, groupEntry);
+                constants.add(header.get(2) + ' ' + header.get(0) + header.get(1) + ' ' + value);
+            }
+        }
+
+        assertTrue(constants.contains("typeDeclarations  " + INNER));
+        assertTrue(constants.contains("methodDeclarations getName()Ljava/lang/String; getName"));
+        assertTrue(constants.contains("strings getName()Ljava/lang/String; inner"));
+        assertTrue(constants.contains("constructorDeclarations <init>()V " + INNER));
+    }
+
+    protected static class Outer {
+        protected static class Inner {
+            public String getName() {
+                return "inner";
+            }
+        }
+
+        protected static Runnable createAnonymous() {
+            return new Runnable() {
+                @Override
+                public void run() {}
+            };
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    protected static class MapWithDefault extends HashMap<String, Collection> {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public Collection get(Object key) {
+            return computeIfAbsent((String) key, k -> new ArrayList<>());
+        }
+    }
+
+    protected static class ClassEntry implements Container, Container.Entry {
+        private final Class<?> type;
+
+        ClassEntry(Class<?> type) {
+            this.type = type;
+        }
+
+        @Override
+        public String getType() { return "test"; }
+        @Override
+        public Container.Entry getRoot() { return this; }
+        @Override
+        public boolean isDirectory() { return false; }
+        @Override
+        public String getPath() { return type.getName().replace('.', '/') + ".class"; }
+        @Override
+        public Container getContainer() { return this; }
+        @Override
+        public Container.Entry getParent() { return null; }
+        @Override
+        public URI getUri() { return URI.create("test:/" + getPath()); }
+        @Override
+        public long length() { return 0; }
+        @Override
+        public long compressedLength() { return 0; }
+        @Override
+        public InputStream getInputStream() { return type.getClassLoader().getResourceAsStream(getPath()); }
+        @Override
+        public Map<Container.EntryPath, Container.Entry> getChildren() { return Collections.emptyMap(); }
+    }
+}
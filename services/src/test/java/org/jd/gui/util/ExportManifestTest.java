@@ -0,0 +1,59 @@
+package org.jd.gui.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ExportManifestTest {
+
+    @Test
+    public void testResume(@TempDir Path directory) throws IOException {
+        Path path = directory.resolve("test-sources.jar");
+        Files.createFile(path);
+
+        ExportManifest manifest = ExportManifest.load(path);
+        assertTrue(manifest.isEmpty());
+
+        manifest.put("a/A.java", "1");
+        manifest.put("a/B.java", "2");
+        manifest.put("a/file.txt", null);
+        manifest.setComplete();
+        manifest.store();
+
+        // Cancelled after 'a/A.java' changed
+        manifest = ExportManifest.load(path);
+        assertTrue(manifest.isUpToDate("a/A.java", "1"));
+        assertFalse(manifest.isUpToDate("a/A.java", "3"));
+        assertFalse(manifest.isUpToDate("a/file.txt", null));
+        manifest.put("a/A.java", "3");
+        assertTrue(manifest.isSaved("a/A.java"));
+        assertFalse(manifest.isSaved("a/B.java"));
+        assertEquals(1, manifest.getSavedCount());
+        manifest.store();
+
+        // 'a/B.java' is still known, then removed
+        manifest = ExportManifest.load(path);
+        assertTrue(manifest.isUpToDate("a/A.java", "3"));
+        assertTrue(manifest.isUpToDate("a/B.java", "2"));
+        manifest.put("a/A.java", "3");
+        manifest.put("a/file.txt", null);
+        assertEquals(Set.of("a/B.java"), manifest.getRemovedPaths());
+        manifest.setComplete();
+        manifest.store();
+
+        manifest = ExportManifest.load(path);
+        assertFalse(manifest.isUpToDate("a/B.java", "2"));
+
+        // Without the exported file, the manifest is ignored
+        Files.delete(path);
+        assertTrue(ExportManifest.load(path).isEmpty());
+    }
+}
@@ -0,0 +1,37 @@
+package org.jd.gui.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAccumulator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ProgressTrackerTest {
+
+    @Test
+    public void testConcurrentUpdates() throws InterruptedException {
+        DoubleAccumulator lastProgress = new DoubleAccumulator(Math::max, 0);
+        ProgressTracker progressTracker = new ProgressTracker(lastProgress::accumulate);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        for (int i = 0; i < 8; i++) {
+            executor.execute(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    // Read-modify-write updates, like ProgressUtil
+                    progressTracker.accept(progressTracker.getAsDouble() + 0.01);
+                }
+            });
+        }
+
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        assertEquals(80, lastProgress.get(), 0.001);
+        assertEquals(80, progressTracker.getProgress(), 0.001);
+        // Share of the current thread
+        assertEquals(0, progressTracker.getAsDouble(), 0.001);
+    }
+}
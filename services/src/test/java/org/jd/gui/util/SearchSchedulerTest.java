@@ -0,0 +1,83 @@
+package org.jd.gui.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SearchSchedulerTest {
+
+    @Test
+    public void testDebounce() throws Exception {
+        ScheduledExecutorService executor = Executors.newScheduledThreadPool(2);
+        SearchScheduler searchScheduler = new SearchScheduler(executor, Runnable::run, 100);
+        AtomicInteger searchCount = new AtomicInteger();
+        List<String> results = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(1);
+
+        try {
+            for (String pattern : new String[] { "O", "Ob", "Obj", "Obje", "Objec", "Object" }) {
+                searchScheduler.submit(isCancelled -> {
+                    searchCount.incrementAndGet();
+                    return pattern;
+                }, result -> {
+                    results.add(result);
+                    latch.countDown();
+                });
+            }
+
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            Thread.sleep(200);
+
+            assertEquals(1, searchCount.get());
+            assertEquals(List.of("Object"), results);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testCancelRunningSearch() throws Exception {
+        ScheduledExecutorService executor = Executors.newScheduledThreadPool(2);
+        SearchScheduler searchScheduler = new SearchScheduler(executor, Runnable::run, 0);
+        List<String> results = new CopyOnWriteArrayList<>();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicBoolean cancelled = new AtomicBoolean();
+
+        try {
+            searchScheduler.submit(isCancelled -> {
+                started.countDown();
+                while (!isCancelled.getAsBoolean()) {
+                    Thread.onSpinWait();
+                }
+                cancelled.set(true);
+                return "slow";
+            }, results::add);
+
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            searchScheduler.submit(isCancelled -> "fast", result -> {
+                results.add(result);
+                done.countDown();
+            });
+
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            Thread.sleep(100);
+
+            assertTrue(cancelled.get());
+            assertEquals(List.of("fast"), results);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package org.jd.gui.util.decompiler;
+
+import org.jd.core.v1.api.loader.Loader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jd.core.DecompilationResult;
+
+public class DecompilationCacheTest {
+    protected static final String OUTER = "org/jd/gui/util/decompiler/DecompilationCacheTest$Outer";
+    protected static final String INNER = OUTER + "$Inner";
+    protected static final String OTHER = "org/jd/gui/util/decompiler/DecompilationCacheTest$Other";
+    protected static final String ENGINE = "JD-Core v1";
+
+    @Test
+    public void testKey() throws IOException {
+        Map<String, byte[]> classes = new HashMap<>();
+        classes.put(OUTER, readClass(OUTER));
+        classes.put(INNER, readClass(INNER));
+
+        Map<String, String> preferences = new HashMap<>();
+        preferences.put("ClassFileDecompilerPreferences.realignLineNumbers", "true");
+        preferences.put(GuiPreferences.FONT_SIZE_KEY, "12");
+
+        String key = DecompilationCache.getKey(preferences, createLoader(classes), null, OUTER, ENGINE);
+
+        assertNotNull(key);
+        assertEquals(key, DecompilationCache.getKey(new HashMap<>(preferences), createLoader(classes), null, OUTER, ENGINE));
+
+        // Preferences not read by the decompilers are ignored
+        preferences.put(GuiPreferences.FONT_SIZE_KEY, "14");
+        preferences.put(GuiPreferences.SHOW_COMPILER_ERRORS, "true");
+        assertEquals(key, DecompilationCache.getKey(preferences, createLoader(classes), null, OUTER, ENGINE));
+
+        // Decompiler preferences and engines are not
+        preferences.put("ClassFileDecompilerPreferences.realignLineNumbers", "false");
+        assertNotEquals(key, DecompilationCache.getKey(preferences, createLoader(classes), null, OUTER, ENGINE));
+        preferences.put("ClassFileDecompilerPreferences.realignLineNumbers", "true");
+        assertNotEquals(key, DecompilationCache.getKey(preferences, createLoader(classes), null, OUTER, "CFR"));
+
+        // Bytes of the inner classes are part of the key
+        classes.put(INNER, readClass(OTHER));
+        assertNotEquals(key, DecompilationCache.getKey(preferences, createLoader(classes), null, OUTER, ENGINE));
+
+        // Classes not found have no key
+        assertNull(DecompilationCache.getKey(preferences, createLoader(classes), null, "Unknown", ENGINE));
+    }
+
+    @Test
+    public void testMemoryEviction() {
+        DecompilationCache cache = new DecompilationCache();
+        // Shared source, each result weighs a quarter of the maximum weight
+        String source = "x".repeat((int) (DecompilationCache.MAXIMUM_MEMORY_WEIGHT / 8));
+
+        for (int i = 0; i < 5; i++) {
+            cache.put("key" + i, createResult(source));
+        }
+
+        assertEquals(3, cache.size());
+        assertTrue(cache.getWeight() <= DecompilationCache.MAXIMUM_MEMORY_WEIGHT);
+        assertNull(cache.get("key0"));
+        assertNull(cache.get("key1"));
+        assertNotNull(cache.get("key4"));
+
+        // The last used results are kept
+        assertNotNull(cache.get("key2"));
+        cache.put("key5", createResult(source));
+        assertNotNull(cache.get("key2"));
+        assertNull(cache.get("key3"));
+    }
+
+    @Test
+    public void testDiskTier(@TempDir Path directory) throws IOException {
+        DecompilationCache cache = new DecompilationCache();
+        DecompilationResult decompilationResult = createResult("class A {\n    int a;\n}\n");
+        decompilationResult.setMaxLineNumber(12);
+        decompilationResult.getLineNumbers().put(2, 12);
+
+        cache.setDirectory(directory.toFile());
+        cache.put("0123456789", decompilationResult);
+        cache.clear();
+
+        // Read from disk with its line numbers
+        DecompilationResult diskResult = cache.get("0123456789");
+
+        assertNotNull(diskResult);
+        assertEquals(decompilationResult.getDecompiledOutput(), diskResult.getDecompiledOutput());
+        assertEquals(12, diskResult.getMaxLineNumber());
+        assertEquals(Map.of(2, 12), diskResult.getLineNumbers());
+        assertEquals(1, cache.getDiskHitCount());
+        assertSame(diskResult, cache.get("0123456789"));
+
+        // Corrupted files are deleted
+        File cacheFile = cache.getCacheFile("0123456789");
+        Files.write(cacheFile.toPath(), new byte[] { 1, 2, 3 });
+        cache.clear();
+
+        assertNull(cache.get("0123456789"));
+        assertFalse(cacheFile.exists());
+    }
+
+    protected static DecompilationResult createResult(String source) {
+        DecompilationResult decompilationResult = new DecompilationResult();
+        decompilationResult.setDecompiledOutput(source);
+        return decompilationResult;
+    }
+
+    protected static byte[] readClass(String internalName) throws IOException {
+        try (InputStream is = DecompilationCacheTest.class.getClassLoader().getResourceAsStream(internalName + ".class")) {
+            return is.readAllBytes();
+        }
+    }
+
+    protected static Loader createLoader(Map<String, byte[]> classes) {
+        return new Loader() {
+            @Override
+            public boolean canLoad(String internalName) {
+                return classes.containsKey(internalName);
+            }
+
+            @Override
+            public byte[] load(String internalName) {
+                return classes.get(internalName);
+            }
+        };
+    }
+
+    protected static class Outer {
+        protected static class Inner {
+        }
+    }
+
+    protected static class Other {
+    }
+}
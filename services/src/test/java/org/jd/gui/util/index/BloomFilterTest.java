@@ -0,0 +1,73 @@
+package org.jd.gui.util.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BloomFilterTest {
+
+    @Test
+    public void testMightContain() {
+        List<String> keys = new ArrayList<>();
+
+        for (int i = 0; i < 20000; i++) {
+            keys.add("org/jd/gui/Type" + i);
+        }
+
+        BloomFilter bloomFilter = new BloomFilter(keys::get, keys.size());
+
+        for (String key : keys) {
+            assertTrue(bloomFilter.mightContain(key));
+            assertTrue(bloomFilter.mightContain(BloomFilter.hash(key)));
+        }
+
+        int falsePositiveCount = 0;
+
+        for (int i = 0; i < 20000; i++) {
+            if (bloomFilter.mightContain("org/jd/gui/Other" + i)) {
+                falsePositiveCount++;
+            }
+        }
+
+        assertTrue(falsePositiveCount < 400, "False positives: " + falsePositiveCount);
+    }
+
+    @Test
+    public void testAddAll() {
+        List<String> smallKeys = new ArrayList<>();
+        List<String> largeKeys = new ArrayList<>();
+
+        for (int i = 0; i < 100; i++) {
+            smallKeys.add("org/jd/gui/Small" + i);
+        }
+        for (int i = 0; i < 5000; i++) {
+            largeKeys.add("org/jd/gui/Large" + i);
+        }
+
+        BloomFilter union = new BloomFilter(1000);
+
+        // Repeated then folded
+        union.addAll(new BloomFilter(smallKeys::get, smallKeys.size()));
+        union.addAll(new BloomFilter(largeKeys::get, largeKeys.size()));
+
+        for (String key : smallKeys) {
+            assertTrue(union.mightContain(key));
+        }
+        for (String key : largeKeys) {
+            assertTrue(union.mightContain(key));
+        }
+    }
+
+    @Test
+    public void testEmpty() {
+        BloomFilter bloomFilter = new BloomFilter(0);
+
+        assertFalse(bloomFilter.mightContain("java/lang/Object"));
+        bloomFilter.add("java/lang/Object");
+        assertTrue(bloomFilter.mightContain("java/lang/Object"));
+    }
+}
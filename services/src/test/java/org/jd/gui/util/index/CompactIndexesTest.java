@@ -0,0 +1,98 @@
+package org.jd.gui.util.index;
+
+import org.jd.gui.api.model.Container;
+import org.jd.gui.api.model.Indexes;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CompactIndexesTest {
+
+    @Test
+    @SuppressWarnings("rawtypes")
+    public void testFreeze() {
+        Container.Entry a = new TestEntry("test/A.class");
+        Container.Entry b = new TestEntry("test/B.class");
+
+        Map<String, Map<String, Collection>> map = new HashMap<>();
+        Map<String, Collection> typeDeclarations = new HashMap<>();
+        typeDeclarations.put("test/A", new ArrayList<>(List.of(a)));
+        typeDeclarations.put("test/B", new ArrayList<>(List.of(b)));
+        map.put("typeDeclarations", typeDeclarations);
+        Map<String, Collection> methodReferences = new HashMap<>();
+        methodReferences.put("toString", new ArrayList<>(List.of(a, b)));
+        map.put("methodReferences", methodReferences);
+        Map<String, Collection> subTypeNames = new HashMap<>();
+        subTypeNames.put("java/lang/Object", new ArrayList<>(List.of("test/A", "test/B")));
+        map.put("subTypeNames", subTypeNames);
+
+        Indexes indexes = CompactIndexes.freeze(map);
+
+        assertNull(indexes.getIndex("strings"));
+        assertEquals(Collections.singletonList(a), indexes.getIndex("typeDeclarations").get("test/A"));
+        assertNull(indexes.getIndex("typeDeclarations").get("test/C"));
+        assertNull(indexes.getIndex("typeDeclarations").get("toString"));
+        assertEquals(Arrays.asList(a, b), indexes.getIndex("methodReferences").get("toString"));
+        assertEquals(Arrays.asList("test/A", "test/B"), indexes.getIndex("subTypeNames").get("java/lang/Object"));
+        assertTrue(indexes.getIndex("typeDeclarations").containsKey("test/B"));
+        assertFalse(indexes.getIndex("typeDeclarations").containsKey("java/lang/Object"));
+
+        Map<String, Collection> index = indexes.getIndex("typeDeclarations");
+        assertEquals(2, index.size());
+        assertEquals(typeDeclarations.keySet(), index.keySet());
+        for (Map.Entry<String, Collection> mapEntry : index.entrySet()) {
+            assertEquals(typeDeclarations.get(mapEntry.getKey()), mapEntry.getValue());
+        }
+        assertSame(b, ((List) index.get("test/B")).get(0));
+        assertThrows(UnsupportedOperationException.class, () -> index.put("test/C", new ArrayList<>()));
+    }
+
+    @Test
+    @SuppressWarnings("rawtypes")
+    public void testUnsupportedValue() {
+        Map<String, Map<String, Collection>> map = Collections.singletonMap("strings", Collections.singletonMap("key", List.of(1)));
+        assertThrows(IllegalArgumentException.class, () -> CompactIndexes.freeze(map));
+    }
+
+    private static class TestEntry implements Container.Entry {
+        private final String path;
+
+        TestEntry(String path) {
+            this.path = path;
+        }
+
+        @Override
+        public boolean isDirectory() { return false; }
+        @Override
+        public String getPath() { return path; }
+        @Override
+        public Container getContainer() { return null; }
+        @Override
+        public Container.Entry getParent() { return null; }
+        @Override
+        public URI getUri() { return URI.create("file:/" + path); }
+        @Override
+        public long length() { return 0; }
+        @Override
+        public long compressedLength() { return 0; }
+        @Override
+        public InputStream getInputStream() { return null; }
+        @Override
+        public Map<Container.EntryPath, Container.Entry> getChildren() { return Collections.emptyMap(); }
+    }
+}
@@ -0,0 +1,119 @@
+package org.jd.gui.util.index;
+
+import org.jd.gui.api.model.Indexes;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class IndexesResultCacheTest {
+
+    @Test
+    public void testIdentity() {
+        // Two indexes with the same hash code
+        Indexes indexes1 = new SameHashCodeIndexes();
+        Indexes indexes2 = new SameHashCodeIndexes();
+        IndexesResultCache<String> cache = new IndexesResultCache<>(1000, String::length);
+
+        cache.put(indexes1, "a", "result1");
+        cache.put(indexes2, "a", "result2");
+
+        assertEquals("result1", cache.get(indexes1, "a"));
+        assertEquals("result2", cache.get(indexes2, "a"));
+        assertNull(cache.get(indexes1, "b"));
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testWeightEviction() {
+        Indexes indexes = name -> null;
+        long entryWeight = IndexesResultCache.ENTRY_WEIGHT + 100;
+        IndexesResultCache<String> cache = new IndexesResultCache<>(3 * entryWeight, s -> 100);
+
+        cache.put(indexes, "a", "a");
+        cache.put(indexes, "b", "b");
+        cache.put(indexes, "c", "c");
+        // Access 'a', then evict the least recently used entry 'b'
+        cache.get(indexes, "a");
+        cache.put(indexes, "d", "d");
+
+        assertEquals(3, cache.size());
+        assertEquals(3 * entryWeight, cache.getWeight());
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals("a", cache.get(indexes, "a"));
+        assertNull(cache.get(indexes, "b"));
+
+        // Too heavy results are not stored
+        IndexesResultCache<String> smallCache = new IndexesResultCache<>(100, s -> 1000);
+        smallCache.put(indexes, "*", "*");
+        assertEquals(0, smallCache.size());
+        assertEquals(0, smallCache.getWeight());
+    }
+
+    @Test
+    public void testRetainAll() {
+        Indexes indexes1 = name -> null;
+        Indexes indexes2 = name -> null;
+        IndexesResultCache<String> cache = new IndexesResultCache<>(1000, String::length);
+
+        cache.put(indexes1, "a", "result1");
+        cache.put(indexes2, "a", "result2");
+        cache.retainAll(List.of(indexes2));
+
+        assertEquals(1, cache.size());
+        assertNull(cache.get(indexes1, "a"));
+        assertEquals("result2", cache.get(indexes2, "a"));
+    }
+
+    @Test
+    @SuppressWarnings("rawtypes")
+    public void testRelease() throws InterruptedException {
+        Map<String, Map<String, Collection>> map = new HashMap<>();
+        map.put("strings", new HashMap<>(Map.of("abc", List.of("abc"), "abd", List.of("abd"))));
+        CompactIndexes indexes = CompactIndexes.freeze(map);
+        Indexes otherIndexes = name -> null;
+        IndexesResultCache<String[]> cache = new IndexesResultCache<>(1000, IndexesResultCache::weighKeys);
+        WeakReference<Indexes> reference = new WeakReference<>(indexes);
+
+        cache.put(indexes, "ab", indexes.getIndex("strings").keySet().toArray(new String[0]));
+        assertEquals(1, cache.size());
+
+        indexes = null;
+
+        // The keys do not reference the indexes: the entry is dropped once the indexes are collected
+        for (int i = 0; (reference.get() != null || cache.size() > 0) && i < 100; i++) {
+            System.gc();
+            Thread.sleep(10);
+            cache.get(otherIndexes, "ab");
+        }
+
+        assertNull(reference.get());
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getWeight());
+    }
+
+    protected static class SameHashCodeIndexes implements Indexes {
+        @Override
+        @SuppressWarnings("rawtypes")
+        public Map<String, Collection> getIndex(String name) {
+            return null;
+        }
+
+        @Override
+        public int hashCode() {
+            return 1;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof SameHashCodeIndexes;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package org.jd.gui.util.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MemberConstantReaderTest {
+    protected static final String SAMPLE = "org/jd/gui/util/index/MemberConstantReaderTest$Sample";
+
+    @Test
+    public void testRead() throws IOException {
+        Set<String> constants = new HashSet<>();
+
+        try (InputStream is = MemberConstantReaderTest.class.getClassLoader().getResourceAsStream(SAMPLE + ".class")) {
+            MemberConstantReader.read(is, (indexName, memberName, memberDescriptor, constant) -> constants.add(indexName + ' ' + (memberName.isEmpty() ? "" : memberName + '-' + memberDescriptor) + ' ' + constant));
+        }
+
+        // Declarations
+        assertTrue(constants.contains("typeDeclarations  " + SAMPLE));
+        assertTrue(constants.contains("constructorDeclarations <init>-()V " + SAMPLE));
+        assertTrue(constants.contains("fieldDeclarations name-Ljava/lang/String; name"));
+        assertTrue(constants.contains("methodDeclarations greet-()Ljava/lang/String; greet"));
+        // References of the code of the members
+        assertTrue(constants.contains("strings <init>-()V default name"));
+        assertTrue(constants.contains("strings greet-()Ljava/lang/String; Hello "));
+        assertTrue(constants.contains("constructorReferences greet-()Ljava/lang/String; java/lang/StringBuilder"));
+        assertTrue(constants.contains("methodReferences greet-()Ljava/lang/String; append"));
+        assertTrue(constants.contains("fieldReferences greet-()Ljava/lang/String; name"));
+        // Constants of static blocks belong to the type
+        assertTrue(constants.contains("strings  sample.prefix"));
+        assertFalse(constants.contains("strings <clinit>-()V sample.prefix"));
+    }
+
+    protected static class Sample {
+        protected static final String PREFIX;
+
+        static {
+            PREFIX = System.getProperty("sample.prefix");
+        }
+
+        protected String name = "default name";
+
+        public String greet() {
+            return new StringBuilder("Hello ").append(name).toString();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package org.jd.gui.util.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TextTokenizerTest {
+
+    @Test
+    public void testTokenize() throws IOException {
+        List<String> tokens = new ArrayList<>();
+
+        TextTokenizer.tokenize(new StringReader("db.url=jdbc:mysql://localhost:3306/test\n<key name=\"a_b\">Hello, world!</key>"), tokens::add);
+
+        assertEquals(Arrays.asList("db.url", "jdbc:mysql://localhost:3306/test", "key", "name", "a_b", "Hello", "world", "/key"), tokens);
+    }
+
+    @Test
+    public void testLineNumbers() throws IOException {
+        List<String> tokens = new ArrayList<>();
+
+        TextTokenizer.tokenizeLines(new StringReader("a b\nc\r\nd\re\n\nf"), (token, lineNumber) -> tokens.add(token + lineNumber));
+
+        assertEquals(Arrays.asList("a1", "b1", "c2", "d3", "e4", "f6"), tokens);
+    }
+
+    @Test
+    public void testTruncate() throws IOException {
+        char[] chars = new char[20000];
+        Arrays.fill(chars, 'x');
+        List<String> tokens = new ArrayList<>();
+
+        TextTokenizer.tokenize(new StringReader(new String(chars) + " y"), tokens::add);
+
+        assertEquals(2, tokens.size());
+        assertEquals(TextTokenizer.MAX_TOKEN_LENGTH, tokens.get(0).length());
+        assertEquals("y", tokens.get(1));
+    }
+}
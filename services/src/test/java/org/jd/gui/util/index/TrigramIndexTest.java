@@ -0,0 +1,68 @@
+package org.jd.gui.util.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TrigramIndexTest {
+
+    @Test
+    public void testForEachCandidate() {
+        TreeSet<String> keySet = new TreeSet<>(Arrays.asList(
+                "Unable to open connection", "Connection refused", "Connection reset by peer",
+                "getConnection", "setConnectionTimeout", "close", "toString", "ab", ""));
+        Random random = new Random(42);
+
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder sb = new StringBuilder();
+            int length = random.nextInt(i % 100 == 0 ? 1000 : 20);
+
+            for (int j = 0; j < length; j++) {
+                sb.append((char) ('a' + random.nextInt(6)));
+            }
+
+            keySet.add(sb.toString());
+        }
+
+        String[] keys = keySet.toArray(new String[keySet.size()]);
+        TrigramIndex index = new TrigramIndex(i -> keys[i], keys.length);
+
+        assertEquals(keys.length, index.getKeyCount());
+
+        for (String pattern : Arrays.asList("Connection", "*Connection*", "*onnect?on", "*connection", "get*Timeout", "C", "*ab", "*abc*fed", "a?c", "*", "*ee?ab*aaa", "xyz", "*to*")) {
+            Pattern regExp = Pattern.compile(pattern.replace("?", ".").replace("*", ".*") + ".*");
+            List<String> expected = new ArrayList<>();
+            List<String> actual = new ArrayList<>();
+            List<Integer> positions = new ArrayList<>();
+
+            for (String key : keys) {
+                if (regExp.matcher(key).matches()) {
+                    expected.add(key);
+                }
+            }
+
+            index.forEachCandidate(pattern, position -> {
+                positions.add(position);
+                if (regExp.matcher(keys[position]).matches()) {
+                    actual.add(keys[position]);
+                }
+            });
+
+            // Keys are sorted and candidates are sent in increasing order, including the long keys
+            assertEquals(expected, actual, pattern);
+            assertEquals(new ArrayList<>(new TreeSet<>(positions)), positions, pattern);
+        }
+
+        List<Integer> positions = new ArrayList<>();
+        index.forEachCandidate("*Connection*", positions::add);
+        assertTrue(positions.size() < keys.length / 10);
+    }
+}
@@ -0,0 +1,129 @@
+package org.jd.gui.util.index;
+
+import org.jd.gui.api.model.Indexes;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TypeHierarchyTest {
+
+    @Test
+    public void testQueries() {
+        // Object <- A <- B, C ; A implements I ; D implements I, in another container
+        Indexes indexes1 = createIndexes(
+            new String[][] { { "java/lang/Object", "A" }, { "A", "B", "C" }, { "I", "A" } },
+            new String[][] { { "A", "java/lang/Object" }, { "B", "A" }, { "C", "A" }, { "I" } });
+        Indexes indexes2 = createIndexes(
+            new String[][] { { "I", "D", "A" } },
+            new String[][] { { "D", "java/lang/Object" } });
+        TypeHierarchy typeHierarchy = new TypeHierarchy(List.of(indexes1, indexes2));
+
+        assertEquals(Set.of("B", "C"), new HashSet<>(typeHierarchy.getSubTypeNames("A")));
+        assertEquals(Set.of("A", "D"), new HashSet<>(typeHierarchy.getSubTypeNames("I")));
+        assertEquals(Set.of("java/lang/Object", "I"), new HashSet<>(typeHierarchy.getSuperTypeNames("A")));
+        assertEquals(Set.of("A", "B", "C", "D"), new HashSet<>(typeHierarchy.getAllSubTypeNames("I")));
+        assertEquals(4, typeHierarchy.getAllSubTypeCount("I"));
+        assertEquals(2, typeHierarchy.getSubTypeCount("I"));
+        assertEquals(Set.of("A", "I", "java/lang/Object"), new HashSet<>(typeHierarchy.getAllSuperTypeNames("B")));
+
+        assertTrue(typeHierarchy.isSubTypeOf("C", "I"));
+        assertFalse(typeHierarchy.isSubTypeOf("I", "C"));
+        assertFalse(typeHierarchy.isSubTypeOf("Unknown", "I"));
+
+        assertEquals("A", typeHierarchy.getSuperClassName("B"));
+        assertTrue(typeHierarchy.isSuperClassKnown("I"));
+        assertNull(typeHierarchy.getSuperClassName("I"));
+        assertFalse(typeHierarchy.isSuperClassKnown("java/lang/Object"));
+        assertTrue(typeHierarchy.isDeclared("D"));
+        assertFalse(typeHierarchy.isDeclared("java/lang/Object"));
+        assertTrue(typeHierarchy.getSubTypeNames("Unknown").isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("rawtypes")
+    public void testAccessFlags() {
+        Map<String, Map<String, Collection>> map = new HashMap<>();
+        Map<String, Collection> typeAccessFlagIndex = new HashMap<>();
+        Indexes indexes = createIndexes(new String[][] { { "I", "A" } }, new String[][] { { "A", "java/lang/Object" }, { "I" } });
+
+        typeAccessFlagIndex.put("A", List.of("33"));
+        typeAccessFlagIndex.put("I", List.of("1537"));
+        map.put("typeAccessFlags", typeAccessFlagIndex);
+
+        TypeHierarchy typeHierarchy = new TypeHierarchy(List.of(name -> map.containsKey(name) ? map.get(name) : indexes.getIndex(name)));
+
+        assertEquals(33, typeHierarchy.getAccessFlags("A"));
+        assertEquals(1537, typeHierarchy.getAccessFlags("I"));
+        assertEquals(-1, typeHierarchy.getAccessFlags("java/lang/Object"));
+        assertEquals(-1, typeHierarchy.getAccessFlags("Unknown"));
+    }
+
+    @Test
+    public void testGet() {
+        Indexes indexes = createIndexes(new String[][] { { "A", "B" } }, new String[][] { { "B", "A" } });
+        List<Indexes> doneIndexes = new ArrayList<>(List.of(indexes));
+        TypeHierarchy typeHierarchy = TypeHierarchy.get(doneIndexes);
+
+        assertSame(typeHierarchy, TypeHierarchy.get(new ArrayList<>(doneIndexes)));
+
+        doneIndexes.add(createIndexes(new String[][] { { "B", "C" } }, new String[][] { { "C", "B" } }));
+
+        assertEquals(List.of("C"), TypeHierarchy.get(doneIndexes).getAllSubTypeNames("B"));
+        // Callers with other indexes do not evict each other
+        assertSame(typeHierarchy, TypeHierarchy.get(List.of(indexes)));
+    }
+
+    @Test
+    public void testGetBuilt() throws InterruptedException {
+        List<Indexes> doneIndexes = List.of(createIndexes(new String[][] { { "A", "B" } }, new String[][] { { "B", "A" } }));
+
+        assertNull(TypeHierarchy.getBuilt(doneIndexes));
+
+        TypeHierarchy typeHierarchy;
+
+        // Built in the background
+        for (int i = 0; (typeHierarchy = TypeHierarchy.getBuilt(doneIndexes)) == null && i < 100; i++) {
+            Thread.sleep(50);
+        }
+
+        assertEquals("A", typeHierarchy.getSuperClassName("B"));
+        assertSame(typeHierarchy, TypeHierarchy.get(doneIndexes));
+    }
+
+    /**
+     * @param subTypeNames    [super type name, sub type names...]
+     * @param superClassNames [type name, super class name], declared types
+     */
+    @SuppressWarnings("rawtypes")
+    protected static Indexes createIndexes(String[][] subTypeNames, String[][] superClassNames) {
+        Map<String, Map<String, Collection>> map = new HashMap<>();
+        Map<String, Collection> subTypeIndex = new HashMap<>();
+        Map<String, Collection> superClassIndex = new HashMap<>();
+        Map<String, Collection> typeDeclarationIndex = new HashMap<>();
+
+        for (String[] names : subTypeNames) {
+            subTypeIndex.put(names[0], List.of(names).subList(1, names.length));
+        }
+        for (String[] names : superClassNames) {
+            superClassIndex.put(names[0], List.of(names).subList(1, names.length));
+            typeDeclarationIndex.put(names[0], List.of());
+        }
+
+        map.put("subTypeNames", subTypeIndex);
+        map.put("superClassNames", superClassIndex);
+        map.put("typeDeclarations", typeDeclarationIndex);
+        return map::get;
+    }
+}
@@ -0,0 +1,80 @@
+package org.jd.gui.util.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TypeNameIndexTest {
+
+    private static final List<String> TYPE_NAMES = Arrays.asList(
+            "javax/servlet/http/HttpServletRequest",
+            "javax/servlet/http/HttpServletRequestWrapper",
+            "javax/servlet/http/HttpServletResponse",
+            "javax/servlet/http/HttpSession",
+            "java/util/HashMap",
+            "java/util/HashMap$Node",
+            "java/util/Map",
+            "java/net/URLConnection",
+            "org/example/HttpFooServletRequest");
+
+    @Test
+    public void testMatch() {
+        TypeNameIndex index = new TypeNameIndex(TYPE_NAMES);
+
+        assertEquals(TYPE_NAMES.size(), index.size());
+        assertEquals(Arrays.asList(
+                "javax/servlet/http/HttpServletRequest",
+                "javax/servlet/http/HttpServletRequestWrapper"), match(index, "HSReq"));
+        assertEquals(Arrays.asList(
+                "javax/servlet/http/HttpServletRequest",
+                "javax/servlet/http/HttpServletRequestWrapper",
+                "javax/servlet/http/HttpServletResponse"), match(index, "HSR"));
+        assertEquals(Collections.singletonList("java/util/HashMap"), match(index, "hash"));
+        assertEquals(Arrays.asList(
+                "java/util/HashMap$Node",
+                "java/util/Map"), match(index, "m", "N"));
+        assertEquals(Collections.singletonList("java/net/URLConnection"), match(index, "URLC"));
+        assertEquals(Collections.emptyList(), match(index, "Xyz"));
+        assertEquals(Collections.emptyList(), match(index, ""));
+    }
+
+    @Test
+    public void testMatches() {
+        for (String pattern : Arrays.asList("H", "h", "HSR", "HttpSeRe", "hash", "M", "N", "URLC", "HFSR", "HS", "Xyz")) {
+            List<String> expected = new ArrayList<>();
+
+            for (String typeName : TYPE_NAMES) {
+                if (TypeNameIndex.matches(pattern, typeName)) {
+                    expected.add(typeName);
+                }
+            }
+
+            List<String> actual = match(new TypeNameIndex(TYPE_NAMES), pattern);
+            Collections.sort(expected);
+            Collections.sort(actual);
+            assertEquals(expected, actual, pattern);
+        }
+
+        assertTrue(TypeNameIndex.matches("HFSR", "org/example/HttpFooServletRequest"));
+        assertFalse(TypeNameIndex.matches("HSR", "org/example/HttpFooServletRequest"));
+        assertFalse(TypeNameIndex.matches("Map", "java/util/HashMap"));
+    }
+
+    private static List<String> match(TypeNameIndex index, String... patterns) {
+        List<String> typeNames = new ArrayList<>();
+
+        for (String pattern : patterns) {
+            index.match(pattern, typeNames::add);
+        }
+
+        Collections.sort(typeNames);
+        return typeNames;
+    }
+}
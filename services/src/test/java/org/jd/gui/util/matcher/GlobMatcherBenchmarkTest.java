@@ -0,0 +1,110 @@
+package org.jd.gui.util.matcher;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compare {@link GlobMatcher} with the regular expressions it replaced, on the simple names of generated type
+ * names. Disabled by default, run it with:<br>
+ * <code>mvn -pl services test -Dbenchmark=true -Dtest=GlobMatcherBenchmarkTest</code>
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class GlobMatcherBenchmarkTest {
+    protected static final int TYPE_NAME_COUNT = 200_000;
+    protected static final int WARM_UP_ROUNDS = 10;
+    protected static final int ROUNDS = 10;
+    protected static final String[] PATTERNS = { "*Serv?et*Req", "HSR*", "*Impl", "Abstract*Factory" };
+    protected static final String[] WORDS = {
+        "Abstract", "Http", "Servlet", "Request", "Response", "Factory", "Bean", "Impl", "Context", "Handler",
+        "Service", "Default", "Type", "Reader", "Writer", "Stream", "Filter", "Config", "Listener", "Util"
+    };
+
+    @Test
+    public void testTypeNames() {
+        List<String> typeNames = createTypeNames(new Random(42));
+
+        for (String pattern : PATTERNS) {
+            Pattern regExpPattern = GlobMatcherTest.createTypeNamePattern(pattern);
+            GlobMatcher globMatcher = GlobMatcher.compileTypeName(pattern);
+
+            // Same results and warm up
+            for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+                assertEquals(matchWithPattern(regExpPattern, typeNames), matchWithGlobMatcher(globMatcher, typeNames), pattern);
+            }
+
+            long patternNanos = Long.MAX_VALUE;
+            long globMatcherNanos = Long.MAX_VALUE;
+
+            for (int i = 0; i < ROUNDS; i++) {
+                long start = System.nanoTime();
+                matchWithPattern(regExpPattern, typeNames);
+                patternNanos = Math.min(patternNanos, System.nanoTime() - start);
+
+                start = System.nanoTime();
+                matchWithGlobMatcher(globMatcher, typeNames);
+                globMatcherNanos = Math.min(globMatcherNanos, System.nanoTime() - start);
+            }
+
+            System.out.printf("%-20s Pattern: %6.2f ms, GlobMatcher: %6.2f ms (best of %d rounds over %d type names)%n",
+                pattern, patternNanos / 1e6, globMatcherNanos / 1e6, ROUNDS, typeNames.size());
+        }
+    }
+
+    protected static List<String> createTypeNames(Random random) {
+        List<String> typeNames = new ArrayList<>(TYPE_NAME_COUNT);
+        StringBuilder sb = new StringBuilder();
+
+        for (int i = 0; i < TYPE_NAME_COUNT; i++) {
+            sb.setLength(0);
+            sb.append("org/jd/p").append(random.nextInt(100)).append('/');
+
+            for (int j = 1 + random.nextInt(4); j > 0; j--) {
+                sb.append(WORDS[random.nextInt(WORDS.length)]);
+            }
+
+            if (random.nextInt(4) == 0) {
+                sb.append('$').append(WORDS[random.nextInt(WORDS.length)]);
+            }
+
+            typeNames.add(sb.toString());
+        }
+
+        return typeNames;
+    }
+
+    protected static int getSimpleNameStart(String typeName) {
+        return Math.max(typeName.lastIndexOf('/'), typeName.lastIndexOf('$')) + 1;
+    }
+
+    // Former path: a substring and a Matcher per type name
+    protected static int matchWithPattern(Pattern regExpPattern, List<String> typeNames) {
+        int count = 0;
+
+        for (String typeName : typeNames) {
+            if (regExpPattern.matcher(typeName.substring(getSimpleNameStart(typeName))).matches()) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    protected static int matchWithGlobMatcher(GlobMatcher globMatcher, List<String> typeNames) {
+        int count = 0;
+
+        for (String typeName : typeNames) {
+            if (globMatcher.matches(typeName, getSimpleNameStart(typeName), typeName.length())) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+}
@@ -0,0 +1,107 @@
+package org.jd.gui.util.matcher;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GlobMatcherTest {
+
+    @Test
+    public void testCompile() {
+        assertTrue(GlobMatcher.compile("Connection").matches("Connection refused"));
+        assertTrue(GlobMatcher.compile("*refused").matches("Connection refused"));
+        assertTrue(GlobMatcher.compile("Con?ection*ref").matches("Connection refused"));
+        assertTrue(GlobMatcher.compile("").matches(""));
+        assertTrue(GlobMatcher.compile("*").matches(""));
+        assertTrue(GlobMatcher.compile("a.b").matches("a.b"));
+        assertFalse(GlobMatcher.compile("a.b").matches("axb"));
+        assertFalse(GlobMatcher.compile("connection").matches("Connection refused"));
+        assertFalse(GlobMatcher.compile("refused").matches("Connection refused"));
+        assertFalse(GlobMatcher.compile("Connection?").matches("Connection"));
+    }
+
+    @Test
+    public void testCompileTypeName() {
+        String typeName = "javax/servlet/http/HttpServletRequest";
+        int start = typeName.lastIndexOf('/') + 1;
+
+        assertTrue(GlobMatcher.compileTypeName("HSR").matches(typeName, start, typeName.length()));
+        assertTrue(GlobMatcher.compileTypeName("http*req").matches(typeName, start, typeName.length()));
+        assertTrue(GlobMatcher.compileTypeName("*Request").matches(typeName, start, typeName.length()));
+        assertTrue(GlobMatcher.compileTypeName("H?tp").matches(typeName, start, typeName.length()));
+        assertFalse(GlobMatcher.compileTypeName("HTTP").matches(typeName, start, typeName.length()));
+        assertFalse(GlobMatcher.compileTypeName("servlet").matches(typeName, start, typeName.length()));
+        assertFalse(GlobMatcher.compileTypeName("HSR").matches(typeName, start, start + 11));
+    }
+
+    @Test
+    public void testSameResultsAsRegularExpressions() {
+        Random random = new Random(42);
+        String alphabet = "aAbBc.*?";
+
+        for (int i = 0; i < 20000; i++) {
+            String pattern = randomString(random, alphabet, 6);
+            String s = randomString(random, "aAbBc.", 10);
+
+            assertEquals(createPattern(pattern).matcher(s).matches(), GlobMatcher.compile(pattern).matches(s), pattern + " / " + s);
+            assertEquals(createTypeNamePattern(pattern).matcher(s).matches(), GlobMatcher.compileTypeName(pattern).matches(s), pattern + " / " + s);
+        }
+    }
+
+    protected static String randomString(Random random, String alphabet, int maxLength) {
+        int length = random.nextInt(maxLength + 1);
+        StringBuilder sb = new StringBuilder(length);
+
+        for (int i = 0; i < length; i++) {
+            sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+
+        return sb.toString();
+    }
+
+    protected static Pattern createPattern(String pattern) {
+        StringBuilder sb = new StringBuilder();
+
+        for (char c : pattern.toCharArray()) {
+            if (c == '*') {
+                sb.append(".*");
+            } else if (c == '?') {
+                sb.append('.');
+            } else {
+                sb.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+
+        return Pattern.compile(sb.append(".*").toString(), Pattern.DOTALL);
+    }
+
+    protected static Pattern createTypeNamePattern(String pattern) {
+        StringBuilder sb = new StringBuilder();
+
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+
+            if (Character.isUpperCase(c)) {
+                if (i > 0) {
+                    sb.append(".*");
+                }
+                sb.append(c);
+            } else if (Character.isLowerCase(c)) {
+                sb.append('[').append(c).append(Character.toUpperCase(c)).append(']');
+            } else if (c == '*') {
+                sb.append(".*");
+            } else if (c == '?') {
+                sb.append('.');
+            } else {
+                sb.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+
+        return Pattern.compile(sb.append(".*").toString(), Pattern.DOTALL);
+    }
+}